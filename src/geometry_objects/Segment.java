@@ -8,7 +8,9 @@ import geometry_objects.delegates.LineDelegate;
 import geometry_objects.delegates.SegmentDelegate;
 import geometry_objects.delegates.intersections.IntersectionDelegate;
 import geometry_objects.points.Point;
+import utilities.math.HashUtilities;
 import utilities.math.MathUtilities;
+import utilities.math.analytic_geometry.GeometryPredicates;
 import utilities.math.analytic_geometry.GeometryUtilities;
 
 public class Segment extends GeometricObject
@@ -17,16 +19,45 @@ public class Segment extends GeometricObject
 	protected Point _point2;
 
 	protected double _length;
+
+	// The supporting line, computed once:
+	//   * slope (POSITIVE_INFINITY if vertical) and intercept: y = slope * x + intercept through point2
+	//   * direction vector (point1 --> point2)
+	//   * normalized equation ax + by = c with a^2 + b^2 = 1 (all zero for a degenerate segment)
 	protected double _slope;
+	protected double _intercept;
+	protected double _directionX;
+	protected double _directionY;
+	protected double _lineA;
+	protected double _lineB;
+	protected double _lineC;
+	protected boolean _vertical;
+	protected boolean _horizontal;
+
+	// Distance within which GeometryUtilities.between may accept a point (see envelopePadding)
+	protected double _tolerance;
+
+	// Axis-aligned envelope: the bounding box of every point GeometryUtilities.between
+	// can accept as lying on this segment (see envelopePadding)
+	protected double _minX;
+	protected double _minY;
+	protected double _maxX;
+	protected double _maxY;
 
 	public Point getPoint1() { return _point1; }
 	public Point getPoint2() { return _point2; }
+	public double getEnvelopeMinX() { return _minX; }
+	public double getEnvelopeMinY() { return _minY; }
+	public double getEnvelopeMaxX() { return _maxX; }
+	public double getEnvelopeMaxY() { return _maxY; }
 	public double length() { return _length; }
-	public double slope()
-	{
-		try { return GeometryUtilities.slope(_point1, _point2); }
-		catch(ArithmeticException ae) { return Double.POSITIVE_INFINITY; }
-	}
+	public double slope() { return _slope; }
+	public double intercept() { return _intercept; }
+	public double getDirectionX() { return _directionX; }
+	public double getDirectionY() { return _directionY; }
+	public double getLineA() { return _lineA; }
+	public double getLineB() { return _lineB; }
+	public double getLineC() { return _lineC; }
 
 	public Segment(Segment in) { this(in._point1, in._point2); }
 	public Segment(Point p1, Point p2)
@@ -34,6 +65,78 @@ public class Segment extends GeometricObject
 		_point1 = p1;
 		_point2 = p2;
 		_length = Math.sqrt(Math.pow((_point1.getX() - _point2.getX()), 2) + Math.pow((_point1.getY() - _point2.getY()), 2));
+
+		computeLine();
+
+		_tolerance = envelopePadding(_length);
+		_minX = Math.min(_point1.getX(), _point2.getX()) - _tolerance;
+		_minY = Math.min(_point1.getY(), _point2.getY()) - _tolerance;
+		_maxX = Math.max(_point1.getX(), _point2.getX()) + _tolerance;
+		_maxY = Math.max(_point1.getY(), _point2.getY()) + _tolerance;
+	}
+
+	/*
+	 * Compute the orientation flags and line coefficients once.
+	 * Slope and intercept are computed exactly as GeometryUtilities.slope and
+	 * LineIntersectionDelegate always have, so results do not change.
+	 */
+	private void computeLine()
+	{
+		_horizontal = MathUtilities.doubleEquals(_point1.getY(), _point2.getY());
+		_vertical = MathUtilities.doubleEquals(_point1.getX(), _point2.getX());
+
+		_directionX = _point2.getX() - _point1.getX();
+		_directionY = _point2.getY() - _point1.getY();
+
+		_slope = _vertical ? Double.POSITIVE_INFINITY : GeometryUtilities.slope(_point1, _point2);
+		_intercept = _vertical ? Double.NaN : _point2.getY() - _slope * _point2.getX();
+
+		if (_length == 0) return;
+
+		_lineA = -_directionY / _length;
+		_lineB = _directionX / _length;
+		_lineC = _lineA * _point1.getX() + _lineB * _point1.getY();
+	}
+
+	/*
+	 * GeometryUtilities.between accepts a point M for segment AB when |AM| + |MB| < |AB| + EPSILON:
+	 * an ellipse with foci A and B. No point of that ellipse is farther from AB than
+	 * its semi-minor axis, sqrt(EPSILON * (2 * length + EPSILON)) / 2, or EPSILON beyond an endpoint.
+	 * 
+	 * @param length -- the length of a segment
+	 * @return the padding of the envelope so that envelope rejection never disagrees with between
+	 */
+	private static double envelopePadding(double length)
+	{
+		return Math.sqrt(MathUtilities.EPSILON * (2 * length + MathUtilities.EPSILON)) / 2 + 2 * MathUtilities.EPSILON;
+	}
+
+	/*
+	 * @param x, y -- coordinates of a point
+	 * @return false if the point certainly does not lie on this segment (cheap rejection test)
+	 */
+	public boolean envelopeContains(double x, double y)
+	{
+		return _minX <= x && x <= _maxX && _minY <= y && y <= _maxY;
+	}
+
+	/*
+	 * @param x, y -- coordinates of a point
+	 * @return false if the point is certainly not on this segment's line within tolerance (cheap rejection test)
+	 */
+	public boolean nearLine(double x, double y)
+	{
+		return Math.abs(_lineA * x + _lineB * y - _lineC) <= _tolerance;
+	}
+
+	/*
+	 * @param that -- a segment
+	 * @return false if the segments certainly have no point in common (cheap rejection test)
+	 */
+	public boolean envelopeIntersects(Segment that)
+	{
+		return _minX <= that._maxX && that._minX <= _maxX &&
+			   _minY <= that._maxY && that._minY <= _maxY;
 	}
 
 	/*
@@ -114,15 +217,21 @@ public class Segment extends GeometricObject
 	 */
 	public boolean has(Point pt) { return _point1.equals(pt) || _point2.equals(pt); }
 
+	/*
+	 * @param x, y -- coordinates of a point
+	 * @return true if (x, y) is one of the endpoints of this segment
+	 */
+	public boolean has(double x, double y) { return _point1.equals(x, y) || _point2.equals(x, y); }
+
 	/*
 	 * @return true if this segment is horizontal (by analysis of both endpoints having same y-coordinate)
 	 */
-	public boolean isHorizontal() { return MathUtilities.doubleEquals(_point1.getY(), _point2.getY()); }
+	public boolean isHorizontal() { return _horizontal; }
 
 	/*
 	 * @return true if this segment is vertical (by analysis of both endpoints having same x-coordinate)
 	 */
-	public boolean isVertical() { return MathUtilities.doubleEquals(_point1.getX(), _point2.getX()); }
+	public boolean isVertical() { return _vertical; }
 
 	/*
 	 * @param pt -- one of the endpoints of this segment
@@ -136,10 +245,13 @@ public class Segment extends GeometricObject
 		return null;
 	}
 
+	/*
+	 * Order-insensitive (AB == BA) and consistent with equals
+	 */
 	@Override
 	public int hashCode()
 	{
-		return _point1.hashCode() +_point2.hashCode();
+		return HashUtilities.fold(HashUtilities.unordered(_point1.longHash(), _point2.longHash()));
 	}
 
 	/*
@@ -206,8 +318,8 @@ public class Segment extends GeometricObject
         // Avoid: <--------------------- . ---------------->
         //      V------------W------------Z
         // middle  endpoint  endpoint
-        return GeometryUtilities.between(otherL, shared, otherR) ||
-        	   GeometryUtilities.between(otherR, shared, otherL);
+        return GeometryPredicates.between(otherL, shared, otherR) ||
+        	   GeometryPredicates.between(otherR, shared, otherL);
     }
     
     @Override
@@ -4,6 +4,7 @@ import java.util.List;
 
 import exceptions.FactException;
 import geometry_objects.points.Point;
+import utilities.math.HashUtilities;
 
 public class Triangle
 {
@@ -17,6 +18,9 @@ public class Triangle
 	protected Segment _segmentA;
 	protected Segment _segmentB;
 	protected Segment _segmentC;
+	public Segment getSegmentA() { return _segmentA; }
+	public Segment getSegmentB() { return _segmentB; }
+	public Segment getSegmentC() { return _segmentC; }
 
 	public Triangle(List<Segment> segs) throws FactException
 	{
@@ -86,10 +90,13 @@ public class Triangle
 	 */
 	public boolean has(Point p) { return _point1.equals(p) || _point2.equals(p) || _point3.equals(p); }
 
+	/*
+	 * Independent of the order of the vertices; consistent with equals
+	 */
 	@Override
 	public int hashCode()
 	{
-		return _point1.hashCode() + _point2.hashCode() + _point3.hashCode();
+		return HashUtilities.fold(HashUtilities.unordered(_point1.longHash(), _point2.longHash(), _point3.longHash()));
 	}
 	
 	@Override
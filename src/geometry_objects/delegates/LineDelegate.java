@@ -16,6 +16,10 @@ public class LineDelegate
      */
     public static boolean areCollinear(Segment thisS, Segment that)
     {
+        // Collinearity requires an endpoint of that on thisS (see below); reject cheaply
+        if (!mayLieOn(thisS, that.getPoint1().getX(), that.getPoint1().getY()) &&
+            !mayLieOn(thisS, that.getPoint2().getX(), that.getPoint2().getY())) return false;
+
         // If the segments are vertical, just compare the X values of one point of each
         // Also ensure that the segments have some overlap
         if (thisS.isVertical() && that.isVertical())
@@ -35,4 +39,12 @@ public class LineDelegate
         return MathUtilities.doubleEquals(thisS.slope(), that.slope()) &&
                (thisS.pointLiesOn(that.getPoint1()) || thisS.pointLiesOn(that.getPoint2()));
     }
+
+    /*
+     * @return false if (x, y) certainly does not lie on the segment: outside its envelope or off its line
+     */
+    private static boolean mayLieOn(Segment segment, double x, double y)
+    {
+        return segment.envelopeContains(x, y) && segment.nearLine(x, y);
+    }
 }
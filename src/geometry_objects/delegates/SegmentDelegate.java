@@ -2,7 +2,7 @@ package geometry_objects.delegates;
 
 import geometry_objects.points.Point;
 import geometry_objects.Segment;
-import utilities.math.analytic_geometry.GeometryUtilities;
+import utilities.math.analytic_geometry.GeometryPredicates;
 
 /*
  * A processing, delegation class.
@@ -59,7 +59,9 @@ public class SegmentDelegate extends FigureDelegate
 	{
 		if (pt == null) return false;
 
-		return GeometryUtilities.between(pt, segment.getPoint1(), segment.getPoint2());
+		if (!segment.envelopeContains(pt.getX(), pt.getY())) return false;
+
+		return GeometryPredicates.between(pt, segment.getPoint1(), segment.getPoint2());
 	}
 
 	/*
@@ -68,8 +70,22 @@ public class SegmentDelegate extends FigureDelegate
 	 */
 	public static boolean pointLiesBetweenEndpoints(Segment segment, Point pt)
 	{
-		if (pt == null || segment.has(pt)) return false;
+		if (pt == null || !segment.envelopeContains(pt.getX(), pt.getY())) return false;
+
+		if (segment.has(pt)) return false;
+
+		return GeometryPredicates.between(pt, segment.getPoint1(), segment.getPoint2());
+	}
+
+	/*
+	 * @param x, y -- coordinates of a point
+	 * @return true if the point is on the segment (EXcluding endpoints); finite examination only
+	 */
+	public static boolean pointLiesBetweenEndpoints(Segment segment, double x, double y)
+	{
+		if (!segment.envelopeContains(x, y) || segment.has(x, y)) return false;
 
-		return GeometryUtilities.between(pt, segment.getPoint1(), segment.getPoint2());
+		return GeometryPredicates.between(x, y, segment.getPoint1().getX(), segment.getPoint1().getY(),
+				                               segment.getPoint2().getX(), segment.getPoint2().getY());
 	}
 }
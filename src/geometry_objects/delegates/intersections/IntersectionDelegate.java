@@ -1,5 +1,7 @@
 package geometry_objects.delegates.intersections;
 
+import java.util.Collection;
+
 import geometry_objects.delegates.FigureDelegate;
 import geometry_objects.points.Point;
 import geometry_objects.Segment;
@@ -16,4 +18,14 @@ public class IntersectionDelegate extends FigureDelegate
 
         return p;
     }
+
+    /*
+     * All <Segment, Segment> intersections of a collection of segments, computed once
+     * @param segments -- a collection of segments
+     * @return the intersection graph: every intersecting pair with its point and kind
+     */
+    public static IntersectionGraph intersectAll(Collection<Segment> segments)
+    {
+        return new IntersectionGraph(segments);
+    }
 }
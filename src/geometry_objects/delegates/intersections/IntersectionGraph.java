@@ -0,0 +1,197 @@
+package geometry_objects.delegates.intersections;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import geometry_objects.Segment;
+import geometry_objects.points.Point;
+
+/**
+ * Every intersecting pair of a collection of segments (computed once), with
+ * the point and kind of each intersection:
+ *
+ *     SHARED_VERTEX          CROSSING            STANDING_ON
+ *
+ *         /                     \  /                  |
+ *        /                       \/                   |
+ *       *-------                 /\              -----*-----
+ *                               /  \
+ *
+ * Lookups for a pair of segments are O(1) (expected).
+ * Segments are identified by their position in the given collection (iteration order).
+ */
+public class IntersectionGraph
+{
+	public enum Kind { SHARED_VERTEX, CROSSING, STANDING_ON }
+
+	/**
+	 * The intersection of segments at indices first < second
+	 */
+	public static class Intersection implements Comparable<Intersection>
+	{
+		protected int _first;
+		protected int _second;
+		protected Point _point;
+		protected Kind _kind;
+
+		public int getFirst() { return _first; }
+		public int getSecond() { return _second; }
+		public Point getPoint() { return _point; }
+		public Kind getKind() { return _kind; }
+
+		protected Intersection(int first, int second, Point point, Kind kind)
+		{
+			_first = first;
+			_second = second;
+			_point = point;
+			_kind = kind;
+		}
+
+		@Override
+		public int compareTo(Intersection that)
+		{
+			if (_first != that._first) return Integer.compare(_first, that._first);
+
+			return Integer.compare(_second, that._second);
+		}
+
+		@Override
+		public String toString()
+		{
+			return _kind + "(" + _first + ", " + _second + ") at " + _point;
+		}
+	}
+
+	protected List<Segment> _segments;
+
+	// Segment --> its (first) index in _segments
+	protected Map<Segment, Integer> _indices;
+
+	// Packed pair of indices --> intersection
+	protected Map<Long, Intersection> _memo;
+
+	// All intersections, ordered by pair
+	protected List<Intersection> _intersections;
+
+	public List<Segment> getSegments() { return _segments; }
+	public List<Intersection> getIntersections() { return _intersections; }
+	public int size() { return _intersections.size(); }
+
+	/**
+	 * Compute the intersection graph of the given segments; candidate pairs come
+	 * from a SegmentGrid broad phase.
+	 * 
+	 * @param segments -- a collection of segments
+	 */
+	public IntersectionGraph(Collection<Segment> segments)
+	{
+		_segments = new ArrayList<Segment>(segments);
+		_indices = new HashMap<Segment, Integer>();
+		_memo = new HashMap<Long, Intersection>();
+		_intersections = new ArrayList<Intersection>();
+
+		for (int i = _segments.size() - 1; i >= 0; i--) _indices.put(_segments.get(i), i);
+
+		for (int[] pair : new SegmentGrid(_segments).candidatePairs())
+		{
+			Intersection intersection = classify(pair[0], pair[1]);
+
+			if (intersection != null)
+			{
+				_intersections.add(intersection);
+				_memo.put(key(pair[0], pair[1]), intersection);
+			}
+		}
+
+		Collections.sort(_intersections);
+	}
+
+	/**
+	 * @return the intersection of the segments at indices i < j (null if none)
+	 */
+	private Intersection classify(int i, int j)
+	{
+		Segment thisS = _segments.get(i);
+		Segment that = _segments.get(j);
+
+		if (thisS.equals(that)) return null;
+
+		// Crossing: exactly Segment.segmentIntersection
+		Point crossing = thisS.segmentIntersection(that);
+		if (crossing != null) return new Intersection(i, j, crossing, Kind.CROSSING);
+
+		Point shared = thisS.sharedVertex(that);
+		if (shared != null) return new Intersection(i, j, shared, Kind.SHARED_VERTEX);
+
+		// Standing on: an endpoint of one lies strictly inside the other (not along the same line)
+		if (thisS.isCollinearWith(that)) return null;
+
+		Point standing = standingPoint(thisS, that);
+		if (standing == null) standing = standingPoint(that, thisS);
+		if (standing == null) return null;
+
+		return new Intersection(i, j, standing, Kind.STANDING_ON);
+	}
+
+	/**
+	 * @return the endpoint of @standing lying between the endpoints of @base (null if none)
+	 */
+	private static Point standingPoint(Segment base, Segment standing)
+	{
+		if (base.pointLiesBetweenEndpoints(standing.getPoint1())) return standing.getPoint1();
+		if (base.pointLiesBetweenEndpoints(standing.getPoint2())) return standing.getPoint2();
+		return null;
+	}
+
+	private static long key(int i, int j)
+	{
+		return ((long) Math.min(i, j) << 32) | Math.max(i, j);
+	}
+
+	/**
+	 * @param thisS -- a segment in the graph
+	 * @param that -- a segment in the graph
+	 * @return the intersection of the two segments; null if they do not intersect (or are not in the graph)
+	 */
+	public Intersection get(Segment thisS, Segment that)
+	{
+		Integer i = _indices.get(thisS);
+		Integer j = _indices.get(that);
+
+		if (i == null || j == null) return null;
+
+		return _memo.get(key(i, j));
+	}
+
+	/**
+	 * @return the intersection point of the two segments (null if none)
+	 */
+	public Point intersection(Segment thisS, Segment that)
+	{
+		Intersection intersection = get(thisS, that);
+
+		return intersection == null ? null : intersection.getPoint();
+	}
+
+	/**
+	 * @return the kind of intersection of the two segments (null if none)
+	 */
+	public Kind kind(Segment thisS, Segment that)
+	{
+		Intersection intersection = get(thisS, that);
+
+		return intersection == null ? null : intersection.getKind();
+	}
+
+	/**
+	 * @return all crossings, ordered by pair
+	 */
+	public List<Intersection> getCrossings()
+	{
+		return _intersections.stream().filter((inter) -> inter.getKind() == Kind.CROSSING).toList();
+	}
+}
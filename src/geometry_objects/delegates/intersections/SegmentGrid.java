@@ -0,0 +1,157 @@
+package geometry_objects.delegates.intersections;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import geometry_objects.Segment;
+import utilities.math.MathUtilities;
+
+/**
+ * A uniform grid (spatial hash) over a list of segments: a broad phase for
+ * segment-segment intersection.
+ *
+ * Each segment is bucketed in every cell its envelope covers; only segments
+ * sharing a cell can intersect. The cell size adapts to the figure:
+ * it is the average segment length, but never so small that the grid has
+ * more than a few cells per segment.
+ */
+public class SegmentGrid
+{
+	// Upper bound on the number of cells per segment in the figure
+	private static final int CELLS_PER_SEGMENT = 4;
+
+	protected List<Segment> _segments;
+
+	protected double _minX;
+	protected double _minY;
+	protected double _cellSize;
+
+	// Segment covering (inclusive) cell ranges, indexed as _segments
+	protected int[] _minCellX;
+	protected int[] _minCellY;
+	protected int[] _maxCellX;
+	protected int[] _maxCellY;
+
+	// Cell (packed x, y) --> indices of segments covering that cell
+	protected Map<Long, List<Integer>> _cells;
+
+	public double getCellSize() { return _cellSize; }
+	public int numCells() { return _cells.size(); }
+
+	public SegmentGrid(List<Segment> segments)
+	{
+		_segments = segments;
+		_cells = new HashMap<>();
+
+		int n = segments.size();
+		_minCellX = new int[n];
+		_minCellY = new int[n];
+		_maxCellX = new int[n];
+		_maxCellY = new int[n];
+
+		if (n == 0) return;
+
+		computeCellSize();
+
+		for (int i = 0; i < n; i++) bucket(i);
+	}
+
+	/**
+	 * Cell size: average segment length, bounded below by the cell size at which
+	 * the figure's extent is covered by CELLS_PER_SEGMENT cells per segment.
+	 */
+	private void computeCellSize()
+	{
+		double maxX = Double.NEGATIVE_INFINITY;
+		double maxY = Double.NEGATIVE_INFINITY;
+		double totalLength = 0;
+
+		_minX = Double.POSITIVE_INFINITY;
+		_minY = Double.POSITIVE_INFINITY;
+
+		for (Segment segment : _segments)
+		{
+			_minX = Math.min(_minX, Math.min(segment.getPoint1().getX(), segment.getPoint2().getX()));
+			_minY = Math.min(_minY, Math.min(segment.getPoint1().getY(), segment.getPoint2().getY()));
+			maxX = Math.max(maxX, Math.max(segment.getPoint1().getX(), segment.getPoint2().getX()));
+			maxY = Math.max(maxY, Math.max(segment.getPoint1().getY(), segment.getPoint2().getY()));
+
+			totalLength += segment.length();
+		}
+
+		double width = Math.max(maxX - _minX, MathUtilities.EPSILON);
+		double height = Math.max(maxY - _minY, MathUtilities.EPSILON);
+
+		double averageLength = totalLength / _segments.size();
+		double minimumSize = Math.sqrt(width * height / (CELLS_PER_SEGMENT * _segments.size()));
+
+		_cellSize = Math.max(averageLength, minimumSize);
+	}
+
+	/**
+	 * Add segment @i to each cell covered by its envelope (the bounding box padded
+	 * so that touching segments, within tolerance, share a cell).
+	 */
+	private void bucket(int i)
+	{
+		Segment segment = _segments.get(i);
+
+		_minCellX[i] = cellOf(segment.getEnvelopeMinX(), _minX);
+		_minCellY[i] = cellOf(segment.getEnvelopeMinY(), _minY);
+		_maxCellX[i] = cellOf(segment.getEnvelopeMaxX(), _minX);
+		_maxCellY[i] = cellOf(segment.getEnvelopeMaxY(), _minY);
+
+		for (int cx = _minCellX[i]; cx <= _maxCellX[i]; cx++)
+		{
+			for (int cy = _minCellY[i]; cy <= _maxCellY[i]; cy++)
+			{
+				_cells.computeIfAbsent(key(cx, cy), (k) -> new ArrayList<>()).add(i);
+			}
+		}
+	}
+
+	private int cellOf(double coordinate, double origin)
+	{
+		return (int) Math.floor((coordinate - origin) / _cellSize);
+	}
+
+	private static long key(int cx, int cy)
+	{
+		return ((long) cx << 32) | (cy & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * @return every pair of segment indices {i, j} (i < j) whose envelopes share a cell;
+	 *         each pair is listed once (in the lowest cell the two share)
+	 */
+	public List<int[]> candidatePairs()
+	{
+		List<int[]> pairs = new ArrayList<>();
+
+		for (Map.Entry<Long, List<Integer>> cell : _cells.entrySet())
+		{
+			int cx = (int) (cell.getKey() >> 32);
+			int cy = (int) (long) cell.getKey();
+			List<Integer> bucket = cell.getValue();
+
+			for (int a = 0; a < bucket.size() - 1; a++)
+			{
+				for (int b = a + 1; b < bucket.size(); b++)
+				{
+					int i = bucket.get(a);
+					int j = bucket.get(b);
+
+					// Report the pair only from the lowest cell it shares
+					if (cx != Math.max(_minCellX[i], _minCellX[j])) continue;
+					if (cy != Math.max(_minCellY[i], _minCellY[j])) continue;
+
+					pairs.add(new int[]{ Math.min(i, j), Math.max(i, j) });
+				}
+			}
+		}
+
+		return pairs;
+	}
+}
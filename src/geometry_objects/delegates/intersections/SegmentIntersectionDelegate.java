@@ -1,11 +1,15 @@
 package geometry_objects.delegates.intersections;
 
 import geometry_objects.delegates.FigureDelegate;
+import geometry_objects.delegates.SegmentDelegate;
 import geometry_objects.points.Point;
 import geometry_objects.Segment;
 
 public class SegmentIntersectionDelegate extends FigureDelegate
 {
+    // Per-thread scratch for the (x, y) computed by the line intersection kernel
+    private static final ThreadLocal<double[]> SCRATCH = ThreadLocal.withInitial(() -> new double[2]);
+
     /*
      * <Segment, Segment> intersection
      * @param thisS -- (this Segment)
@@ -14,15 +18,30 @@ public class SegmentIntersectionDelegate extends FigureDelegate
      */
     public static Point findIntersection(Segment thisS, Segment that)
     {
-        // <line, line> intersection
-        Point inter = LineIntersectionDelegate.intersection(thisS, that);
- 
+        return findIntersection(thisS, that, SCRATCH.get());
+    }
+
+    /*
+     * <Segment, Segment> intersection; a Point is only created for an actual intersection
+     * @param thisS -- (this Segment)
+     * @param that -- a Segment to intersect with
+     * @param xy -- scratch holder for the line intersection
+     * @return the intersection of @thisS and @that
+     */
+    public static Point findIntersection(Segment thisS, Segment that, double[] xy)
+    {
+        // An intersection lies on both segments: disjoint envelopes cannot intersect
+        if (!thisS.envelopeIntersects(that)) return null;
+
+        // <line, line> intersection; a shared vertex is an endpoint, so never between endpoints
+        if (LineIntersectionDelegate.intersection(thisS, that, xy) != LineIntersectionDelegate.INTERSECTION) return null;
+
         // Point lies on both segments
-        
-        if (!thisS.pointLiesBetweenEndpoints(inter)) return null;
 
-        if (!that.pointLiesBetweenEndpoints(inter)) return null;
-        
-        return inter;        
+        if (!SegmentDelegate.pointLiesBetweenEndpoints(thisS, xy[0], xy[1])) return null;
+
+        if (!SegmentDelegate.pointLiesBetweenEndpoints(that, xy[0], xy[1])) return null;
+
+        return new Point(xy[0], xy[1]);
     }
 }
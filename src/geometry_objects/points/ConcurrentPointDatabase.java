@@ -0,0 +1,47 @@
+package geometry_objects.points;
+
+import java.util.List;
+
+/**
+ * A thread-safe PointDatabase: any number of threads may add and look up points.
+ * 
+ * Insertions are keyed by the quantized coordinates and generated names are allocated
+ * atomically (see ConcurrentPointNamingFactory). For generated names independent of
+ * scheduling, insert with putDeferred and finish with assignNames: parallel and
+ * sequential runs then yield identical names (see ImplicitPointPreprocessor, PARALLEL).
+ */
+public class ConcurrentPointDatabase extends PointDatabase
+{
+	public ConcurrentPointDatabase()
+	{
+		super(new ConcurrentPointNamingFactory());
+	}
+
+	public ConcurrentPointDatabase(List<Point> points)
+	{
+		super(points == null ? new ConcurrentPointNamingFactory() : new ConcurrentPointNamingFactory(points));
+	}
+
+	private ConcurrentPointNamingFactory factory() { return (ConcurrentPointNamingFactory) _factory; }
+
+	/**
+	 * Add the point (x, y), if it is not in the database, leaving its generated name to assignNames.
+	 * 
+	 * @param x,y -- doubles defining a point (x,y)
+	 * @param order -- the position of this insertion in the equivalent sequential run
+	 */
+	public void putDeferred(double x, double y, long order)
+	{
+		factory().putDeferred(x, y, order);
+	}
+
+	/**
+	 * Name every deferred point: in ascending order, each takes the next generated name.
+	 * 
+	 * @return the newly named points, in naming order
+	 */
+	public List<Point> assignNames()
+	{
+		return factory().assignNames();
+	}
+}
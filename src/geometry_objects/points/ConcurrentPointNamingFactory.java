@@ -0,0 +1,326 @@
+package geometry_objects.points;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import geometry_objects.spatial.PointKdTree;
+
+/*
+ * A thread-safe PointFactory with the naming rules of PointNamingFactory.
+ *
+ * Points are stored in a ConcurrentHashMap keyed by the quantized coordinates (Point equality):
+ * an insertion locks only its own bin. Generated names are taken from an atomic counter,
+ * so concurrent insertions never share a name.
+ *
+ * Names taken in arrival order depend on scheduling; for reproducible names, insert with
+ * putDeferred (recording the position each insertion has in a sequential run) and then name
+ * every deferred point at once with assignNames.
+ *
+ * Database order (getAllPoints, name lookup among duplicates) is ID order.
+ */
+public class ConcurrentPointNamingFactory implements PointFactory {
+	//
+	// A stored point: the point listed in database order and found by name (the key), the
+	// current point object (a name may overwrite an unnamed point; a later duplicate in
+	// the list constructor replaces only this value), its ID and, while its generated
+	// name is deferred, its naming order.
+	// Mutated only inside _entries.compute for its key (or by assignNames).
+	//
+	private static class Entry {
+		protected volatile Point _key;
+		protected volatile Point _point;
+		protected final int _id;
+
+		protected boolean _deferred;
+		protected long _order;
+
+		protected Entry(Point point, int id) {
+			_key = point;
+			_point = point;
+			_id = id;
+		}
+
+		protected void replace(Point point) {
+			_key = point;
+			_point = point;
+		}
+	}
+
+	protected ConcurrentHashMap<Point, Entry> _entries;
+	protected ConcurrentHashMap<Integer, Entry> _entriesById;
+
+	// Name (generated names: sequence) --> the entry with the least ID with that name
+	protected ConcurrentHashMap<String, Entry> _entriesByName;
+	protected ConcurrentHashMap<Integer, Entry> _entriesBySequence;
+
+	protected AtomicInteger _nextId;
+	protected AtomicInteger _nextName;
+
+	// The proximity index is rebuilt on demand once the points have changed
+	protected AtomicInteger _modifications;
+	protected int _indexedModifications = -1;
+	protected PointKdTree _index;
+
+	public ConcurrentPointNamingFactory() {
+		_entries = new ConcurrentHashMap<>();
+		_entriesById = new ConcurrentHashMap<>();
+		_entriesByName = new ConcurrentHashMap<>();
+		_entriesBySequence = new ConcurrentHashMap<>();
+		_nextId = new AtomicInteger();
+		_nextName = new AtomicInteger();
+		_modifications = new AtomicInteger();
+	}
+
+	/**
+	 * @param points -- a list of points, named or not named
+	 */
+	public ConcurrentPointNamingFactory(List<Point> points) {
+		this();
+
+		for (Point point : points)
+			_entries.compute(point, (key, existing) -> {
+				if (existing == null)
+					return newEntry(point);
+
+				// As in the sequential factory, the value is replaced; the key and its name stay
+				existing._point = point;
+				return existing;
+			});
+	}
+
+	/**
+	 * @return a new entry for @pt with the next ID (called within _entries.compute)
+	 */
+	private Entry newEntry(Point pt) {
+		Entry entry = new Entry(pt, _nextId.getAndIncrement());
+
+		_entriesById.put(entry._id, entry);
+		index(entry);
+
+		return entry;
+	}
+
+	/**
+	 * Index the entry under its (current) name; record the modification
+	 */
+	private void index(Entry entry) {
+		_modifications.incrementAndGet();
+
+		if (entry._key.getSequence() >= 0)
+			_entriesBySequence.merge(entry._key.getSequence(), entry, ConcurrentPointNamingFactory::first);
+		else if (!entry._key.isUnnamed())
+			_entriesByName.merge(entry._key.getName(), entry, ConcurrentPointNamingFactory::first);
+	}
+
+	private static Entry first(Entry a, Entry b) {
+		if (a == null)
+			return b;
+		if (b == null)
+			return a;
+
+		return a._id <= b._id ? a : b;
+	}
+
+	private int nextSequence() {
+		return _nextName.getAndIncrement();
+	}
+
+	@Override
+	public Point put(Point pt) {
+		return _entries.computeIfAbsent(pt, (key) -> newEntry(pt))._point;
+	}
+
+	@Override
+	public Point put(double x, double y) {
+		// As in the sequential factory, the name is consumed even if the point exists
+		int sequence = nextSequence();
+
+		return _entries.computeIfAbsent(new Point(x, y), (key) -> newEntry(new Point(sequence, x, y)))._point;
+	}
+
+	@Override
+	public Point put(String name, double x, double y) {
+		return _entries.compute(new Point(x, y), (key, existing) -> {
+			// The first name given is kept
+			if (existing != null && !existing._point.isUnnamed())
+				return existing;
+
+			Point newPoint = name == Point.ANONYMOUS ? new Point(nextSequence(), x, y) : new Point(name, x, y);
+
+			if (existing == null)
+				return newEntry(newPoint);
+
+			// A valid name overwrites an unnamed point
+			existing.replace(newPoint);
+			existing._deferred = false;
+			index(existing);
+			return existing;
+		})._point;
+	}
+
+	/**
+	 * Add (x, y), if it is not in the database, as an unnamed point whose generated name is
+	 * deferred to assignNames.
+	 *
+	 * @param x -- single coordinate
+	 * @param y -- single coordinate
+	 * @param order -- the position of this insertion in the equivalent sequential run
+	 *                 (when several insertions find the point, the least order counts,
+	 *                 coordinates included)
+	 * @return the stored point
+	 */
+	public Point putDeferred(double x, double y, long order) {
+		return _entries.compute(new Point(x, y), (key, existing) -> {
+			if (existing == null) {
+				Entry entry = newEntry(new Point(x, y));
+				entry._deferred = true;
+				entry._order = order;
+				return entry;
+			}
+
+			if (existing._deferred && order < existing._order) {
+				existing.replace(new Point(x, y));
+				existing._order = order;
+				_modifications.incrementAndGet();
+			}
+
+			return existing;
+		})._point;
+	}
+
+	/**
+	 * The deterministic naming pass: each deferred point takes the next generated name,
+	 * in ascending order (ties by coordinates). Call once the insertions are complete.
+	 *
+	 * @return the newly named points, in naming order
+	 */
+	public synchronized List<Point> assignNames() {
+		List<Entry> deferred = new ArrayList<>();
+		for (Entry entry : _entries.values())
+			if (entry._deferred)
+				deferred.add(entry);
+
+		deferred.sort(Comparator.comparingLong((Entry e) -> e._order).thenComparing((Entry e) -> e._point));
+
+		List<Point> named = new ArrayList<>();
+		for (Entry entry : deferred) {
+			Point newPoint = new Point(nextSequence(), entry._point.getX(), entry._point.getY());
+
+			entry.replace(newPoint);
+			entry._deferred = false;
+			index(entry);
+
+			named.add(newPoint);
+		}
+
+		return named;
+	}
+
+	@Override
+	public Point get(double x, double y) {
+		return get(new Point(x, y));
+	}
+
+	@Override
+	public Point get(Point pt) {
+		Entry entry = _entries.get(pt);
+
+		return entry == null ? null : entry._point;
+	}
+
+	@Override
+	public Point get(String name) {
+		if (name == null)
+			return null;
+
+		if (name.equals(Point.ANONYMOUS)) {
+			for (Point p : getAllPoints())
+				if (p.getSequence() < 0 && p.getName().equals(name))
+					return p;
+			return null;
+		}
+
+		Entry entry = first(_entriesByName.get(name), _entriesBySequence.get(PointNamingFactory.generatedSequence(name)));
+
+		return entry == null ? null : entry._key;
+	}
+
+	@Override
+	public boolean contains(double x, double y) {
+		return _entries.containsKey(new Point(x, y));
+	}
+
+	@Override
+	public boolean contains(Point p) {
+		return _entries.containsKey(p);
+	}
+
+	@Override
+	public int idOf(Point pt) {
+		Entry entry = _entries.get(pt);
+
+		return entry == null ? -1 : entry._id;
+	}
+
+	@Override
+	public Point pointAt(int id) {
+		Entry entry = _entriesById.get(id);
+		if (entry == null)
+			throw new IndexOutOfBoundsException("No point with ID " + id);
+
+		return entry._point;
+	}
+
+	/**
+	 * @return a snapshot of the points, in ID order
+	 */
+	@Override
+	public Set<Point> getAllPoints() {
+		List<Entry> entries = new ArrayList<>(_entries.values());
+		entries.sort(Comparator.comparingInt((Entry e) -> e._id));
+
+		Set<Point> points = new LinkedHashSet<>();
+		for (Entry entry : entries)
+			points.add(entry._key);
+
+		return Collections.unmodifiableSet(points);
+	}
+
+	@Override
+	public synchronized PointKdTree getIndex() {
+		int modifications = _modifications.get();
+
+		if (modifications != _indexedModifications) {
+			_index = new PointKdTree(getAllPoints());
+			_indexedModifications = modifications;
+		}
+
+		return _index;
+	}
+
+	@Override
+	public synchronized void clear() {
+		_entries.clear();
+		_entriesById.clear();
+		_entriesByName.clear();
+		_entriesBySequence.clear();
+		_nextId.set(0);
+		_modifications.incrementAndGet();
+	}
+
+	@Override
+	public int size() {
+		return _entries.size();
+	}
+
+	@Override
+	public String getCurrentNameTester() {
+		return PointNamingFactory.generatedName(nextSequence());
+	}
+}
@@ -0,0 +1,51 @@
+package geometry_objects.points;
+
+import java.util.List;
+
+/**
+ * A PointDatabase whose versions are persistent: snapshot() captures the current points
+ * in O(1), and fork() starts an independent database from them without copying.
+ *
+ * Updates cost O(log n) and share structure with earlier versions (see PointDatabaseSnapshot),
+ * so many what-if variants of one base figure can be built from the same snapshot. Snapshots
+ * are immutable and may be read by any number of threads.
+ */
+public class PersistentPointDatabase extends PointDatabase
+{
+	public PersistentPointDatabase()
+	{
+		super(new PersistentPointNamingFactory());
+	}
+
+	public PersistentPointDatabase(List<Point> points)
+	{
+		super(points == null ? new PersistentPointNamingFactory() : new PersistentPointNamingFactory(points));
+	}
+
+	/**
+	 * @param snapshot -- the version to start from (it is not modified)
+	 */
+	public PersistentPointDatabase(PointDatabaseSnapshot snapshot)
+	{
+		super(new PersistentPointNamingFactory(snapshot));
+	}
+
+	private PersistentPointNamingFactory factory() { return (PersistentPointNamingFactory) _factory; }
+
+	/**
+	 * @return the current version of the database
+	 */
+	public PointDatabaseSnapshot snapshot()
+	{
+		return factory().snapshot();
+	}
+
+	/**
+	 * @return a new database starting from the current version; updates to either
+	 *         database do not affect the other
+	 */
+	public PersistentPointDatabase fork()
+	{
+		return new PersistentPointDatabase(snapshot());
+	}
+}
@@ -0,0 +1,132 @@
+package geometry_objects.points;
+
+import java.util.List;
+import java.util.Set;
+
+import geometry_objects.spatial.PointKdTree;
+
+/*
+ * A PointFactory (the naming rules of PointNamingFactory) over an immutable PointDatabaseSnapshot: each update replaces the
+ * current snapshot with a new version in O(log n), structurally shared with the old one.
+ *
+ * Taking a snapshot is O(1), and a factory started from a snapshot (a fork) never affects
+ * the snapshot or other forks of it.
+ */
+public class PersistentPointNamingFactory implements PointFactory {
+	protected volatile PointDatabaseSnapshot _current;
+
+	public PersistentPointNamingFactory() {
+		this(PointDatabaseSnapshot.EMPTY);
+	}
+
+	/**
+	 * @param points -- a list of points, named or not named
+	 */
+	public PersistentPointNamingFactory(List<Point> points) {
+		PointDatabaseSnapshot snapshot = PointDatabaseSnapshot.EMPTY;
+
+		// As in the sequential factory, a later duplicate replaces the stored value only
+		for (Point point : points)
+			snapshot = snapshot.replace(point);
+
+		_current = snapshot;
+	}
+
+	/**
+	 * @param snapshot -- the version to start from
+	 */
+	public PersistentPointNamingFactory(PointDatabaseSnapshot snapshot) {
+		_current = snapshot;
+	}
+
+	/**
+	 * @return the current version (O(1); unaffected by later updates)
+	 */
+	public PointDatabaseSnapshot snapshot() {
+		return _current;
+	}
+
+	@Override
+	public Point put(Point pt) {
+		_current = _current.put(pt);
+		return _current.get(pt);
+	}
+
+	@Override
+	public Point put(double x, double y) {
+		_current = _current.put(x, y);
+		return _current.get(x, y);
+	}
+
+	@Override
+	public Point put(String name, double x, double y) {
+		_current = _current.put(name, x, y);
+		return _current.get(x, y);
+	}
+
+	@Override
+	public Point get(double x, double y) {
+		return _current.get(x, y);
+	}
+
+	@Override
+	public Point get(Point pt) {
+		return _current.get(pt);
+	}
+
+	@Override
+	public Point get(String name) {
+		return _current.get(name);
+	}
+
+	@Override
+	public boolean contains(double x, double y) {
+		return _current.contains(new Point(x, y));
+	}
+
+	@Override
+	public boolean contains(Point p) {
+		return _current.contains(p);
+	}
+
+	@Override
+	public int idOf(Point pt) {
+		return _current.idOf(pt);
+	}
+
+	@Override
+	public Point pointAt(int id) {
+		return _current.pointAt(id);
+	}
+
+	/**
+	 * @return the points, in ID order
+	 */
+	@Override
+	public Set<Point> getAllPoints() {
+		return _current.getAllPoints();
+	}
+
+	@Override
+	public PointKdTree getIndex() {
+		return _current.getIndex();
+	}
+
+	@Override
+	public void clear() {
+		_current = _current.cleared();
+	}
+
+	@Override
+	public int size() {
+		return _current.size();
+	}
+
+	@Override
+	public String getCurrentNameTester() {
+		int sequence = _current.nextName();
+		_current = _current.withNextName(sequence + 1);
+
+		return PointNamingFactory.generatedName(sequence);
+	}
+}
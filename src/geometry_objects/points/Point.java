@@ -1,5 +1,6 @@
 package geometry_objects.points;
 
+import utilities.math.HashUtilities;
 import utilities.math.MathUtilities;
 
 /**
@@ -25,8 +26,31 @@ public class Point implements Comparable<Point>
 	protected double _y; 
 	public double getY() { return this._y; }
 
+	// The coordinates quantized once at construction (MathUtilities.quantize):
+	// equality, ordering and hashing compare these
+	protected long _xTicks;
+	protected long _yTicks;
+	public long getXTicks() { return _xTicks; }
+	public long getYTicks() { return _yTicks; }
+
 	protected String _name; 
-	public String getName() { return _name; }
+
+	// Generated names are kept as their position in the generated sequence (-1 if not generated)
+	// and rendered only when asked for
+	protected int _sequence = -1;
+
+	public String getName()
+	{
+		if (_name == null) _name = PointNamingFactory.generatedName(_sequence);
+
+		return _name;
+	}
+
+	/**
+	 * @return the position of this point's generated name in the generated sequence; -1 if
+	 *         the point's name was not generated
+	 */
+	public int getSequence() { return _sequence; }
 
 	// BasicPoint objects are named points (from input)
 	// ImpliedPoint objects are unnamed points (from input)
@@ -51,8 +75,27 @@ public class Point implements Comparable<Point>
 	public Point(String name, double x, double y)
 	{
 		_name = (name == null || name == "") ? ANONYMOUS : name;
+		setCoordinates(x, y);
+	}
+
+	/**
+	 * Create a new Point with the specified coordinates and a generated name (rendered on demand).
+	 * @param sequence -- The position of the name in the generated sequence
+	 * @param x -- The X coordinate
+	 * @param y -- The Y coordinate
+	 */
+	Point(int sequence, double x, double y)
+	{
+		_sequence = sequence;
+		setCoordinates(x, y);
+	}
+
+	private void setCoordinates(double x, double y)
+	{
 		this._x = x;
 		this._y = y;
+		_xTicks = MathUtilities.quantize(x);
+		_yTicks = MathUtilities.quantize(y);
 	}
 
 	/**
@@ -60,14 +103,22 @@ public class Point implements Comparable<Point>
 	 */
 	public boolean isUnnamed()
 	{
-		return _name == ANONYMOUS;
+		return _sequence < 0 && _name == ANONYMOUS;
+	}
+
+	/**
+	 * @return a well-mixed 64-bit hash of the quantized coordinates (consistent with equals);
+	 *         (x, y) and (y, x) hash differently
+	 */
+	public long longHash()
+	{
+		return HashUtilities.combine(_xTicks, _yTicks);
 	}
 
 	@Override
 	public int hashCode()
 	{
-		return Double.valueOf(MathUtilities.removeLessEpsilon(_x)).hashCode() +
-			   Double.valueOf(MathUtilities.removeLessEpsilon(_y)).hashCode();
+		return HashUtilities.fold(longHash());
 	}
 
 	/**
@@ -79,11 +130,11 @@ public class Point implements Comparable<Point>
 	 */
 	private static int LexicographicOrdering(Point p1, Point p2)
 	{
-		double x1 = MathUtilities.removeLessEpsilon(p1.getX());
-		double x2 = MathUtilities.removeLessEpsilon(p2.getX());
-		double y1 = MathUtilities.removeLessEpsilon(p1.getY());
-		double y2 = MathUtilities.removeLessEpsilon(p2.getY());
+		return LexicographicOrdering(p1._xTicks, p1._yTicks, p2._xTicks, p2._yTicks);
+	}
 
+	private static int LexicographicOrdering(long x1, long y1, long x2, long y2)
+	{
 		if (x1 < x2) return -1;
 		if (x1 > x2) return 1;
 		if (y1 < y2) return -1;
@@ -107,6 +158,16 @@ public class Point implements Comparable<Point>
 		return this.compareTo(point) == 0;
 	}
 	
+	/**
+	 * @param x -- single coordinate
+	 * @param y -- single coordinate
+	 * @return true if this point equals the point (x, y); no Point is constructed
+	 */
+	public boolean equals(double x, double y)
+	{
+		return _xTicks == MathUtilities.quantize(x) && _yTicks == MathUtilities.quantize(y);
+	}
+
 	public String toString()
 	{
 		return getName() + "(" + getX() + " , " + getY() + ")" + "\n";
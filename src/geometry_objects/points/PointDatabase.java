@@ -2,9 +2,9 @@ package geometry_objects.points;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Stream;
+
+import geometry_objects.Segment;
 
 /**
  * This class represents a bi-directional database of points.
@@ -21,7 +21,7 @@ public class PointDatabase
 {
 	// The factory is the central means of representing all
     // points in a figure
-    protected PointNamingFactory _factory;
+    protected PointFactory _factory;
 
     public Set<Point> getPoints() { return _factory.getAllPoints(); }
     
@@ -36,6 +36,26 @@ public class PointDatabase
 		else _factory = new PointNamingFactory(points);
 	}
 
+	/**
+	 * Bulk load from parallel arrays: the same database as the list of points
+	 * (names[i], xs[i], ys[i]), built in O(n log n).
+	 * 
+	 * @param xs, ys -- coordinates
+	 * @param names -- names (null for all unnamed)
+	 */
+	public PointDatabase(double[] xs, double[] ys, String[] names)
+	{
+		_factory = new PointNamingFactory(xs, ys, names);
+	}
+
+	/**
+	 * @param factory -- the factory backing this database
+	 */
+	protected PointDatabase(PointFactory factory)
+	{
+		_factory = factory;
+	}
+
 	public int size() { return _factory.size(); }
 	
 	/**
@@ -87,10 +107,7 @@ public class PointDatabase
 	 */
 	public Point getPoint(String name)
 	{
-		Stream<Point> pointStream = _factory.getAllPoints().stream();
-        Optional<Point> point = pointStream.filter((Point pt) -> pt.getName().equals(name)).findFirst();
-
-		return point.orElse(null);
+		return _factory.get(name);
 	}
 
 	/**
@@ -115,4 +132,96 @@ public class PointDatabase
 	{
         return _factory.get(x, y);
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Points are identified by dense IDs 0, 1, ..., size() - 1 assigned in order of insertion;
+	 * a point keeps its ID when a name overwrites it.
+	 * 
+	 * @param pt -- a basic point
+	 * @return the ID of the database entry for the point; -1 if it is not in the database
+	 */
+	public int idOf(Point pt)
+	{
+		return _factory.idOf(pt);
+	}
+
+	public int idOf(double x, double y)
+	{
+		return _factory.idOf(new Point(x, y));
+	}
+
+	/**
+	 * @param id -- a point ID
+	 * @return the database entry with that ID
+	 */
+	public Point pointAt(int id)
+	{
+		return _factory.pointAt(id);
+	}
+
+	/**
+	 * @param id1, id2 -- point IDs
+	 * @return a key for the unordered pair {id1, id2} (the segment between the two points)
+	 */
+	public static long pairKey(int id1, int id2)
+	{
+		return ((long) Math.min(id1, id2) << 32) | Math.max(id1, id2);
+	}
+
+	/**
+	 * @param segment -- a segment
+	 * @return the pair key of the segment's endpoint IDs; -1 if an endpoint is not in the database
+	 */
+	public long pairKey(Segment segment)
+	{
+		int id1 = idOf(segment.getPoint1());
+		int id2 = idOf(segment.getPoint2());
+
+		if (id1 < 0 || id2 < 0) return -1;
+
+		return pairKey(id1, id2);
+	}
+
+	/**
+	 * @param id1, id2 -- point IDs
+	 * @return the segment between the database entries with those IDs
+	 */
+	public Segment segmentAt(int id1, int id2)
+	{
+		return new Segment(pointAt(id1), pointAt(id2));
+	}
+
+	/**
+	 * Given raw coordinates, acquire the stored point nearest them (not necessarily
+	 * within tolerance).
+	 * 
+	 * @param x,y -- doubles defining a point (x,y)
+	 * @return the nearest database point; null for an empty database
+	 */
+	public Point nearest(double x, double y)
+	{
+		return _factory.getIndex().nearest(x, y);
+	}
+
+	/**
+	 * @param x,y -- doubles defining a point (x,y)
+	 * @param radius -- a distance
+	 * @return the database points within @radius of (x, y), nearest first
+	 */
+	public List<Point> within(double x, double y, double radius)
+	{
+		return _factory.getIndex().within(x, y, radius);
+	}
+
+	/**
+	 * Report the groups of distinct database points that (transitively) lie within
+	 * @tolerance of one another: candidates for snapping together.
+	 * 
+	 * @param tolerance -- a distance
+	 * @return groups of two or more points
+	 */
+	public List<List<Point>> nearDuplicates(double tolerance)
+	{
+		return _factory.getIndex().nearDuplicates(tolerance);
+	}
+}
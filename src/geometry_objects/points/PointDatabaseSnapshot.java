@@ -0,0 +1,255 @@
+package geometry_objects.points;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import geometry_objects.spatial.PointKdTree;
+import utilities.persistent.PersistentHashMap;
+
+/**
+ * An immutable version of a point database (see PersistentPointDatabase).
+ *
+ * Adding a point yields a new snapshot in O(log n) that shares all but a path of
+ * each persistent map with this one; this snapshot is unaffected. Snapshots are
+ * safe for any number of concurrent readers.
+ *
+ * Naming rules are those of PointNamingFactory; database order is ID order.
+ */
+public final class PointDatabaseSnapshot
+{
+	public static final PointDatabaseSnapshot EMPTY = new PointDatabaseSnapshot(PersistentHashMap.empty(), PersistentHashMap.empty(),
+	                                                                             PersistentHashMap.empty(), PersistentHashMap.empty(), 0);
+
+	// A stored point: the point listed in database order and found by name (the key),
+	// the current point object (see replace) and its ID
+	private static final class Entry
+	{
+		private final Point _key;
+		private final Point _point;
+		private final int _id;
+
+		private Entry(Point key, Point point, int id)
+		{
+			_key = key;
+			_point = point;
+			_id = id;
+		}
+	}
+
+	private final PersistentHashMap<Point, Entry> _entries;
+	private final PersistentHashMap<Integer, Point> _byId;
+
+	// Name (generated names: sequence) --> the first key given that name
+	private final PersistentHashMap<String, Point> _names;
+	private final PersistentHashMap<Integer, Point> _generated;
+
+	// The position of the next generated name in the sequence
+	private final int _nextName;
+
+	// Derived on demand (the same for every reader, so a racing rebuild is harmless)
+	private volatile Set<Point> _points;
+	private volatile PointKdTree _index;
+
+	private PointDatabaseSnapshot(PersistentHashMap<Point, Entry> entries, PersistentHashMap<Integer, Point> byId,
+	                              PersistentHashMap<String, Point> names, PersistentHashMap<Integer, Point> generated, int nextName)
+	{
+		_entries = entries;
+		_byId = byId;
+		_names = names;
+		_generated = generated;
+		_nextName = nextName;
+	}
+
+	public int size() { return _entries.size(); }
+
+	public Point get(Point pt)
+	{
+		Entry entry = _entries.get(pt);
+
+		return entry == null ? null : entry._point;
+	}
+
+	public Point get(double x, double y)
+	{
+		return get(new Point(x, y));
+	}
+
+	/**
+	 * @param name -- the name of a point
+	 * @return the first point (in ID order) with that name; null if none
+	 */
+	public Point get(String name)
+	{
+		if (name == null) return null;
+
+		if (name.equals(Point.ANONYMOUS))
+		{
+			for (Point p : getAllPoints())
+			{
+				if (p.getSequence() < 0 && p.getName().equals(name)) return p;
+			}
+			return null;
+		}
+
+		Point named = _names.get(name);
+		Point generated = _generated.get(PointNamingFactory.generatedSequence(name));
+
+		if (named == null) return generated;
+		if (generated == null) return named;
+
+		return idOf(named) <= idOf(generated) ? named : generated;
+	}
+
+	public boolean contains(Point pt)
+	{
+		return _entries.containsKey(pt);
+	}
+
+	/**
+	 * @return the ID of the stored point equal to @pt; -1 if there is none
+	 */
+	public int idOf(Point pt)
+	{
+		Entry entry = _entries.get(pt);
+
+		return entry == null ? -1 : entry._id;
+	}
+
+	/**
+	 * @param id -- a point ID (0 <= id < size())
+	 * @return the stored point with that ID
+	 */
+	public Point pointAt(int id)
+	{
+		Point pt = _byId.get(id);
+		if (pt == null) throw new IndexOutOfBoundsException("No point with ID " + id);
+
+		return pt;
+	}
+
+	/**
+	 * @return the points, in ID order
+	 */
+	public Set<Point> getAllPoints()
+	{
+		Set<Point> points = _points;
+
+		if (points == null)
+		{
+			points = new LinkedHashSet<Point>();
+			for (int id = 0; id < size(); id++) points.add(_entries.get(_byId.get(id))._key);
+
+			_points = points = Collections.unmodifiableSet(points);
+		}
+
+		return points;
+	}
+
+	/**
+	 * @return the spatial index over the points (built on the first proximity query)
+	 */
+	public PointKdTree getIndex()
+	{
+		PointKdTree index = _index;
+
+		if (index == null) _index = index = new PointKdTree(getAllPoints());
+
+		return index;
+	}
+
+	//
+	// Updates: each returns the new version (this snapshot if nothing changes)
+	//
+
+	/**
+	 * @return a snapshot with @pt added, if no point with its coordinates is stored
+	 */
+	public PointDatabaseSnapshot put(Point pt)
+	{
+		return contains(pt) ? this : store(pt, _nextName);
+	}
+
+	/**
+	 * @return a snapshot with (x, y) added under the next generated name (consumed even
+	 *         if the point is already stored)
+	 */
+	public PointDatabaseSnapshot put(double x, double y)
+	{
+		if (contains(new Point(x, y))) return withNextName(_nextName + 1);
+
+		return store(new Point(_nextName, x, y), _nextName + 1);
+	}
+
+	/**
+	 * @return a snapshot with the point (name, x, y) added: the first name given is kept,
+	 *         except that a name overwrites an unnamed point
+	 */
+	public PointDatabaseSnapshot put(String name, double x, double y)
+	{
+		Point existing = get(x, y);
+		if (existing != null && !existing.isUnnamed()) return this;
+
+		if (name == Point.ANONYMOUS) return store(new Point(_nextName, x, y), _nextName + 1);
+
+		return store(new Point(name, x, y), _nextName);
+	}
+
+	/**
+	 * @return a snapshot in which @pt replaces the value of any stored point at its coordinates;
+	 *         as in the sequential list constructor, the stored key keeps its ID, database order
+	 *         and name (the name of @pt is not indexed)
+	 */
+	PointDatabaseSnapshot replace(Point pt)
+	{
+		Entry entry = _entries.get(pt);
+		if (entry == null) return store(pt, _nextName);
+
+		return new PointDatabaseSnapshot(_entries.put(pt, new Entry(entry._key, pt, entry._id)), _byId.put(entry._id, pt),
+		                                 _names, _generated, _nextName);
+	}
+
+	/**
+	 * @return a snapshot with no points that continues this one's generated name sequence
+	 */
+	PointDatabaseSnapshot cleared()
+	{
+		return EMPTY.withNextName(_nextName);
+	}
+
+	/**
+	 * @return the position of the next generated name in the sequence
+	 */
+	int nextName() { return _nextName; }
+
+	PointDatabaseSnapshot withNextName(int nextName)
+	{
+		return new PointDatabaseSnapshot(_entries, _byId, _names, _generated, nextName);
+	}
+
+	/**
+	 * @return a snapshot storing @pt (a new ID, or the ID of the point it replaces)
+	 */
+	private PointDatabaseSnapshot store(Point pt, int nextName)
+	{
+		int id = idOf(pt);
+		if (id < 0) id = size();
+
+		PersistentHashMap<String, Point> names = _names;
+		PersistentHashMap<Integer, Point> generated = _generated;
+
+		// A name is indexed under its first point in ID order (an overwrite keeps its ID)
+		if (pt.getSequence() >= 0)
+		{
+			Point indexed = generated.get(pt.getSequence());
+			if (indexed == null || idOf(indexed) > id) generated = generated.put(pt.getSequence(), pt);
+		}
+		else if (!pt.isUnnamed())
+		{
+			Point indexed = names.get(pt.getName());
+			if (indexed == null || idOf(indexed) > id) names = names.put(pt.getName(), pt);
+		}
+
+		return new PointDatabaseSnapshot(_entries.put(pt, new Entry(pt, pt, id)), _byId.put(id, pt), names, generated, nextName);
+	}
+}
@@ -0,0 +1,76 @@
+package geometry_objects.points;
+
+import java.util.Set;
+
+import geometry_objects.spatial.PointKdTree;
+
+/*
+ * The point factory behind a PointDatabase: stores points by coordinates, names the
+ * unnamed ones and assigns dense IDs in order of first insertion.
+ *
+ * Implementations follow the naming rules of PointNamingFactory: the first name given
+ * for a point is kept (a valid name overwrites an unnamed point), and a later duplicate
+ * in a list of points replaces the stored value but neither its database order nor the
+ * name it is found under.
+ */
+public interface PointFactory {
+	/**
+	 * @return the stored point equal to @pt, or @pt once added
+	 */
+	public Point put(Point pt);
+
+	/**
+	 * @return the stored point at (x, y), or a new point with the next generated name
+	 *         (the name is consumed even if the point is stored)
+	 */
+	public Point put(double x, double y);
+
+	/**
+	 * @return the stored point at (x, y) (renamed if it was unnamed), or a new point named @name
+	 */
+	public Point put(String name, double x, double y);
+
+	public Point get(double x, double y);
+
+	public Point get(Point pt);
+
+	/**
+	 * @return the first point (in database order) with that name; null if none
+	 */
+	public Point get(String name);
+
+	public boolean contains(double x, double y);
+
+	public boolean contains(Point p);
+
+	/**
+	 * @return the ID of the stored point equal to @pt; -1 if there is none
+	 */
+	public int idOf(Point pt);
+
+	/**
+	 * @param id -- a point ID (0 <= id < size())
+	 * @return the stored point with that ID
+	 */
+	public Point pointAt(int id);
+
+	/**
+	 * @return the points, in database (ID) order (a point overwriting an unnamed point
+	 *         takes its place)
+	 */
+	public Set<Point> getAllPoints();
+
+	/**
+	 * @return the spatial index over the stored points
+	 */
+	public PointKdTree getIndex();
+
+	public void clear();
+
+	public int size();
+
+	/**
+	 * used for testing: acquires the next generated name
+	 */
+	public String getCurrentNameTester();
+}
@@ -0,0 +1,87 @@
+package geometry_objects.points;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Point --> ID for the dense point IDs of PointNamingFactory: an open-addressing table of
+ * IDs probed by the point's quantized coordinates. There are no entry objects and no boxed
+ * IDs, unlike a HashMap<Point, Integer>; the points are those of the factory's ID list.
+ */
+class PointIdIndex
+{
+	// Slot --> ID + 1 (0 for an empty slot); the capacity is a power of two
+	private int[] _slots;
+
+	// ID --> a point with the coordinates of that ID
+	private final List<Point> _points;
+
+	private int _size;
+
+	/**
+	 * @param points -- ID --> point (IDs are put once appended here)
+	 * @param expectedSize -- the expected number of points
+	 */
+	PointIdIndex(List<Point> points, int expectedSize)
+	{
+		_points = points;
+
+		int capacity = 8;
+		while (2L * capacity < 3L * expectedSize) capacity <<= 1;
+		_slots = new int[capacity];
+	}
+
+	/**
+	 * @return the ID of the point equal to @pt; -1 if there is none
+	 */
+	int get(Point pt)
+	{
+		return _slots[find(pt)] - 1;
+	}
+
+	/**
+	 * @param pt -- a point with no ID
+	 * @param id -- its ID (the point at @id in the ID list)
+	 */
+	void put(Point pt, int id)
+	{
+		_slots[find(pt)] = id + 1;
+		_size++;
+
+		if (3 * _size > 2 * _slots.length) rehash();
+	}
+
+	void clear()
+	{
+		Arrays.fill(_slots, 0);
+		_size = 0;
+	}
+
+	/**
+	 * @return the slot holding the ID of @pt, or the empty slot ending its probe sequence (linear probing)
+	 */
+	private int find(Point pt)
+	{
+		int mask = _slots.length - 1;
+
+		for (int slot = (int) pt.longHash() & mask; ; slot = (slot + 1) & mask)
+		{
+			int id = _slots[slot] - 1;
+			if (id < 0) return slot;
+
+			Point stored = _points.get(id);
+			if (stored == pt || stored.getXTicks() == pt.getXTicks() && stored.getYTicks() == pt.getYTicks()) return slot;
+		}
+	}
+
+	private void rehash()
+	{
+		int[] slots = _slots;
+		_slots = new int[2 * slots.length];
+
+		for (int id : slots)
+		{
+			if (id != 0) _slots[find(_points.get(id - 1))] = id;
+		}
+	}
+}
@@ -1,24 +1,34 @@
 package geometry_objects.points;
 
-import java.util.LinkedHashMap;
-import java.util.LinkedHashSet;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import geometry_objects.spatial.PointKdTree;
+import utilities.math.MathUtilities;
+
 /*
  * Given a pair of coordinates; generate a unique name for it; return that point object.
  *
  * Names go from A..Z..AA..ZZ..AAA...ZZZ
  */
-public class PointNamingFactory {
+public class PointNamingFactory implements PointFactory {
 	private static final String _PREFIX = "*_"; // Distinguishes generated names
 
 	private static final char START_LETTER = 'A';
 	private static final char END_LETTER = 'Z';
 
-	private String _currentName = "A";
-	private int _numLetters = 1;
+	private static final int LETTERS = END_LETTER - START_LETTER + 1;
+
+	// The position of the next generated name in the sequence; names are rendered on demand
+	// (see Point.getName)
+	private int _nextName = 0;
 
 	//
 	// A hashed container for the database of points;
@@ -29,8 +39,56 @@ public class PointNamingFactory {
 	//
 	protected Map<Point, Point> _database;
 
+	//
+	// ID --> the key of the stored point (database order is ID order);
+	// a point overwriting an unnamed one takes its place
+	//
+	protected List<Point> _keys;
+	protected Set<Point> _points;
+
+	//
+	// Name --> the first point (in database order) with that name;
+	// generated names are indexed by sequence, unnamed points are not indexed
+	//
+	protected Map<String, Point> _names;
+	protected Map<Integer, Point> _generated;
+
+	// Spatial index over the stored points (proximity queries); built in bulk on first use,
+	// then kept up to date
+	protected PointKdTree _index;
+
+	//
+	// Dense point IDs 0, 1, 2, ... in order of first insertion:
+	// point --> ID (over _keys) and ID --> (current) stored point.
+	// An ID is stable: a point stored again at the same coordinates
+	// (a name overwriting an unnamed point) keeps it.
+	//
+	protected PointIdIndex _ids;
+	protected List<Point> _byId;
+
 	public PointNamingFactory() {
-		_database = new LinkedHashMap<>();
+		_database = new HashMap<>();
+		_keys = new ArrayList<>();
+		_points = new AbstractSet<Point>() {
+			@Override
+			public Iterator<Point> iterator() {
+				return Collections.unmodifiableList(_keys).iterator();
+			}
+
+			@Override
+			public int size() {
+				return _keys.size();
+			}
+
+			@Override
+			public boolean contains(Object o) {
+				return _database.containsKey(o);
+			}
+		};
+		_names = new HashMap<>();
+		_generated = new HashMap<>();
+		_ids = new PointIdIndex(_keys, 0);
+		_byId = new ArrayList<>();
 	}
 
 	/**
@@ -38,10 +96,109 @@ public class PointNamingFactory {
 	 * @param points -- a list of points, named or not named
 	 */
 	public PointNamingFactory(List<Point> points) {
-		_database = new LinkedHashMap<>();
+		this();
 
 		for (Point point : points)
-			_database.put(point, point);
+			if (!_database.containsKey(point))
+				add(point);
+			else {
+				_database.put(point, point);
+				_byId.set(_ids.get(point), point);
+			}
+	}
+
+	/**
+	 * Bulk load: the same database as the list constructor given the points
+	 * (names[i], xs[i], ys[i]), built in one pass after deduplicating by a sort on
+	 * the quantized coordinates. Only one Point per distinct coordinate pair is
+	 * created (two if a later duplicate differs; it becomes the stored value).
+	 * 
+	 * @param xs -- x coordinates
+	 * @param ys -- y coordinates (parallel to xs)
+	 * @param names -- names (parallel to xs; null for all unnamed)
+	 */
+	public PointNamingFactory(double[] xs, double[] ys, String[] names) {
+		this();
+
+		int n = xs.length;
+		if (ys.length != n || (names != null && names.length != n))
+			throw new IllegalArgumentException("Coordinate and name arrays differ in length");
+
+		long[] qx = new long[n];
+		long[] qy = new long[n];
+		for (int i = 0; i < n; i++) {
+			qx[i] = MathUtilities.quantize(xs[i]);
+			qy[i] = MathUtilities.quantize(ys[i]);
+		}
+
+		int[] sorted = sortByCoordinates(qx, qy);
+
+		// Runs of equal coordinates: the first occurrence is the key, the last the value
+		int[] lastOf = new int[n];
+		Arrays.fill(lastOf, -1);
+		int distinct = 0;
+		for (int start = 0, end; start < n; start = end) {
+			for (end = start + 1; end < n && qx[sorted[end]] == qx[sorted[start]] && qy[sorted[end]] == qy[sorted[start]]; end++);
+
+			lastOf[sorted[start]] = sorted[end - 1];
+			distinct++;
+		}
+
+		_database = new HashMap<>(2 * distinct);
+		_keys = new ArrayList<>(distinct);
+		_ids = new PointIdIndex(_keys, distinct);
+		_byId = new ArrayList<>(distinct);
+
+		for (int i = 0; i < n; i++) {
+			if (lastOf[i] < 0)
+				continue;
+
+			Point key = new Point(names == null ? null : names[i], xs[i], ys[i]);
+			Point value = lastOf[i] == i ? key : new Point(names == null ? null : names[lastOf[i]], xs[lastOf[i]], ys[lastOf[i]]);
+
+			_database.put(key, value);
+			_keys.add(key);
+			_ids.put(key, _byId.size());
+			_byId.add(value);
+
+			if (!key.isUnnamed())
+				_names.putIfAbsent(key.getName(), key);
+		}
+	}
+
+	/**
+	 * @return the indices 0..n-1 sorted by quantized (x, y), ties by index (bottom-up merge sort)
+	 */
+	private static int[] sortByCoordinates(long[] qx, long[] qy) {
+		int n = qx.length;
+		int[] sorted = new int[n];
+		int[] buffer = new int[n];
+		for (int i = 0; i < n; i++)
+			sorted[i] = i;
+
+		for (int width = 1; width < n; width *= 2) {
+			for (int lo = 0; lo < n - width; lo += 2 * width) {
+				int mid = lo + width;
+				int hi = Math.min(lo + 2 * width, n);
+
+				for (int i = lo, a = lo, b = mid; i < hi; i++) {
+					if (b >= hi || (a < mid && !coordinatesLess(qx, qy, sorted[b], sorted[a])))
+						buffer[i] = sorted[a++];
+					else
+						buffer[i] = sorted[b++];
+				}
+				System.arraycopy(buffer, lo, sorted, lo, hi - lo);
+			}
+		}
+
+		return sorted;
+	}
+
+	private static boolean coordinatesLess(long[] qx, long[] qy, int i, int j) {
+		if (qx[i] != qx[j])
+			return qx[i] < qx[j];
+
+		return qy[i] < qy[j];
 	}
 
 	/**
@@ -50,13 +207,11 @@ public class PointNamingFactory {
 	 *         database
 	 */
 	public Point put(Point pt) {
-		Set<Point> points = getAllPoints();
+		Point existing = _database.get(pt);
+		if (existing != null)
+			return existing;
 
-		for (Point p : points)
-			if (pt.equals(p))
-				return p;
-
-		_database.put(pt, pt);
+		add(pt);
 		return pt;
 	}
 
@@ -68,14 +223,12 @@ public class PointNamingFactory {
 	 */
 	public Point put(double x, double y) {
 		Point newPoint = new Point(getCurrentName(), x, y);
-		Set<Point> points = getAllPoints();
 
-		for (Point p : points)
-			// if(newPoint.compareTo(p) == 0)
-			if (newPoint.equals(p))
-				return p;
+		Point existing = _database.get(newPoint);
+		if (existing != null)
+			return existing;
 
-		_database.put(newPoint, newPoint);
+		add(newPoint);
 		return newPoint;
 	}
 
@@ -105,14 +258,7 @@ public class PointNamingFactory {
 	 * @return stored database Object corresponding to (x, y)
 	 */
 	public Point get(double x, double y) {
-		Point newPoint = new Point(x, y);
-		Set<Point> points = getAllPoints();
-
-		for (Point p : points)
-			if (p.compareTo(newPoint) == 0)
-				return p;
-
-		return null;
+		return _database.get(new Point(x, y));
 	}
 
 	public Point get(Point pt) {
@@ -133,14 +279,10 @@ public class PointNamingFactory {
 	 *         The exception is that a valid name can overwrite an unnamed point.
 	 */
 	private Point lookupExisting(String name, double x, double y) {
-		Point newPoint = new Point(name, x, y);
-		Set<Point> points = getAllPoints();
-
-		for (Point p : points) {
-			if (newPoint.equals(p) && p.getName() != Point.ANONYMOUS)
-				return p;
+		Point existing = _database.get(new Point(name, x, y));
 
-		}
+		if (existing != null && !existing.isUnnamed())
+			return existing;
 
 		return null;
 	}
@@ -159,8 +301,9 @@ public class PointNamingFactory {
 	 *         The exception is that a valid name can overwrite an unnamed point.
 	 */
 	private Point createNewPoint(String name, double x, double y) {
-		if (lookupExisting(name, x, y) != null) {
-			return lookupExisting(name, x, y);
+		Point existing = lookupExisting(name, x, y);
+		if (existing != null) {
+			return existing;
 		}
 
 		Point newPoint = null;
@@ -169,18 +312,98 @@ public class PointNamingFactory {
 		else
 			newPoint = new Point(name, x, y);
 
-		Set<Point> points = getAllPoints();
+		// A valid name overwrites an unnamed point (lookupExisting returned null, so any
+		// stored point is unnamed)
+		if (_database.containsKey(newPoint))
+			replace(newPoint);
+		else
+			add(newPoint);
 
-		for (Point p : points) {
-			if (newPoint.equals(p) && p.getName() == Point.ANONYMOUS) {
-				_database.remove(p, p);
-				_database.put(newPoint, newPoint);
-				return newPoint;
-			}
+		return newPoint;
+	}
 
+	/**
+	 * @param name -- the name of a point
+	 * @return the first point (in database order) with that name; null if none
+	 */
+	public Point get(String name) {
+		if (name == null)
+			return null;
+
+		if (name.equals(Point.ANONYMOUS)) {
+			for (Point p : getAllPoints())
+				if (p.getSequence() < 0 && p.getName().equals(name))
+					return p;
+			return null;
 		}
-		_database.put(newPoint, newPoint);
-		return newPoint;
+
+		return first(_names.get(name), _generated.get(generatedSequence(name)));
+	}
+
+	/**
+	 * @return the first of two points in database (ID) order; either may be null
+	 */
+	private Point first(Point p1, Point p2) {
+		if (p1 == null)
+			return p2;
+		if (p2 == null)
+			return p1;
+
+		return idOf(p1) <= idOf(p2) ? p1 : p2;
+	}
+
+	/**
+	 * Add a point not yet in the database (appended in database order)
+	 */
+	private void add(Point pt) {
+		_database.put(pt, pt);
+		_keys.add(pt);
+		if (_index != null)
+			_index.insert(pt);
+
+		_ids.put(pt, _byId.size());
+		_byId.add(pt);
+
+		if (pt.getSequence() >= 0)
+			_generated.putIfAbsent(pt.getSequence(), pt);
+		else if (!pt.isUnnamed())
+			_names.putIfAbsent(pt.getName(), pt);
+	}
+
+	/**
+	 * Replace the stored point equal to @pt by @pt, keeping its ID and so its place in
+	 * database order; if the old key was the point indexed under its name, the next point
+	 * (in database order) with that name takes its place.
+	 */
+	private void replace(Point pt) {
+		int id = _ids.get(pt);
+		Point key = _keys.get(id);
+
+		_database.remove(key);
+		_database.put(pt, pt);
+		_keys.set(id, pt);
+		_byId.set(id, pt);
+
+		if (_index != null) {
+			_index.remove(key);
+			_index.insert(pt);
+		}
+
+		if (key.getSequence() >= 0)
+			_generated.remove(key.getSequence(), key);
+		else if (!key.isUnnamed() && _names.get(key.getName()) == key) {
+			_names.remove(key.getName());
+			for (Point p : getAllPoints())
+				if (p.getSequence() < 0 && p.getName().equals(key.getName())) {
+					_names.put(p.getName(), p);
+					break;
+				}
+		}
+
+		if (pt.getSequence() >= 0)
+			_generated.merge(pt.getSequence(), pt, this::first);
+		else if (!pt.isUnnamed())
+			_names.merge(pt.getName(), pt, this::first);
 	}
 
 	/**
@@ -197,50 +420,91 @@ public class PointNamingFactory {
 	}
 
 	/**
-	 * @return acquires and returns the next name in sequence; also generates the next name in a
-	 *         'lazy list' manner
+	 * @return acquires and returns the position of the next name in sequence
 	 */
-	private String getCurrentName() {
-		String string = _PREFIX + _currentName;
-		updateName();
-		return string;
+	private int getCurrentName() {
+		return _nextName++;
 	}
 
 	/**
 	 * used for testing
 	 */
 	public String getCurrentNameTester() {
-		String string = _PREFIX + _currentName;
-		updateName();
-		return string;
+		return generatedName(getCurrentName());
 	}
 
 	/**
-	 * Advances the current generated name to the next letter in the alphabet: 'A' -> 'B' -> 'C' ->
-	 * 'Z' --> 'AA' -> 'BB'
+	 * @param k -- a position in the sequence of generated names (0 --> A, 25 --> Z, 26 --> AA, 27 --> BB, ...)
+	 * @return the k-th generated name
 	 */
-	private void updateName() {
-		if (_currentName.charAt(0) == END_LETTER) {
-			_currentName = "" + START_LETTER;
-			_numLetters++;
-		} else {
-			char next = (char) (_currentName.charAt(0) + 1);
-			_currentName = "" + next;
-		}
+	protected static String generatedName(long k) {
+		char letter = (char) (START_LETTER + k % LETTERS);
+		int letters = (int) (k / LETTERS) + 1;
+
+		return _PREFIX + String.valueOf(letter).repeat(letters);
+	}
+
+	/**
+	 * @param name -- a name
+	 * @return the position of @name in the sequence of generated names; -1 if it is not a generated name
+	 */
+	protected static int generatedSequence(String name) {
+		int letters = name.length() - _PREFIX.length();
+		if (!name.startsWith(_PREFIX) || letters < 1 || letters > Integer.MAX_VALUE / LETTERS)
+			return -1;
+
+		char letter = name.charAt(_PREFIX.length());
+		if (letter < START_LETTER || letter > END_LETTER)
+			return -1;
+
+		for (int i = _PREFIX.length() + 1; i < name.length(); i++)
+			if (name.charAt(i) != letter)
+				return -1;
 
-		for (int i = 1; i < _numLetters; i++)
-			_currentName += _currentName.charAt(0);
+		return (letters - 1) * LETTERS + (letter - START_LETTER);
 	}
 
 	/**
-	 * @return The entire database of points.
+	 * @return The entire database of points, in database (ID) order (read-only).
 	 */
 	public Set<Point> getAllPoints() {
-		return _database.keySet();
+		return _points;
 	}
 
 	public void clear() {
 		_database.clear();
+		_keys.clear();
+		_names.clear();
+		_generated.clear();
+		_index = null;
+		_ids.clear();
+		_byId.clear();
+	}
+
+	/**
+	 * @param pt -- a point
+	 * @return the ID of the stored point equal to @pt; -1 if there is none
+	 */
+	public int idOf(Point pt) {
+		return pt == null ? -1 : _ids.get(pt);
+	}
+
+	/**
+	 * @param id -- a point ID (0 <= id < size())
+	 * @return the stored point with that ID
+	 */
+	public Point pointAt(int id) {
+		return _byId.get(id);
+	}
+
+	/**
+	 * @return the spatial index over the stored points
+	 */
+	public PointKdTree getIndex() {
+		if (_index == null)
+			_index = new PointKdTree(getAllPoints());
+
+		return _index;
 	}
 
 	public int size() {
@@ -0,0 +1,374 @@
+package geometry_objects.spatial;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import geometry_objects.points.Point;
+
+/**
+ * A dynamic 2-d tree over points; the levels alternate splitting on x and y.
+ *
+ * Insertion keeps the tree balanced scapegoat-style: when a new node lands too
+ * deep, the highest unbalanced subtree on its path is rebuilt around medians.
+ * Removal marks the node deleted; the tree is rebuilt once deleted nodes
+ * outnumber the live ones.
+ *
+ * Queries:
+ *   * nearest: the point nearest (x, y)
+ *   * within: the points within a distance of (x, y)
+ *   * near duplicates: groups of points chained by distance at most a tolerance
+ */
+public class PointKdTree
+{
+	// Weight balance: no child holds more than this fraction of its parent's subtree
+	private static final double ALPHA = 0.7;
+
+	private static class Node
+	{
+		protected Point _point;
+		protected boolean _deleted;
+
+		protected Node _left;
+		protected Node _right;
+
+		// Nodes (live or deleted) in this subtree
+		protected int _size = 1;
+
+		protected Node(Point point)
+		{
+			_point = point;
+		}
+	}
+
+	protected Node _root;
+
+	// Live and deleted nodes
+	protected int _size;
+	protected int _deleted;
+
+	public int size() { return _size - _deleted; }
+
+	public PointKdTree() { }
+
+	/**
+	 * Bulk-load a balanced tree.
+	 * @param points -- a collection of points
+	 */
+	public PointKdTree(Collection<Point> points)
+	{
+		List<Node> nodes = new ArrayList<Node>();
+		for (Point point : points) nodes.add(new Node(point));
+
+		_root = build(nodes, 0, nodes.size(), 0);
+		_size = nodes.size();
+	}
+
+	private static double coordinate(Point pt, int depth)
+	{
+		return depth % 2 == 0 ? pt.getX() : pt.getY();
+	}
+
+	/**
+	 * @return a balanced subtree of nodes[from, to) whose root is at @depth
+	 */
+	private static Node build(List<Node> nodes, int from, int to, int depth)
+	{
+		if (from >= to) return null;
+
+		int middle = (from + to) >>> 1;
+		select(nodes, from, to, middle, depth);
+		Node root = nodes.get(middle);
+
+		root._left = build(nodes, from, middle, depth + 1);
+		root._right = build(nodes, middle + 1, to, depth + 1);
+		root._size = to - from;
+
+		return root;
+	}
+
+	/**
+	 * Reorder nodes[from, to) so that the node at @k is the one a sort on the coordinate at
+	 * @depth would put there, none before it greater and none after it less (quickselect)
+	 */
+	private static void select(List<Node> nodes, int from, int to, int k, int depth)
+	{
+		for (int lo = from, hi = to - 1; lo < hi; )
+		{
+			double pivot = coordinate(nodes.get((lo + hi) >>> 1)._point, depth);
+
+			int i = lo, j = hi;
+			while (i <= j)
+			{
+				while (coordinate(nodes.get(i)._point, depth) < pivot) i++;
+				while (coordinate(nodes.get(j)._point, depth) > pivot) j--;
+				if (i <= j) Collections.swap(nodes, i++, j--);
+			}
+
+			if (k <= j) hi = j;
+			else if (k >= i) lo = i;
+			else return;
+		}
+	}
+
+	private static int size(Node node)
+	{
+		return node == null ? 0 : node._size;
+	}
+
+	private static void collect(Node node, List<Node> nodes)
+	{
+		if (node == null) return;
+
+		collect(node._left, nodes);
+		nodes.add(node);
+		collect(node._right, nodes);
+	}
+
+	/**
+	 * @param pt -- a point to add (points equal within tolerance are distinct entries)
+	 */
+	public void insert(Point pt)
+	{
+		Node node = new Node(pt);
+		_size++;
+
+		if (_root == null)
+		{
+			_root = node;
+			return;
+		}
+
+		// Descend: smaller coordinates to the left, the rest to the right
+		List<Node> path = new ArrayList<Node>();
+		Node current = _root;
+		while (current != null)
+		{
+			current._size++;
+			path.add(current);
+
+			current = coordinate(pt, path.size() - 1) < coordinate(current._point, path.size() - 1) ? current._left : current._right;
+		}
+
+		Node parent = path.get(path.size() - 1);
+		if (coordinate(pt, path.size() - 1) < coordinate(parent._point, path.size() - 1)) parent._left = node;
+		else parent._right = node;
+
+		if (path.size() > Math.log(_size) / Math.log(1 / ALPHA)) rebalance(path);
+	}
+
+	/**
+	 * Rebuild the highest subtree on the path whose heavier child is too heavy.
+	 */
+	private void rebalance(List<Node> path)
+	{
+		for (int depth = 0; depth < path.size(); depth++)
+		{
+			Node node = path.get(depth);
+			if (Math.max(size(node._left), size(node._right)) <= ALPHA * node._size) continue;
+
+			List<Node> nodes = new ArrayList<Node>();
+			collect(node, nodes);
+			Node rebuilt = build(nodes, 0, nodes.size(), depth);
+
+			if (depth == 0) _root = rebuilt;
+			else if (path.get(depth - 1)._left == node) path.get(depth - 1)._left = rebuilt;
+			else path.get(depth - 1)._right = rebuilt;
+
+			return;
+		}
+	}
+
+	/**
+	 * @param pt -- a point previously inserted (the same object)
+	 * @return true if the point was found and removed
+	 */
+	public boolean remove(Point pt)
+	{
+		if (!remove(_root, pt, 0)) return false;
+
+		_deleted++;
+
+		// Drop the deleted nodes once they are the majority
+		if (2 * _deleted > _size)
+		{
+			List<Node> nodes = new ArrayList<Node>();
+			collect(_root, nodes);
+			nodes.removeIf((n) -> n._deleted);
+
+			_root = build(nodes, 0, nodes.size(), 0);
+			_size = nodes.size();
+			_deleted = 0;
+		}
+
+		return true;
+	}
+
+	private static boolean remove(Node node, Point pt, int depth)
+	{
+		if (node == null) return false;
+
+		if (node._point == pt && !node._deleted)
+		{
+			node._deleted = true;
+			return true;
+		}
+
+		// Equal coordinates may be on either side after a rebuild
+		double c = coordinate(pt, depth);
+		double split = coordinate(node._point, depth);
+
+		if (c <= split && remove(node._left, pt, depth + 1)) return true;
+		return c >= split && remove(node._right, pt, depth + 1);
+	}
+
+	/**
+	 * @param x -- single coordinate
+	 * @param y -- single coordinate
+	 * @return the point nearest (x, y) (lexicographically least among ties); null if the tree is empty
+	 */
+	public Point nearest(double x, double y)
+	{
+		Nearest best = new Nearest();
+
+		nearest(_root, x, y, 0, best);
+
+		return best._point;
+	}
+
+	private static class Nearest
+	{
+		protected Point _point;
+		protected double _distanceSquared = Double.POSITIVE_INFINITY;
+	}
+
+	private static void nearest(Node node, double x, double y, int depth, Nearest best)
+	{
+		if (node == null) return;
+
+		if (!node._deleted)
+		{
+			double d = distanceSquared(node._point, x, y);
+			if (d < best._distanceSquared || (d == best._distanceSquared && node._point.compareTo(best._point) < 0))
+			{
+				best._point = node._point;
+				best._distanceSquared = d;
+			}
+		}
+
+		double diff = (depth % 2 == 0 ? x : y) - coordinate(node._point, depth);
+		Node near = diff < 0 ? node._left : node._right;
+		Node far = diff < 0 ? node._right : node._left;
+
+		nearest(near, x, y, depth + 1, best);
+		if (diff * diff <= best._distanceSquared) nearest(far, x, y, depth + 1, best);
+	}
+
+	/**
+	 * @param x -- single coordinate
+	 * @param y -- single coordinate
+	 * @param radius -- a distance
+	 * @return the points at distance at most @radius from (x, y), nearest first
+	 */
+	public List<Point> within(double x, double y, double radius)
+	{
+		List<Point> found = new ArrayList<Point>();
+
+		within(_root, x, y, radius, 0, found);
+
+		found.sort(Comparator.comparingDouble((Point p) -> distanceSquared(p, x, y)).thenComparing(Comparator.naturalOrder()));
+
+		return found;
+	}
+
+	private static void within(Node node, double x, double y, double radius, int depth, List<Point> found)
+	{
+		if (node == null) return;
+
+		if (!node._deleted && distanceSquared(node._point, x, y) <= radius * radius) found.add(node._point);
+
+		double diff = (depth % 2 == 0 ? x : y) - coordinate(node._point, depth);
+
+		if (diff <= radius) within(node._left, x, y, radius, depth + 1, found);
+		if (diff >= -radius) within(node._right, x, y, radius, depth + 1, found);
+	}
+
+	/**
+	 * Single-linkage grouping: two points are in the same group if a chain of points,
+	 * consecutive ones at distance at most @tolerance, connects them.
+	 * One within query per point: O(n log n) when groups are small.
+	 *
+	 * @param tolerance -- a distance
+	 * @return every group of two or more points, each sorted (lexicographically), ordered by least point
+	 */
+	public List<List<Point>> nearDuplicates(double tolerance)
+	{
+		List<Node> nodes = new ArrayList<Node>();
+		collect(_root, nodes);
+		nodes.removeIf((n) -> n._deleted);
+
+		// Union-find over the live points (by identity)
+		Map<Point, Point> parent = new IdentityHashMap<Point, Point>();
+		for (Node node : nodes) parent.put(node._point, node._point);
+
+		for (Node node : nodes)
+		{
+			for (Point other : within(node._point.getX(), node._point.getY(), tolerance))
+			{
+				if (other != node._point) union(parent, node._point, other);
+			}
+		}
+
+		// Group by representative
+		Map<Point, List<Point>> groups = new IdentityHashMap<Point, List<Point>>();
+		for (Node node : nodes) groups.computeIfAbsent(find(parent, node._point), (k) -> new ArrayList<Point>()).add(node._point);
+
+		TreeMap<Point, List<Point>> ordered = new TreeMap<Point, List<Point>>(Comparator.comparingDouble(Point::getX)
+		                                                                                .thenComparingDouble(Point::getY));
+		for (List<Point> group : groups.values())
+		{
+			if (group.size() < 2) continue;
+
+			group.sort(Comparator.comparingDouble(Point::getX).thenComparingDouble(Point::getY));
+			ordered.put(group.get(0), group);
+		}
+
+		return new ArrayList<List<Point>>(ordered.values());
+	}
+
+	private static Point find(Map<Point, Point> parent, Point pt)
+	{
+		Point root = pt;
+		while (parent.get(root) != root) root = parent.get(root);
+
+		// Path compression
+		while (pt != root)
+		{
+			Point next = parent.get(pt);
+			parent.put(pt, root);
+			pt = next;
+		}
+
+		return root;
+	}
+
+	private static void union(Map<Point, Point> parent, Point a, Point b)
+	{
+		Point rootA = find(parent, a);
+		Point rootB = find(parent, b);
+
+		if (rootA != rootB) parent.put(rootB, rootA);
+	}
+
+	private static double distanceSquared(Point pt, double x, double y)
+	{
+		double dx = pt.getX() - x;
+		double dy = pt.getY() - y;
+		return dx * dx + dy * dy;
+	}
+}
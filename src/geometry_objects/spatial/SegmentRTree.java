@@ -0,0 +1,323 @@
+package geometry_objects.spatial;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import geometry_objects.Segment;
+import geometry_objects.points.Point;
+
+/**
+ * A static R-tree over segments, bulk-loaded with Sort-Tile-Recursive (STR) packing.
+ * Each segment is indexed by its envelope (see Segment), so queries never miss a
+ * segment that the segment predicates would accept.
+ *
+ * Queries:
+ *   * stabbing: the segments a point lies on
+ *   * window: the segments intersecting an axis-aligned rectangle
+ *   * nearest: the k segments nearest a point
+ */
+public class SegmentRTree
+{
+	// Maximum number of entries (segments or child nodes) per node
+	private static final int NODE_CAPACITY = 16;
+
+	private static class Node
+	{
+		protected double _minX = Double.POSITIVE_INFINITY;
+		protected double _minY = Double.POSITIVE_INFINITY;
+		protected double _maxX = Double.NEGATIVE_INFINITY;
+		protected double _maxY = Double.NEGATIVE_INFINITY;
+
+		// Exactly one of these is non-null: internal nodes have children, leaves have segments
+		protected Node[] _children;
+		protected Segment[] _segments;
+
+		protected Node(Node[] children)
+		{
+			_children = children;
+			for (Node child : children) expand(child._minX, child._minY, child._maxX, child._maxY);
+		}
+
+		protected Node(Segment[] segments)
+		{
+			_segments = segments;
+			for (Segment s : segments) expand(s.getEnvelopeMinX(), s.getEnvelopeMinY(), s.getEnvelopeMaxX(), s.getEnvelopeMaxY());
+		}
+
+		private void expand(double minX, double minY, double maxX, double maxY)
+		{
+			_minX = Math.min(_minX, minX);
+			_minY = Math.min(_minY, minY);
+			_maxX = Math.max(_maxX, maxX);
+			_maxY = Math.max(_maxY, maxY);
+		}
+
+		protected boolean intersects(double minX, double minY, double maxX, double maxY)
+		{
+			return _minX <= maxX && minX <= _maxX && _minY <= maxY && minY <= _maxY;
+		}
+
+		/**
+		 * @return the squared distance from (x, y) to this node's bounding box
+		 */
+		protected double distanceSquared(double x, double y)
+		{
+			double dx = Math.max(0, Math.max(_minX - x, x - _maxX));
+			double dy = Math.max(0, Math.max(_minY - y, y - _maxY));
+			return dx * dx + dy * dy;
+		}
+	}
+
+	// Best-first search entry: a node or a segment
+	private static class QueueEntry
+	{
+		protected double _distanceSquared;
+		protected Node _node;
+		protected Segment _segment;
+
+		protected QueueEntry(double distanceSquared, Node node, Segment segment)
+		{
+			_distanceSquared = distanceSquared;
+			_node = node;
+			_segment = segment;
+		}
+	}
+
+	protected Node _root;
+	protected int _size;
+
+	public int size() { return _size; }
+
+	/**
+	 * Bulk-load the tree from the given segments.
+	 * @param segments -- a collection of segments
+	 */
+	public SegmentRTree(Collection<Segment> segments)
+	{
+		_size = segments.size();
+
+		Segment[] sorted = segments.toArray(new Segment[0]);
+		List<Node> level = packLeaves(sorted);
+
+		while (level.size() > 1) level = packNodes(level);
+
+		_root = level.isEmpty() ? null : level.get(0);
+	}
+
+	/**
+	 * STR: sort by center x, cut into vertical slices, sort each slice by center y, pack runs into leaves.
+	 */
+	private static List<Node> packLeaves(Segment[] segments)
+	{
+		List<Node> leaves = new ArrayList<Node>();
+
+		Arrays.sort(segments, Comparator.comparingDouble((Segment s) -> s.getEnvelopeMinX() + s.getEnvelopeMaxX()));
+
+		int sliceSize = sliceSize(segments.length);
+		for (int slice = 0; slice < segments.length; slice += sliceSize)
+		{
+			int sliceEnd = Math.min(slice + sliceSize, segments.length);
+			Arrays.sort(segments, slice, sliceEnd, Comparator.comparingDouble((Segment s) -> s.getEnvelopeMinY() + s.getEnvelopeMaxY()));
+
+			for (int start = slice; start < sliceEnd; start += NODE_CAPACITY)
+			{
+				leaves.add(new Node(Arrays.copyOfRange(segments, start, Math.min(start + NODE_CAPACITY, sliceEnd))));
+			}
+		}
+
+		return leaves;
+	}
+
+	/**
+	 * STR packing of one level of nodes into their parents
+	 */
+	private static List<Node> packNodes(List<Node> level)
+	{
+		List<Node> parents = new ArrayList<Node>();
+
+		Node[] nodes = level.toArray(new Node[0]);
+		Arrays.sort(nodes, Comparator.comparingDouble((Node n) -> n._minX + n._maxX));
+
+		int sliceSize = sliceSize(nodes.length);
+		for (int slice = 0; slice < nodes.length; slice += sliceSize)
+		{
+			int sliceEnd = Math.min(slice + sliceSize, nodes.length);
+			Arrays.sort(nodes, slice, sliceEnd, Comparator.comparingDouble((Node n) -> n._minY + n._maxY));
+
+			for (int start = slice; start < sliceEnd; start += NODE_CAPACITY)
+			{
+				parents.add(new Node(Arrays.copyOfRange(nodes, start, Math.min(start + NODE_CAPACITY, sliceEnd))));
+			}
+		}
+
+		return parents;
+	}
+
+	/**
+	 * @return the number of entries per vertical slice: sqrt(#nodes) slices of full nodes
+	 */
+	private static int sliceSize(int entries)
+	{
+		int nodes = (entries + NODE_CAPACITY - 1) / NODE_CAPACITY;
+		int slices = (int) Math.ceil(Math.sqrt(nodes));
+
+		return Math.max(1, slices == 0 ? entries : ((nodes + slices - 1) / slices) * NODE_CAPACITY);
+	}
+
+	/**
+	 * Stabbing query
+	 * @param pt -- a point
+	 * @return all segments on which @pt lies (Segment.pointLiesOn)
+	 */
+	public List<Segment> stab(Point pt)
+	{
+		List<Segment> found = new ArrayList<Segment>();
+
+		stab(_root, pt, found);
+
+		return found;
+	}
+
+	private static void stab(Node node, Point pt, List<Segment> found)
+	{
+		if (node == null || !node.intersects(pt.getX(), pt.getY(), pt.getX(), pt.getY())) return;
+
+		if (node._segments != null)
+		{
+			for (Segment segment : node._segments)
+			{
+				if (segment.pointLiesOn(pt)) found.add(segment);
+			}
+			return;
+		}
+
+		for (Node child : node._children) stab(child, pt, found);
+	}
+
+	/**
+	 * Window query
+	 * @return all segments with a point inside the rectangle [minX, maxX] x [minY, maxY]
+	 */
+	public List<Segment> window(double minX, double minY, double maxX, double maxY)
+	{
+		List<Segment> found = new ArrayList<Segment>();
+
+		window(_root, minX, minY, maxX, maxY, found);
+
+		return found;
+	}
+
+	private static void window(Node node, double minX, double minY, double maxX, double maxY, List<Segment> found)
+	{
+		if (node == null || !node.intersects(minX, minY, maxX, maxY)) return;
+
+		if (node._segments != null)
+		{
+			for (Segment segment : node._segments)
+			{
+				if (intersectsRectangle(segment, minX, minY, maxX, maxY)) found.add(segment);
+			}
+			return;
+		}
+
+		for (Node child : node._children) window(child, minX, minY, maxX, maxY, found);
+	}
+
+	/**
+	 * Liang-Barsky clipping: does the segment have a point within the rectangle?
+	 */
+	private static boolean intersectsRectangle(Segment segment, double minX, double minY, double maxX, double maxY)
+	{
+		double x = segment.getPoint1().getX();
+		double y = segment.getPoint1().getY();
+		double dx = segment.getPoint2().getX() - x;
+		double dy = segment.getPoint2().getY() - y;
+
+		double[] p = { -dx, dx, -dy, dy };
+		double[] q = { x - minX, maxX - x, y - minY, maxY - y };
+
+		double enter = 0;
+		double exit = 1;
+		for (int i = 0; i < 4; i++)
+		{
+			if (p[i] == 0)
+			{
+				if (q[i] < 0) return false;
+				continue;
+			}
+
+			double t = q[i] / p[i];
+			if (p[i] < 0) enter = Math.max(enter, t);
+			else exit = Math.min(exit, t);
+
+			if (enter > exit) return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * k-nearest query (best-first search)
+	 * @param pt -- a point
+	 * @param k -- the number of segments
+	 * @return the (at most) k segments nearest @pt, nearest first
+	 */
+	public List<Segment> nearest(Point pt, int k)
+	{
+		List<Segment> found = new ArrayList<Segment>();
+		if (_root == null || k <= 0) return found;
+
+		double x = pt.getX();
+		double y = pt.getY();
+
+		// Nodes are keyed by box distance, segments by exact distance
+		PriorityQueue<QueueEntry> queue = new PriorityQueue<>(Comparator.comparingDouble((QueueEntry e) -> e._distanceSquared));
+		queue.add(new QueueEntry(_root.distanceSquared(x, y), _root, null));
+
+		while (!queue.isEmpty() && found.size() < k)
+		{
+			QueueEntry entry = queue.poll();
+
+			if (entry._segment != null)
+			{
+				found.add(entry._segment);
+				continue;
+			}
+
+			Node node = entry._node;
+			if (node._segments != null)
+			{
+				for (Segment segment : node._segments) queue.add(new QueueEntry(distanceSquared(segment, x, y), null, segment));
+			}
+			else
+			{
+				for (Node child : node._children) queue.add(new QueueEntry(child.distanceSquared(x, y), child, null));
+			}
+		}
+
+		return found;
+	}
+
+	/**
+	 * @return the squared distance from (x, y) to the segment
+	 */
+	public static double distanceSquared(Segment segment, double x, double y)
+	{
+		double ax = segment.getPoint1().getX();
+		double ay = segment.getPoint1().getY();
+		double dx = segment.getPoint2().getX() - ax;
+		double dy = segment.getPoint2().getY() - ay;
+
+		double lengthSquared = dx * dx + dy * dy;
+		double t = lengthSquared == 0 ? 0 : ((x - ax) * dx + (y - ay) * dy) / lengthSquared;
+		t = Math.max(0, Math.min(1, t));
+
+		double px = ax + t * dx - x;
+		double py = ay + t * dy - y;
+		return px * px + py * py;
+	}
+}
@@ -0,0 +1,126 @@
+package geometry_objects.spatial;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import geometry_objects.Segment;
+import geometry_objects.points.Point;
+
+/**
+ * A dynamic uniform grid (spatial hash) of items with axis-aligned boxes: segments by
+ * their envelope, points by their location.
+ *
+ * Unlike SegmentGrid, the cell size is fixed when the grid is created, so items can be
+ * inserted and removed one at a time; each update and query touches only the cells of
+ * its box. Queries return the items whose cells overlap the box (a superset of those
+ * whose boxes intersect it), in insertion order within a cell.
+ */
+public class UniformGrid<T>
+{
+	protected double _cellSize;
+
+	// Cell (packed x, y) --> items covering that cell
+	protected Map<Long, List<T>> _cells;
+
+	protected int _size;
+
+	public double getCellSize() { return _cellSize; }
+	public int size() { return _size; }
+
+	/**
+	 * @param cellSize -- the side of a cell (positive)
+	 */
+	public UniformGrid(double cellSize)
+	{
+		if (cellSize <= 0 || Double.isNaN(cellSize)) throw new IllegalArgumentException("Cell size must be positive: " + cellSize);
+
+		_cellSize = cellSize;
+		_cells = new HashMap<Long, List<T>>();
+	}
+
+	public void insert(T item, Segment segment) { insert(item, segment.getEnvelopeMinX(), segment.getEnvelopeMinY(), segment.getEnvelopeMaxX(), segment.getEnvelopeMaxY()); }
+	public void insert(T item, Point pt) { insert(item, pt.getX(), pt.getY(), pt.getX(), pt.getY()); }
+
+	/**
+	 * Add @item to every cell its box [minX, maxX] x [minY, maxY] covers.
+	 */
+	public void insert(T item, double minX, double minY, double maxX, double maxY)
+	{
+		for (int cx = cellOf(minX); cx <= cellOf(maxX); cx++)
+		{
+			for (int cy = cellOf(minY); cy <= cellOf(maxY); cy++)
+			{
+				_cells.computeIfAbsent(key(cx, cy), (k) -> new ArrayList<T>()).add(item);
+			}
+		}
+
+		_size++;
+	}
+
+	public boolean remove(T item, Segment segment) { return remove(item, segment.getEnvelopeMinX(), segment.getEnvelopeMinY(), segment.getEnvelopeMaxX(), segment.getEnvelopeMaxY()); }
+	public boolean remove(T item, Point pt) { return remove(item, pt.getX(), pt.getY(), pt.getX(), pt.getY()); }
+
+	/**
+	 * Remove @item (as inserted, with the same box) from its cells.
+	 * @return true if the item was found
+	 */
+	public boolean remove(T item, double minX, double minY, double maxX, double maxY)
+	{
+		boolean found = false;
+
+		for (int cx = cellOf(minX); cx <= cellOf(maxX); cx++)
+		{
+			for (int cy = cellOf(minY); cy <= cellOf(maxY); cy++)
+			{
+				long key = key(cx, cy);
+				List<T> cell = _cells.get(key);
+
+				if (cell == null || !cell.remove(item)) continue;
+
+				found = true;
+				if (cell.isEmpty()) _cells.remove(key);
+			}
+		}
+
+		if (found) _size--;
+
+		return found;
+	}
+
+	public Set<T> query(Segment segment) { return query(segment.getEnvelopeMinX(), segment.getEnvelopeMinY(), segment.getEnvelopeMaxX(), segment.getEnvelopeMaxY()); }
+	public Set<T> query(Point pt) { return query(pt.getX(), pt.getY(), pt.getX(), pt.getY()); }
+
+	/**
+	 * @return the items in the cells covered by the box [minX, maxX] x [minY, maxY]
+	 */
+	public Set<T> query(double minX, double minY, double maxX, double maxY)
+	{
+		Set<T> found = new LinkedHashSet<T>();
+
+		for (int cx = cellOf(minX); cx <= cellOf(maxX); cx++)
+		{
+			for (int cy = cellOf(minY); cy <= cellOf(maxY); cy++)
+			{
+				List<T> cell = _cells.get(key(cx, cy));
+
+				if (cell != null) found.addAll(cell);
+			}
+		}
+
+		return found;
+	}
+
+	private int cellOf(double coordinate)
+	{
+		return (int) Math.floor(coordinate / _cellSize);
+	}
+
+	private static long key(int cx, int cy)
+	{
+		return ((long) cx << 32) | (cy & 0xFFFFFFFFL);
+	}
+}
@@ -42,6 +42,14 @@ public class InputFacade {
         // return new AbstractMap.SimpleEntry<>(new PointDatabase(node.getPointsDatabase().getPoints().stream().map((pointNode) -> new Point(pointNode.getName(), pointNode.getX(), pointNode.getY())).toList()), new HashSet<>(node.getSegments().asUniqueSegmentList().stream().map((segmentNode) -> new Segment(new Point(segmentNode.getPoint1().getName(), segmentNode.getPoint1().getX(), segmentNode.getPoint1().getY()), new Point(segmentNode.getPoint2().getName(), segmentNode.getPoint2().getX(), segmentNode.getPoint2().getY()))).toList()));
     }
 
+    /**
+     * @param figure -- a parsed figure
+     * @return a pair <set of points as a database, set of segments>
+     */
+    public static Map.Entry<PointDatabase, Set<Segment>> toGeometryRepresentation(FigureNode figure) {
+        return figureToGeometry(figure);
+    }
+
     private static Map.Entry<PointDatabase, Set<Segment>> figureToGeometry(FigureNode figure) {
         PointNodeDatabase pointNodeDatabase = figure.getPointsDatabase();
         SegmentNodeDatabase segmentNodeDatabase = figure.getSegments();
@@ -65,11 +73,20 @@ public class InputFacade {
     private static PointDatabase pointDatabase(PointNodeDatabase pointNodeDatabase) {
         Set<PointNode> pointNodes = pointNodeDatabase.getPoints();
 
-        // Map the set of PointNodes to a list of Points
-        Stream<PointNode> pointNodeStream = pointNodes.stream();
-        List<Point> pointList = pointNodeStream.map(InputFacade::point).toList();
+        // Bulk load the coordinates and names; no intermediate Points
+        double[] xs = new double[pointNodes.size()];
+        double[] ys = new double[pointNodes.size()];
+        String[] names = new String[pointNodes.size()];
+
+        int i = 0;
+        for (PointNode pointNode : pointNodes) {
+            xs[i] = pointNode.getX();
+            ys[i] = pointNode.getY();
+            names[i] = pointNode.getName();
+            i++;
+        }
 
-        return new PointDatabase(pointList);
+        return new PointDatabase(xs, ys, names);
     }
     private static Set<Segment> segmentSet(SegmentNodeDatabase segments) {
         List<SegmentNode> segmentNodes = segments.asUniqueSegmentList();
@@ -0,0 +1,100 @@
+package input.visitor;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+
+import input.components.FigureNode;
+import input.components.point.PointNode;
+import input.components.point.PointNodeDatabase;
+import input.components.segment.SegmentNode;
+import input.components.segment.SegmentNodeDatabase;
+import utilities.math.HashUtilities;
+
+//
+// A 64-bit hash of the content of a figure: its description, its points (names and exact
+// coordinates) and its segments. Each visit returns a Long.
+//
+// The points and segments are sets, so their hashes are combined in sorted order: the hash
+// does not depend on the order of the input, and a segment listed in both adjacency lists
+// counts once.
+//
+public class ContentHashVisitor implements ComponentNodeVisitor
+{
+	@Override
+	public Object visitFigureNode(FigureNode node, Object o)
+	{
+		long hash = HashUtilities.combine(hash(node.getDescription()), (Long) node.getPointsDatabase().accept(this, o));
+
+		return HashUtilities.combine(hash, (Long) node.getSegments().accept(this, o));
+	}
+
+	@Override
+	public Object visitSegmentDatabaseNode(SegmentNodeDatabase node, Object o)
+	{
+		Map<PointNode, Set<PointNode>> adjacency = node.get_adjLists();
+
+		long[] hashes = new long[adjacency.values().stream().mapToInt(Set::size).sum()];
+		int k = 0;
+		for (Map.Entry<PointNode, Set<PointNode>> entry : adjacency.entrySet())
+		{
+			for (PointNode other : entry.getValue())
+			{
+				hashes[k++] = (Long) new SegmentNode(entry.getKey(), other).accept(this, o);
+			}
+		}
+
+		return combineSorted(hashes);
+	}
+
+	@Override
+	public Object visitSegmentNode(SegmentNode node, Object o)
+	{
+		return HashUtilities.unordered((Long) node.getPoint1().accept(this, o), (Long) node.getPoint2().accept(this, o));
+	}
+
+	@Override
+	public Object visitPointNode(PointNode node, Object o)
+	{
+		long coordinates = HashUtilities.combine(Double.doubleToLongBits(node.getX()), Double.doubleToLongBits(node.getY()));
+
+		return HashUtilities.combine(coordinates, hash(node.getName()));
+	}
+
+	@Override
+	public Object visitPointNodeDatabase(PointNodeDatabase node, Object o)
+	{
+		long[] hashes = node.getPoints().stream().mapToLong((pt) -> (Long) pt.accept(this, o)).toArray();
+
+		return combineSorted(hashes);
+	}
+
+	/**
+	 * @return a hash of the set of (distinct) @hashes
+	 */
+	private static long combineSorted(long[] hashes)
+	{
+		Arrays.sort(hashes);
+
+		long hash = 0;
+		for (int i = 0; i < hashes.length; i++)
+		{
+			if (i == 0 || hashes[i] != hashes[i - 1]) hash = HashUtilities.combine(hash, hashes[i]);
+		}
+
+		return hash;
+	}
+
+	/**
+	 * @return a 64-bit hash of @s (String.hashCode has 32 bits: "Aa" and "BB" collide)
+	 */
+	private static long hash(String s)
+	{
+		if (s == null) return 0;
+
+		long hash = s.length();
+		for (int i = 0; i < s.length(); i++) hash = HashUtilities.combine(hash, s.charAt(i));
+
+		return hash;
+	}
+}
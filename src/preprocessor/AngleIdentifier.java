@@ -8,6 +8,7 @@ import exceptions.FactException;
 import geometry_objects.Segment;
 import geometry_objects.angle.Angle;
 import geometry_objects.angle.AngleEquivalenceClasses;
+import preprocessor.delegates.SegmentIncidence;
 
 public class AngleIdentifier
 {
@@ -19,6 +20,14 @@ public class AngleIdentifier
 		_segments = segments.keySet().toArray(new Segment[0]);
 	}
 
+	/**
+	 * @param angles -- angles already identified (e.g. loaded from a snapshot)
+	 */
+	AngleIdentifier(AngleEquivalenceClasses angles)
+	{
+		_angles = angles;
+	}
+
 	/*
 	 * Compute the figure angles on the fly when requested; memorize results for subsequent calls.
 	 */
@@ -36,6 +45,9 @@ public class AngleIdentifier
 	 * Map contains segment, segment pairs. Add
 	 * each of these to an AngleEquivalenceClass (AEC)
 	 * return the size of the AEC
+	 * 
+	 * Only pairs sharing a vertex (by point ID) can form an angle; they are
+	 * processed in the same (i, j) order as all pairs would be.
 	 */
 	private void computeAngles() {
 		int n = _segments.length;
@@ -43,8 +55,10 @@ public class AngleIdentifier
 		// angle requires two sides
 		if (n < 2) return;
 
+		SegmentIncidence incidence = new SegmentIncidence(_segments);
+
 		for (int i = 0; i < n - 1; i++) {
-			for (int j = i + 1; j < n; j++) {
+			for (int j : incidence.sharingVertexAfter(i)) {
 				processAngle(_segments[i], _segments[j]);
 			}
 		}
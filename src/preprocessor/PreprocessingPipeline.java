@@ -0,0 +1,80 @@
+package preprocessor;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+import geometry_objects.Segment;
+import geometry_objects.Triangle;
+import geometry_objects.angle.AngleEquivalenceClasses;
+import geometry_objects.points.PointDatabase;
+import utilities.concurrent.PipelineExecutor;
+import utilities.concurrent.StageGraph;
+
+/**
+ * The whole preprocessing of a figure:
+ *
+ *                                                                         +--> angles
+ *   intersections --> implicit points --> minimal segments --> segment database
+ *                                                                         +--> triangles
+ *
+ * The chain up to the segment database is the Preprocessor's analysis, run on the calling
+ * thread. Angles and triangles depend only on the segment database, so they are identified
+ * concurrently, as two stages of a stage graph. The results are those of running
+ * Preprocessor, AngleIdentifier and TriangleIdentifier one after the other.
+ */
+public class PreprocessingPipeline
+{
+	protected Preprocessor _preprocessor;
+	protected AngleIdentifier _angleIdentifier;
+	protected TriangleIdentifier _triangleIdentifier;
+
+	public Preprocessor getPreprocessor() { return _preprocessor; }
+	public AngleEquivalenceClasses getAngles() { return _angleIdentifier.getAngles(); }
+	public Set<Triangle> getTriangles() { return _triangleIdentifier.getTriangles(); }
+
+	/**
+	 * Run the pipeline on the PipelineExecutor.
+	 */
+	public PreprocessingPipeline(PointDatabase points, Set<Segment> segments)
+	{
+		this(points, segments, PipelineExecutor.get());
+	}
+
+	/**
+	 * @param points -- the given points (implicit points are added)
+	 * @param segments -- the given segments
+	 * @param executor -- runs the angle and triangle stages
+	 */
+	public PreprocessingPipeline(PointDatabase points, Set<Segment> segments, Executor executor)
+	{
+		_preprocessor = new Preprocessor(points, segments);
+		Map<Segment, Segment> database = _preprocessor.getAllSegments();
+
+		StageGraph stages = new StageGraph(executor);
+
+		stages.add("angles", () ->
+		{
+			_angleIdentifier = new AngleIdentifier(database);
+			return _angleIdentifier.getAngles();
+		});
+
+		stages.add("triangles", () ->
+		{
+			_triangleIdentifier = new TriangleIdentifier(database);
+			return _triangleIdentifier.getTriangles();
+		});
+
+		stages.await();
+	}
+
+	/**
+	 * The results of a pipeline run earlier (see PreprocessingSnapshot).
+	 */
+	PreprocessingPipeline(Preprocessor preprocessor, AngleIdentifier angleIdentifier, TriangleIdentifier triangleIdentifier)
+	{
+		_preprocessor = preprocessor;
+		_angleIdentifier = angleIdentifier;
+		_triangleIdentifier = triangleIdentifier;
+	}
+}
@@ -0,0 +1,434 @@
+package preprocessor;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import exceptions.FactException;
+import geometry_objects.Segment;
+import geometry_objects.Triangle;
+import geometry_objects.angle.Angle;
+import geometry_objects.angle.AngleEquivalenceClasses;
+import geometry_objects.angle.AngleLinkedEquivalenceClass;
+import geometry_objects.points.Point;
+import geometry_objects.points.PointDatabase;
+import input.InputFacade;
+import input.components.FigureNode;
+import input.visitor.ContentHashVisitor;
+import preprocessor.delegates.LazySegmentDatabase;
+import utilities.eq_classes.LinkedEquivalenceClass;
+
+/**
+ * A binary snapshot of the results of a PreprocessingPipeline, keyed by the content hash of
+ * its figure (see ContentHashVisitor): an unchanged figure is loaded instead of analyzed.
+ *
+ * Layout (big-endian):
+ *
+ *   header                magic, version, content hash
+ *   given points          count; x, y and name of each (UTF-8 length and bytes; -1 if unnamed)
+ *   given segments        count; endpoints of each
+ *   implicit points       count; x, y of each
+ *   minimal segments      count; endpoints of each
+ *   implicit segments     count; index of each among the minimal segments
+ *   non-minimal segments  count
+ *   triangles             count; the three sides of each
+ *   angle classes         count; size, canonical and the rest of each (the two rays of an angle)
+ *
+ * Points are numbered in that order (given, then implicit); a segment is the numbers of its
+ * endpoints, in its orientation. Implicit points are put in the database again in order, so
+ * they get the same generated names. The non-minimal segments are not listed: the segment
+ * database derives them from the minimal segments (LazySegmentDatabase); their count is checked.
+ *
+ * A snapshot is read through a memory-mapped FileChannel. Every count is checked against the
+ * bytes left before anything is allocated for it, so a corrupt file fails as an IOException.
+ */
+public class PreprocessingSnapshot
+{
+	private static final int MAGIC = 0x50505353;
+	private static final int VERSION = 1;
+
+	private static final String EXTENSION = ".snapshot";
+
+	/**
+	 * @return the content hash of @figure
+	 */
+	public static long contentHash(FigureNode figure)
+	{
+		return (Long) figure.accept(new ContentHashVisitor(), null);
+	}
+
+	/**
+	 * The results for @figure: loaded from its snapshot in @directory if there is one, or
+	 * computed (on the PipelineExecutor) and saved there. A snapshot that cannot be read, or
+	 * whose given points and segments are not those of @figure (a hash collision), is computed
+	 * again; a problem saving it is reported, as FileUtilities does.
+	 *
+	 * @param figure -- a parsed figure
+	 * @param directory -- the directory of snapshots (created if need be)
+	 */
+	public static PreprocessingPipeline load(FigureNode figure, Path directory)
+	{
+		long hash = contentHash(figure);
+		Path file = directory.resolve(String.format("%016x", hash) + EXTENSION);
+
+		Map.Entry<PointDatabase, Set<Segment>> pair = InputFacade.toGeometryRepresentation(figure);
+
+		if (Files.exists(file))
+		{
+			try
+			{
+				PreprocessingPipeline pipeline = read(file, hash);
+				if (pipeline != null && sameInput(pipeline.getPreprocessor(), pair.getKey(), pair.getValue())) return pipeline;
+
+				System.err.println("Snapshot " + file + " is of another figure; analyzing the figure again");
+			}
+			catch (IOException e)
+			{
+				System.err.println("Unreadable snapshot " + file + "; analyzing the figure again");
+			}
+		}
+
+		PreprocessingPipeline pipeline = new PreprocessingPipeline(pair.getKey(), pair.getValue());
+
+		try { write(pipeline, hash, file); }
+		catch (IOException e)
+		{
+			System.err.println("Unexpected file I/O problem with " + file);
+		}
+
+		return pipeline;
+	}
+
+	/**
+	 * @return true if the given points (names and exact coordinates, in order) and the given
+	 *         segments of @preprocessor are @points and @segments
+	 */
+	private static boolean sameInput(Preprocessor preprocessor, PointDatabase points, Set<Segment> segments)
+	{
+		if (!preprocessor._givenSegments.equals(segments)) return false;
+
+		List<Point> given = givenPoints(preprocessor);
+		if (given.size() != points.size()) return false;
+
+		int i = 0;
+		for (Point pt : points.getPoints())
+		{
+			Point stored = given.get(i++);
+
+			if (pt.getX() != stored.getX() || pt.getY() != stored.getY() || !pt.getName().equals(stored.getName())) return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * @return the given (not implicit) points of @preprocessor, in database order
+	 */
+	private static List<Point> givenPoints(Preprocessor preprocessor)
+	{
+		List<Point> given = new ArrayList<Point>();
+		for (Point pt : preprocessor._pointDatabase.getPoints())
+		{
+			if (!preprocessor._implicitPoints.contains(pt)) given.add(pt);
+		}
+
+		return given;
+	}
+
+	/**
+	 * Save the results of @pipeline (written to a temporary file, then moved in place).
+	 *
+	 * @param contentHash -- the content hash of the figure
+	 */
+	public static void write(PreprocessingPipeline pipeline, long contentHash, Path file) throws IOException
+	{
+		Path directory = file.toAbsolutePath().getParent();
+		Files.createDirectories(directory);
+
+		Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+		try
+		{
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary))))
+			{
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+				out.writeLong(contentHash);
+
+				write(pipeline, out);
+			}
+
+			Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		finally
+		{
+			Files.deleteIfExists(temporary);
+		}
+	}
+
+	private static void write(PreprocessingPipeline pipeline, DataOutputStream out) throws IOException
+	{
+		Preprocessor preprocessor = pipeline.getPreprocessor();
+
+		// Point --> its number: given points (in database order), then implicit points
+		Map<Point, Integer> numbers = new HashMap<Point, Integer>();
+
+		List<Point> given = givenPoints(preprocessor);
+
+		out.writeInt(given.size());
+		for (Point pt : given)
+		{
+			numbers.put(pt, numbers.size());
+
+			out.writeDouble(pt.getX());
+			out.writeDouble(pt.getY());
+			writeName(pt, out);
+		}
+
+		out.writeInt(preprocessor._givenSegments.size());
+		for (Segment segment : preprocessor._givenSegments) writeSegment(segment, numbers, out);
+
+		out.writeInt(preprocessor._implicitPoints.size());
+		for (Point pt : preprocessor._implicitPoints)
+		{
+			numbers.put(pt, numbers.size());
+
+			out.writeDouble(pt.getX());
+			out.writeDouble(pt.getY());
+		}
+
+		// Minimal segment --> its index
+		Map<Segment, Integer> minimal = new HashMap<Segment, Integer>();
+
+		out.writeInt(preprocessor._allMinimalSegments.size());
+		for (Segment segment : preprocessor._allMinimalSegments)
+		{
+			minimal.put(segment, minimal.size());
+			writeSegment(segment, numbers, out);
+		}
+
+		out.writeInt(preprocessor._implicitSegments.size());
+		for (Segment segment : preprocessor._implicitSegments) out.writeInt(minimal.get(segment));
+
+		out.writeInt(preprocessor._nonMinimalSegments.size());
+
+		out.writeInt(pipeline.getTriangles().size());
+		for (Triangle triangle : pipeline.getTriangles())
+		{
+			writeSegment(triangle.getSegmentA(), numbers, out);
+			writeSegment(triangle.getSegmentB(), numbers, out);
+			writeSegment(triangle.getSegmentC(), numbers, out);
+		}
+
+		List<LinkedEquivalenceClass<Angle>> classes = pipeline.getAngles().classes();
+
+		out.writeInt(classes.size());
+		for (LinkedEquivalenceClass<Angle> angles : classes)
+		{
+			List<Angle> rest = angles.rest();
+
+			out.writeInt(1 + rest.size());
+			writeAngle(angles.canonical(), numbers, out);
+			for (Angle angle : rest) writeAngle(angle, numbers, out);
+		}
+	}
+
+	private static void writeName(Point pt, DataOutputStream out) throws IOException
+	{
+		if (pt.isUnnamed())
+		{
+			out.writeInt(-1);
+			return;
+		}
+
+		byte[] name = pt.getName().getBytes(StandardCharsets.UTF_8);
+		out.writeInt(name.length);
+		out.write(name);
+	}
+
+	private static void writeSegment(Segment segment, Map<Point, Integer> numbers, DataOutputStream out) throws IOException
+	{
+		out.writeInt(numberOf(segment.getPoint1(), numbers));
+		out.writeInt(numberOf(segment.getPoint2(), numbers));
+	}
+
+	private static void writeAngle(Angle angle, Map<Point, Integer> numbers, DataOutputStream out) throws IOException
+	{
+		writeSegment(angle.getRay1(), numbers, out);
+		writeSegment(angle.getRay2(), numbers, out);
+	}
+
+	private static int numberOf(Point pt, Map<Point, Integer> numbers)
+	{
+		Integer number = numbers.get(pt);
+		if (number == null) throw new IllegalArgumentException("Segment endpoint " + pt + " is not in the point database");
+
+		return number;
+	}
+
+	/**
+	 * @param contentHash -- the content hash of the figure
+	 * @return the results saved in @file; null if @file is a snapshot of another figure (or version)
+	 * @throws IOException if @file cannot be read or is corrupt
+	 */
+	public static PreprocessingPipeline read(Path file, long contentHash) throws IOException
+	{
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+		{
+			ByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+			if (in.getInt() != MAGIC || in.getInt() != VERSION || in.getLong() != contentHash) return null;
+
+			return read(in);
+		}
+		catch (BufferUnderflowException | IndexOutOfBoundsException | NegativeArraySizeException |
+			   IllegalArgumentException | FactException e)
+		{
+			throw new IOException("Corrupt snapshot " + file, e);
+		}
+	}
+
+	private static PreprocessingPipeline read(ByteBuffer in) throws FactException
+	{
+		//
+		// Given points and segments: the input of the preprocessor
+		//
+		int givenPointCount = readCount(in, 20);
+		double[] xs = new double[givenPointCount];
+		double[] ys = new double[givenPointCount];
+		String[] names = new String[givenPointCount];
+		for (int i = 0; i < givenPointCount; i++)
+		{
+			xs[i] = in.getDouble();
+			ys[i] = in.getDouble();
+			names[i] = readName(in);
+		}
+
+		PointDatabase database = new PointDatabase(xs, ys, names);
+		if (database.size() != givenPointCount) throw new IllegalArgumentException("Repeated given points");
+
+		List<Point> points = new ArrayList<Point>(database.getPoints());
+
+		int givenSegmentCount = readCount(in, 8);
+		Map<Long, Segment> givenSegments = new LinkedHashMap<Long, Segment>();
+		for (int i = 0; i < givenSegmentCount; i++) readSegment(in, points, givenSegments);
+
+		Preprocessor preprocessor = new Preprocessor(database, new LinkedHashSet<Segment>(givenSegments.values()), false);
+
+		//
+		// Analysis
+		//
+		int implicitPointCount = readCount(in, 16);
+		preprocessor._implicitPoints = new LinkedHashSet<Point>();
+		for (int i = 0; i < implicitPointCount; i++)
+		{
+			double x = in.getDouble();
+			double y = in.getDouble();
+
+			database.put(x, y);
+			points.add(database.getPoint(x, y));
+			preprocessor._implicitPoints.add(points.get(points.size() - 1));
+		}
+
+		// Segment of two numbered points --> the segment (the object shared by the database,
+		// the triangles and the angles)
+		Map<Long, Segment> segments = new HashMap<Long, Segment>();
+
+		int minimalCount = readCount(in, 8);
+		Segment[] minimal = new Segment[minimalCount];
+		for (int i = 0; i < minimalCount; i++) minimal[i] = readSegment(in, points, segments);
+
+		int implicitSegmentCount = readCount(in, 4);
+		preprocessor._implicitSegments = new LinkedHashSet<Segment>();
+		for (int i = 0; i < implicitSegmentCount; i++) preprocessor._implicitSegments.add(minimal[in.getInt()]);
+
+		preprocessor._allMinimalSegments = new LinkedHashSet<Segment>(List.of(minimal));
+		preprocessor._segmentDatabase = new LazySegmentDatabase(preprocessor._allMinimalSegments, database);
+		preprocessor._nonMinimalSegments = preprocessor._segmentDatabase.nonMinimalSegments();
+
+		if (in.getInt() != preprocessor._nonMinimalSegments.size()) throw new IllegalArgumentException("Non-minimal segments differ");
+
+		//
+		// Triangles and angles
+		//
+		int triangleCount = readCount(in, 24);
+		Set<Triangle> triangles = new HashSet<Triangle>();
+		for (int i = 0; i < triangleCount; i++)
+		{
+			triangles.add(new Triangle(List.of(readSegment(in, points, segments),
+			                                   readSegment(in, points, segments),
+			                                   readSegment(in, points, segments))));
+		}
+
+		int classCount = readCount(in, 20);
+		AngleEquivalenceClasses angles = new AngleEquivalenceClasses();
+		for (int i = 0; i < classCount; i++)
+		{
+			Angle[] members = new Angle[readCount(in, 16)];
+			for (int k = 0; k < members.length; k++) members[k] = new Angle(readSegment(in, points, segments), readSegment(in, points, segments));
+
+			// the rest are added to the front
+			AngleLinkedEquivalenceClass c = new AngleLinkedEquivalenceClass();
+			c.demoteAndSetCanonical(members[0]);
+			for (int k = members.length - 1; k >= 1; k--) c.addWithoutCheck(members[k]);
+
+			angles.classes().add(c);
+		}
+
+		return new PreprocessingPipeline(preprocessor, new AngleIdentifier(angles), new TriangleIdentifier(triangles));
+	}
+
+	/**
+	 * @param bytes -- the least number of bytes each counted item takes
+	 * @return the next count
+	 * @throws IllegalArgumentException if the bytes left cannot hold that many items
+	 */
+	private static int readCount(ByteBuffer in, int bytes)
+	{
+		int count = in.getInt();
+		if (count < 0 || count > in.remaining() / bytes) throw new IllegalArgumentException("Count " + count + " exceeds the snapshot");
+
+		return count;
+	}
+
+	private static String readName(ByteBuffer in)
+	{
+		if (in.getInt(in.position()) == -1)
+		{
+			in.getInt();
+			return null;
+		}
+
+		byte[] name = new byte[readCount(in, 1)];
+		in.get(name);
+
+		return new String(name, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * @param segments -- the segments read so far, by their endpoints (either orientation)
+	 * @return the segment between the next two numbered points
+	 */
+	private static Segment readSegment(ByteBuffer in, List<Point> points, Map<Long, Segment> segments)
+	{
+		int i = in.getInt();
+		int j = in.getInt();
+
+		return segments.computeIfAbsent(PointDatabase.pairKey(i, j), (key) -> new Segment(points.get(i), points.get(j)));
+	}
+}
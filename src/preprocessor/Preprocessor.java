@@ -4,8 +4,15 @@ import java.util.*;
 
 import geometry_objects.points.Point;
 import geometry_objects.points.PointDatabase;
+import preprocessor.delegates.CollinearChains;
 import preprocessor.delegates.ImplicitPointPreprocessor;
+import preprocessor.delegates.IncrementalSegmentation;
+import preprocessor.delegates.LazySegmentDatabase;
+import preprocessor.delegates.MinimalSegmentation;
+import preprocessor.delegates.SegmentDelta;
 import geometry_objects.Segment;
+import geometry_objects.delegates.intersections.IntersectionDelegate;
+import geometry_objects.delegates.intersections.IntersectionGraph;
 
 public class Preprocessor
 {
@@ -14,9 +21,22 @@ public class Preprocessor
 	// points (i.e., all points in the figure).
 	protected PointDatabase _pointDatabase;
 
+	// The points in the database before analysis (a crossing there is not implicit)
+	protected Set<Point> _givenPoints;
+
 	// Minimal ('Base') segments provided by the user
 	protected Set<Segment> _givenSegments;
 
+	// All intersections among the given segments; computed once per figure
+	// (and again on request after the given segments are edited)
+	protected IntersectionGraph _intersectionGraph;
+	public IntersectionGraph getIntersectionGraph()
+	{
+		if (_intersectionGraph == null) _intersectionGraph = IntersectionDelegate.intersectAll(_givenSegments);
+
+		return _intersectionGraph;
+	}
+
 	// The set of implicitly defined points caused by segments
 	// at implicit points.
 	protected Set<Point> _implicitPoints;
@@ -34,213 +54,167 @@ public class Preprocessor
 
 	// A collection of all possible segments: maximal, minimal, and everything in between
 	// For lookup capability, we use a map; each <key, value> has the same segment object
-	// That is, key == value. 
-	protected Map<Segment, Segment> _segmentDatabase;
+	// That is, key == value. Non-minimal segments are built on demand from collinear chains.
+	protected LazySegmentDatabase _segmentDatabase;
 	public Map<Segment, Segment> getAllSegments() { return _segmentDatabase; }
 
+	// Keeps the analysis current under edits; built by the first edit after an analysis
+	protected IncrementalSegmentation _incremental;
+
 	public Preprocessor(PointDatabase points, Set<Segment> segments)
+	{
+		this(points, segments, true);
+	}
+
+	/**
+	 * @param analyze -- false to leave the results to the caller (see PreprocessingSnapshot)
+	 */
+	protected Preprocessor(PointDatabase points, Set<Segment> segments, boolean analyze)
 	{
 		_pointDatabase  = points;
 		_givenSegments = segments;
+		_givenPoints = points == null ? new HashSet<Point>() : new HashSet<Point>(points.getPoints());
 		
-		_segmentDatabase = new HashMap<Segment, Segment>();
-		
-		analyze();
+		if (analyze) analyze();
 	}
 
 	/**
-	 * Invoke the precomputation procedure.
+	 * Invoke the precomputation procedure. Each step needs the results of the one before it,
+	 * so the steps run in order on the calling thread:
+	 *
+	 *   intersections --> implicit points --> minimal segments --> segment database
 	 */
 	public void analyze()
 	{
 		//
-		// Implicit Points
+		// The segment database identifies points by their database IDs: given segments
+		// normally join database points, any other endpoint is added
 		//
-		_implicitPoints = ImplicitPointPreprocessor.compute(_pointDatabase, _givenSegments.stream().toList());
+		if (_pointDatabase == null) _pointDatabase = new PointDatabase();
+		for (Segment segment : _givenSegments)
+		{
+			for (Point pt : new Point[] { segment.getPoint1(), segment.getPoint2() })
+			{
+				if (_pointDatabase.getPoint(pt) == null) _pointDatabase.put(pt.getName(), pt.getX(), pt.getY());
+			}
+		}
 
 		//
-		// Implicit Segments attributed to implicit points
+		// Intersections of the given segments
 		//
-		_implicitSegments = computeImplicitBaseSegments(_implicitPoints);
+		_intersectionGraph = IntersectionDelegate.intersectAll(_givenSegments);
 
 		//
-		// Combine the given minimal segments and implicit segments into a true set of minimal segments
-		//     *givenSegments may not be minimal
-		//     *implicitSegment
+		// Implicit Points
+		//
+		// A repeated analysis finds no new points: those found before are already in the
+		// database, so keep them
 		//
-		_allMinimalSegments = identifyAllMinimalSegments(_implicitPoints, _givenSegments, _implicitSegments);
+		if (_implicitPoints == null) _implicitPoints = new LinkedHashSet<Point>();
+		_implicitPoints.addAll(ImplicitPointPreprocessor.compute(_pointDatabase, _intersectionGraph));
+
 		//
-		// Construct all segments inductively from the base segments
+		// Break the given segments at every point on them (one pass): the true set of minimal
+		// segments and, among them, the implicit segments attributed to implicit points
+		//     *givenSegments may not be minimal
 		//
-		_nonMinimalSegments = constructAllNonMinimalSegments(_allMinimalSegments);
+		MinimalSegmentation segmentation = new MinimalSegmentation(_implicitPoints, _givenSegments);
+		_implicitSegments = segmentation.getImplicitSegments();
+		_allMinimalSegments = segmentation.getMinimalSegments();
+
 		//
-		// Combine minimal and non-minimal into one package: our database
+		// Combine minimal and non-minimal into one package: our database; the non-minimal
+		// segments are the sub-segments of the collinear chains of base segments (a view)
 		//
-		_allMinimalSegments.forEach((segment) -> _segmentDatabase.put(segment, segment));
-		_nonMinimalSegments.forEach((segment) -> _segmentDatabase.put(segment, segment));
+		_segmentDatabase = new LazySegmentDatabase(_allMinimalSegments, _pointDatabase);
+		_nonMinimalSegments = _segmentDatabase.nonMinimalSegments();
+
+		_incremental = null;
 	}
 
 	/**
-	 * Returns a set of all segments that can be created from the given base segments
-	 * @param allMinimalSegments a list of base segments
-	 * @return the list of all segments that can be created from the base segments
+	 * Add a given segment; only the segments and lines it affects are analyzed again.
+	 * @param segment -- a segment (its endpoints are added to the database)
+	 * @return the segments added to and removed from the segment database
 	 */
-	public Set<Segment> constructAllNonMinimalSegments(Set<Segment> allMinimalSegments)
+	public SegmentDelta addSegment(Segment segment)
 	{
-		Set<Segment> nonMinimalSegments = new HashSet<>();
-
-		List<Segment> segmentList = new ArrayList<>(allMinimalSegments);
-		List<int[]> combinations = new ArrayList<>();
-
-		// collect every combination of segments
-		for (int i = 0; i < segmentList.size() - 1; i++)
-		{
-			for (int j = i + 1; j < segmentList.size(); j++)
-			{
-				combinations.add(new int[]{i, j});
-			}
-		}
+		SegmentDelta delta = incremental().addSegment(segment);
+		_intersectionGraph = null;
 
-		// For every combination
-		for (int i = 0; i < combinations.size(); i++) {
-			// Fetch the segments
-			Segment s1 = segmentList.get(combinations.get(i)[0]);
-			Segment s2 = segmentList.get(combinations.get(i)[1]);
-			// and find if one "extends" the other, i.e. are connected and parallel
-			// and return the combined segment
-			Segment superSegment = extend(s1, s2);
-
-			// If a combined segment was found and was not already in the segment list
-			if (superSegment != null && !segmentList.contains(superSegment))
-			{
-				// Add it to the list of non minimal segments
-				nonMinimalSegments.add(superSegment);
-				// And add to the list of combinations to check all combinations
-				// with the new combined segment
-				addCombinations(combinations, segmentList.size());
-				segmentList.add(superSegment);
-			}
-		}
-
-		return nonMinimalSegments;
+		return update(delta);
 	}
 
 	/**
-	 * Add every combination for a new index to a list
-	 * @param combinations List of int lists
-	 * @param index exclusive ending index
+	 * Remove a given segment; only the segments and lines it affects are analyzed again.
+	 * @param segment -- a given segment
+	 * @return the segments added to and removed from the segment database
 	 */
-	private void addCombinations(List<int[]> combinations, int index)
+	public SegmentDelta removeSegment(Segment segment)
 	{
-		for (int i = 0; i < index; i++)
-		{
-			combinations.add(new int[]{i, index});
-		}
+		SegmentDelta delta = incremental().removeSegment(segment);
+		_intersectionGraph = null;
+
+		return update(delta);
 	}
 
 	/**
-	 * 	If Segment s1 and s2 are collinear and connected, return the combination
-	 * 	of them. Otherwise, return null.
- 	 */
-	private Segment extend(Segment s1, Segment s2)
+	 * Add a given point. As in analyze, a point breaks segments only as an endpoint or an
+	 * implicit point, so a point at a crossing replaces the implicit point there (the
+	 * database keeps the first name of a point).
+	 * @return the segments added to and removed from the segment database
+	 */
+	public SegmentDelta addPoint(String name, double x, double y)
 	{
-		Point v = s1.sharedVertex(s2);
-		if (v == null || !s1.isCollinearWith(s2)) return null;
-
-		int[] pointIndexes = new int[2];
-
-		Point[] allPoints = new Point[]{
-				s1.getPoint1(),
-				s1.getPoint2(),
-				s2.getPoint1(),
-				s2.getPoint2()
-		};
+		return update(incremental().addPoint(name, x, y));
+	}
 
-		int slot = 0;
+	private IncrementalSegmentation incremental()
+	{
+		if (_incremental == null)
+		{
+			if (_pointDatabase == null) _pointDatabase = new PointDatabase();
+			_givenSegments = new LinkedHashSet<Segment>(_givenSegments);
 
-		for (int index = 0; index < allPoints.length; index++) {
-			if (!allPoints[index].equals(v)) {
-				pointIndexes[slot] = index;
-				slot = 1;
-			}
+			_incremental = new IncrementalSegmentation(_pointDatabase, _givenPoints, _givenSegments, getIntersectionGraph(),
+					                                   _implicitPoints, _allMinimalSegments, _implicitSegments);
 		}
 
-		Point p1 = allPoints[pointIndexes[0]];
-		Point p2 = allPoints[pointIndexes[1]];
-
-		return new Segment(p1, p2);
+		return _incremental;
 	}
 
 	/**
-	 * Return a set of all base segments from given segments.
-	 * @param implicitPoints Set of implicit points to use to break apart segments
-	 * @param givenSegments Set of segments to get base segments from
-	 * @param implicitSegments Not used, may pass null
-	 * @return Set of all base segments
+	 * @param minimal -- the change in minimal segments
+	 * @return the change in all segments
 	 */
-	public Set<Segment> identifyAllMinimalSegments(Set<Point> implicitPoints, Set<Segment> givenSegments, Set<Segment> implicitSegments)
+	private SegmentDelta update(SegmentDelta minimal)
 	{
-		Set<Segment> allBaseSegments = new HashSet<>();
-
-		// Create a TreeSet of every point (implicit and given)
-		Set<Point> allPoints = new TreeSet<>(implicitPoints);
-		allPoints.addAll(getPointsFromSegments(givenSegments));
-
-		// If possible, break down every segment into base segments and add them to the set.
-		for (Segment segment: givenSegments)
-		{
-			Set<Segment> baseSegments = getBaseSegmentsFromSegment(segment, allPoints);
-			allBaseSegments.addAll(baseSegments);
-		}
+		if (minimal.isEmpty()) return minimal;
 
-		return allBaseSegments;
+		return _segmentDatabase.update(minimal.getRemoved(), minimal.getAdded());
 	}
 
 	/**
-	 * Return set of all points found in a given set of segments
+	 * Returns a set of all segments that can be created from the given base segments:
+	 * the sub-segments of each maximal collinear chain of base segments
+	 * @param allMinimalSegments a list of base segments
+	 * @return the list of all segments that can be created from the base segments
 	 */
-	private Set<Point> getPointsFromSegments(Set<Segment> segments)
+	public Set<Segment> constructAllNonMinimalSegments(Set<Segment> allMinimalSegments)
 	{
-		Set<Point> points = new HashSet<>();
-
-		for (Segment segment: segments) {
-			points.add(segment.getPoint1());
-			points.add(segment.getPoint2());
-		}
-
-		return points;
+		return new CollinearChains(allMinimalSegments).nonMinimalSegments();
 	}
 
 	/**
-	 * Given a list of all points, break apart a segment into base segments if points lie on
-	 * the given segment.
-	 * @param segment to break apart
-	 * @param points to break apart with
-	 * @return a list of all base segments
+	 * Return a set of all base segments from given segments.
+	 * @param implicitPoints Set of implicit points to use to break apart segments
+	 * @param givenSegments Set of segments to get base segments from
+	 * @param implicitSegments Not used, may pass null
+	 * @return Set of all base segments
 	 */
-	private Set<Segment> getBaseSegmentsFromSegment(Segment segment, Set<Point> points)
+	public Set<Segment> identifyAllMinimalSegments(Set<Point> implicitPoints, Set<Segment> givenSegments, Set<Segment> implicitSegments)
 	{
-		Set<Segment> baseSegments = new HashSet<>();
-		TreeSet<Point> linearPoints = new TreeSet<>();
-
-		// get points on segment out of points
-		// will be linear (no overlap)
-		for (Point point: points)
-		{
-			if (segment.pointLiesOn(point)) { linearPoints.add(point); }
-		}
-
-		// rebuild base segments from linear points
-		while (linearPoints.size() > 1)
-		{
-			// returns and removes
-			Point p1 = linearPoints.pollFirst();
-			// only returns
-			Point p2 = linearPoints.first();
-			baseSegments.add(new Segment(p1, p2));
-		}
-
-		return baseSegments;
+		return new MinimalSegmentation(implicitPoints, givenSegments).getMinimalSegments();
 	}
 
 	/**
@@ -249,39 +223,6 @@ public class Preprocessor
 	 * @return a base segment with at least one implicit point as an endpoint
 	 */
 	public Set<Segment> computeImplicitBaseSegments(Set<Point> implicitPoints) {
-		Set<Segment> allBaseSegments = identifyAllMinimalSegments(implicitPoints, _givenSegments, null);
-
-		return onlyContaining(allBaseSegments, implicitPoints);
-	}
-
-	/**
-	 * @param segments Collection of Segments
-	 * @param points Set of Points
-	 * @return Set of Segments which contain any Point of points as an endpoint
-	 */
-	private Set<Segment> onlyContaining(Collection<Segment> segments, Set<Point> points)
-	{
-		Set<Segment> containing = new HashSet<>();
-
-		for (Segment segment: segments)
-		{
-			if (segmentHasAnyOf(segment, points)) containing.add(segment);
-		}
-
-		return containing;
-	}
-
-	/**
-	 * @param segment Segment
-	 * @param points set of Points
-	 * @return true if any Point in points is an endpoint of segment, false otherwise
-	 */
-	private boolean segmentHasAnyOf(Segment segment, Set<Point> points)
-	{
-		for (Point point: points)
-		{	
-			if (segment.has(point)) return true;
-		}
-		return false;
+		return new MinimalSegmentation(implicitPoints, _givenSegments).getImplicitSegments();
 	}
 }
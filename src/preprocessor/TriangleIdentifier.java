@@ -11,6 +11,7 @@ import java.util.*;
 import exceptions.FactException;
 import geometry_objects.Segment;
 import geometry_objects.Triangle;
+import preprocessor.delegates.SegmentIncidence;
 
 public class TriangleIdentifier
 {
@@ -22,6 +23,14 @@ public class TriangleIdentifier
 		_segments = segments.keySet().toArray(new Segment[0]);
 	}
 
+	/**
+	 * @param triangles -- triangles already identified (e.g. loaded from a snapshot)
+	 */
+	TriangleIdentifier(Set<Triangle> triangles)
+	{
+		_triangles = triangles;
+	}
+
 	/*
 	 * Compute the figure triangles on the fly when requested;
 	 * memorize results for subsequent calls
@@ -39,6 +48,11 @@ public class TriangleIdentifier
 
 	/**
 	 * create all triangles from _segments
+	 * 
+	 * A triangle is three segments pairwise sharing distinct vertices: for each segment uv
+	 * and each later segment uw (or vw), the third side must be the segment vw (or uw),
+	 * found by point IDs. Candidates are processed in the same (i, j, k) order as all
+	 * triples would be.
 	 */
 	private void computeTriangles()
 	{
@@ -47,57 +61,40 @@ public class TriangleIdentifier
 		// triangle requires at least 3 sides
 		if (n < 3) return;
 
-		// parallel array
-		int[] indices = new int[]{0, 1, 2};
+		SegmentIncidence incidence = new SegmentIncidence(_segments);
+		List<int[]> candidates = new ArrayList<>();
 
-		while (true)
+		for (int i = 0; i < n; i++)
 		{
-			// create and add Triangle
-			processTriangle(indices);
+			if (incidence.isDegenerate(i)) continue;
 
-			// check if you can move
-			// avoids IndexOutOfBounds later
-			int i = incrementable(indices, n);
+			int u = incidence.first(i);
+			int v = incidence.second(i);
 
-			// all combinations processed
-			if (i == -1) return;
-
-			// move to next combination
-			increment(indices, i);
+			addCandidates(incidence, candidates, i, u, v);
+			addCandidates(incidence, candidates, i, v, u);
 		}
-	}
 
-	/**
-	 * increment all values in indices
-	 * used to move through _segments three at a time
-	 * @param indices
-	 * @param i index to begin incrementing at
-	 */
-	private void increment(int[] indices, int i)
-	{
-		indices[i] += 1;
-		for (int j = i + 1; j < 3; j++)
-		{
-			indices[j] = indices[j - 1] + 1;
-		}
+		candidates.sort(Comparator.comparingInt((int[] t) -> t[0])
+		                          .thenComparingInt((int[] t) -> t[1])
+		                          .thenComparingInt((int[] t) -> t[2]));
+
+		for (int[] indices : candidates) processTriangle(indices);
 	}
 
 	/**
-	 * return index of index that can be incremented, -1 if none found
-	 * used to tell the computeTriangle method when to stop
-	 * @param indices index to consider incrementability of
-	 * @param int n, value to consider incrementing by
-	 * @return int largest incrementable value contained in indices,
-	 *         -1 if there are no more incrementable values
+	 * add the triples {i, j, k}, i < j < k, where segment i joins @shared and @opposite,
+	 * segment j joins @shared and some w, and segment k joins @opposite and w
 	 */
-	private int incrementable(int[] indices, int n)
+	private void addCandidates(SegmentIncidence incidence, List<int[]> candidates, int i, int shared, int opposite)
 	{
-		// work backwards theough indices array
-		for (int i = 2; i >= 0; i--)
+		for (int j : incidence.incident(shared))
 		{
-			if (indices[i] != i + n - 3) return i;
+			if (j <= i) continue;
+
+			int k = incidence.segmentBetween(opposite, incidence.other(j, shared));
+			if (k > j) candidates.add(new int[]{i, j, k});
 		}
-		return -1;
 	}
 
 	/**
@@ -0,0 +1,257 @@
+package preprocessor.delegates;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import geometry_objects.Segment;
+import geometry_objects.points.Point;
+
+/**
+ * Groups minimal segments into maximal collinear chains.
+ *
+ * Two minimal segments are linked when they share an endpoint and are collinear (the
+ * condition under which one extends the other); a chain is a group of linked segments.
+ * An ordinary chain is a path P0 P1 ... Pk along its line, and the segments it defines
+ * are exactly the PiPj: those that are not minimal are emitted directly, O(k^2) per chain.
+ *
+ * A group that is not a simple path (it branches or closes up under the collinearity
+ * tolerance, or it has a degenerate segment) is closed under pairwise extension instead,
+ * which is what the path emission reproduces for ordinary chains.
+ */
+public class CollinearChains
+{
+	protected Set<Segment> _minimalSegments;
+
+	// The points of each chain of two or more segments, in order along the chain
+	protected List<List<Point>> _chains;
+
+	// The segments of the groups that are not simple paths
+	protected List<List<Segment>> _irregularGroups;
+
+	public List<List<Point>> getChains() { return _chains; }
+	public List<List<Segment>> getIrregularGroups() { return _irregularGroups; }
+
+	/**
+	 * @param minimalSegments -- minimal segments
+	 */
+	public CollinearChains(Set<Segment> minimalSegments)
+	{
+		_minimalSegments = minimalSegments;
+		_chains = new ArrayList<List<Point>>();
+		_irregularGroups = new ArrayList<List<Segment>>();
+
+		group(new ArrayList<Segment>(minimalSegments));
+	}
+
+	/**
+	 * Link the segments at each endpoint (union-find over segment indices), then sort
+	 * each group into a chain or an irregular group.
+	 */
+	private void group(List<Segment> segments)
+	{
+		Map<Point, List<Integer>> incident = new HashMap<Point, List<Integer>>();
+		for (int i = 0; i < segments.size(); i++)
+		{
+			incident.computeIfAbsent(segments.get(i).getPoint1(), (p) -> new ArrayList<Integer>()).add(i);
+			incident.computeIfAbsent(segments.get(i).getPoint2(), (p) -> new ArrayList<Integer>()).add(i);
+		}
+
+		int[] parent = new int[segments.size()];
+		for (int i = 0; i < parent.length; i++) parent[i] = i;
+
+		for (List<Integer> atPoint : incident.values())
+		{
+			for (int a = 0; a < atPoint.size(); a++)
+			{
+				for (int b = a + 1; b < atPoint.size(); b++)
+				{
+					if (linked(segments.get(atPoint.get(a)), segments.get(atPoint.get(b)))) union(parent, atPoint.get(a), atPoint.get(b));
+				}
+			}
+		}
+
+		Map<Integer, List<Segment>> groups = new HashMap<Integer, List<Segment>>();
+		for (int i = 0; i < segments.size(); i++)
+		{
+			groups.computeIfAbsent(find(parent, i), (r) -> new ArrayList<Segment>()).add(segments.get(i));
+		}
+
+		for (List<Segment> group : groups.values())
+		{
+			if (group.size() < 2) continue;
+
+			List<Point> chain = walk(group);
+			if (chain == null) _irregularGroups.add(group);
+			else _chains.add(chain);
+		}
+	}
+
+	/**
+	 * @return true if one segment extends the other: a shared endpoint and collinear
+	 */
+	public static boolean linked(Segment s1, Segment s2)
+	{
+		return s1.sharedVertex(s2) != null && (s1.isCollinearWith(s2) || s2.isCollinearWith(s1));
+	}
+
+	/**
+	 * @param group -- linked segments
+	 * @return the points of the group in order along it, if the group is a simple path; null otherwise
+	 */
+	private static List<Point> walk(List<Segment> group)
+	{
+		Map<Point, List<Segment>> atPoint = new HashMap<Point, List<Segment>>();
+		for (Segment segment : group)
+		{
+			if (segment.getPoint1().equals(segment.getPoint2())) return null;
+
+			atPoint.computeIfAbsent(segment.getPoint1(), (p) -> new ArrayList<Segment>()).add(segment);
+			atPoint.computeIfAbsent(segment.getPoint2(), (p) -> new ArrayList<Segment>()).add(segment);
+		}
+
+		// A (connected) path: one more point than segments, at most two segments per point
+		if (atPoint.size() != group.size() + 1) return null;
+
+		Point start = null;
+		for (Map.Entry<Point, List<Segment>> entry : atPoint.entrySet())
+		{
+			if (entry.getValue().size() > 2) return null;
+			if (entry.getValue().size() == 1) start = entry.getKey();
+		}
+
+		List<Point> chain = new ArrayList<Point>();
+		Segment previous = null;
+		for (Point current = start; current != null; )
+		{
+			chain.add(current);
+
+			Segment next = null;
+			for (Segment segment : atPoint.get(current))
+			{
+				if (segment != previous) next = segment;
+			}
+
+			current = next == null ? null : next.other(current);
+			previous = next;
+		}
+
+		return chain;
+	}
+
+	/**
+	 * @return every segment defined by the chains that is not minimal
+	 */
+	public Set<Segment> nonMinimalSegments()
+	{
+		Set<Segment> nonMinimal = irregularSegments();
+
+		for (List<Point> chain : _chains)
+		{
+			for (int i = 0; i < chain.size() - 2; i++)
+			{
+				for (int j = i + 2; j < chain.size(); j++)
+				{
+					Segment segment = new Segment(chain.get(i), chain.get(j));
+					if (!_minimalSegments.contains(segment)) nonMinimal.add(segment);
+				}
+			}
+		}
+
+		return nonMinimal;
+	}
+
+	/**
+	 * @return the segments defined by the groups that are not simple paths and not minimal
+	 */
+	public Set<Segment> irregularSegments()
+	{
+		Set<Segment> nonMinimal = new HashSet<Segment>();
+
+		for (List<Segment> group : _irregularGroups) nonMinimal.addAll(irregularSegments(group));
+
+		return nonMinimal;
+	}
+
+	/**
+	 * @param group -- one of the irregular groups
+	 * @return the segments defined by the group that are not minimal
+	 */
+	public Set<Segment> irregularSegments(List<Segment> group)
+	{
+		Set<Segment> nonMinimal = new HashSet<Segment>();
+
+		for (Segment segment : closeUnderExtension(group))
+		{
+			if (!_minimalSegments.contains(segment)) nonMinimal.add(segment);
+		}
+
+		return nonMinimal;
+	}
+
+	/**
+	 * @return the segments of the group and every combination obtained by repeatedly
+	 *         extending one segment by another
+	 */
+	private static List<Segment> closeUnderExtension(List<Segment> group)
+	{
+		List<Segment> segments = new ArrayList<Segment>(group);
+		Set<Segment> known = new HashSet<Segment>(group);
+
+		for (int j = 1; j < segments.size(); j++)
+		{
+			for (int i = 0; i < j; i++)
+			{
+				Segment superSegment = extend(segments.get(i), segments.get(j));
+
+				if (superSegment != null && known.add(superSegment)) segments.add(superSegment);
+			}
+		}
+
+		return segments;
+	}
+
+	/**
+	 * If Segment s1 and s2 are collinear and connected, return the combination
+	 * of them. Otherwise, return null.
+	 */
+	private static Segment extend(Segment s1, Segment s2)
+	{
+		Point v = s1.sharedVertex(s2);
+		if (v == null || !s1.isCollinearWith(s2)) return null;
+
+		Point[] allPoints = new Point[] { s1.getPoint1(), s1.getPoint2(), s2.getPoint1(), s2.getPoint2() };
+
+		int[] pointIndexes = new int[2];
+		int slot = 0;
+		for (int index = 0; index < allPoints.length; index++)
+		{
+			if (!allPoints[index].equals(v))
+			{
+				pointIndexes[slot] = index;
+				slot = 1;
+			}
+		}
+
+		return new Segment(allPoints[pointIndexes[0]], allPoints[pointIndexes[1]]);
+	}
+
+	private static int find(int[] parent, int i)
+	{
+		while (parent[i] != i)
+		{
+			parent[i] = parent[parent[i]];
+			i = parent[i];
+		}
+
+		return i;
+	}
+
+	private static void union(int[] parent, int a, int b)
+	{
+		parent[find(parent, a)] = find(parent, b);
+	}
+}
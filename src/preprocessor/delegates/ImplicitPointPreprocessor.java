@@ -2,15 +2,29 @@ package preprocessor.delegates;
 
 import java.util.LinkedHashSet;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 
 import geometry_objects.Segment;
+import geometry_objects.delegates.intersections.IntersectionGraph;
+import geometry_objects.delegates.intersections.SegmentGrid;
+import geometry_objects.points.ConcurrentPointDatabase;
 import geometry_objects.points.Point;
 import geometry_objects.points.PointDatabase;
 
 public class ImplicitPointPreprocessor
 {
+	/**
+	 * The algorithm used to find the intersections of the given segments
+	 *   PAIRWISE   -- examine every pair of segments: O(n^2)
+	 *   SWEEP_LINE -- Bentley-Ottmann sweep: O((n + k) log n) for k intersecting pairs
+	 *   GRID       -- uniform grid broad phase: only segments sharing a grid cell are intersected
+	 *   PARALLEL   -- every pair, split across the PipelineExecutor; a ConcurrentPointDatabase
+	 *                 takes the points straight from the tasks (deferred names)
+	 */
+	public enum Strategy { PAIRWISE, SWEEP_LINE, GRID, PARALLEL }
+
 	/**
 	 * It is possible that some of the defined segments intersect at points
 	 * that are not named; we need to capture those points and name them.
@@ -27,10 +41,68 @@ public class ImplicitPointPreprocessor
 	 * @return set of implicit points
 	 */
 	public static Set<Point> compute(PointDatabase givenPoints, List<Segment> givenSegments)
+	{
+		return compute(givenPoints, givenSegments, Strategy.PAIRWISE);
+	}
+
+	/**
+	 * As above, finding the intersections with the given strategy.
+	 * Every strategy yields the same implicit points with the same generated names.
+	 * 
+	 * @param givenPoints PointDatabase
+	 * @param givenSegments List of Segments
+	 * @param strategy the intersection algorithm to use
+	 * @return set of implicit points
+	 */
+	public static Set<Point> compute(PointDatabase givenPoints, List<Segment> givenSegments, Strategy strategy)
 	{
 		if (givenPoints == null) givenPoints = new PointDatabase();
 		if (givenSegments == null) givenSegments = new ArrayList<Segment>();
-		
+
+		switch (strategy)
+		{
+			case SWEEP_LINE:
+				return merge(givenPoints, SweepLineIntersector.intersect(givenSegments));
+
+			case GRID:
+				return merge(givenPoints, gridIntersections(givenSegments));
+
+			case PARALLEL:
+				if (givenPoints instanceof ConcurrentPointDatabase concurrentPoints)
+				{
+					return new LinkedHashSet<Point>(ParallelIntersector.insert(givenSegments, concurrentPoints));
+				}
+				return merge(givenPoints, ParallelIntersector.intersect(givenSegments));
+
+			case PAIRWISE:
+			default:
+				return pairwise(givenPoints, givenSegments);
+		}
+	}
+
+	/**
+	 * As above, taking the crossings from a precomputed intersection graph of the given segments.
+	 * 
+	 * @param givenPoints PointDatabase
+	 * @param graph the intersection graph of the given segments
+	 * @return set of implicit points
+	 */
+	public static Set<Point> compute(PointDatabase givenPoints, IntersectionGraph graph)
+	{
+		if (givenPoints == null) givenPoints = new PointDatabase();
+
+		Set<Point> implicitPoints = new LinkedHashSet<Point>();
+
+		for (IntersectionGraph.Intersection crossing : graph.getCrossings())
+		{
+			addImplicitPoint(givenPoints, implicitPoints, crossing.getPoint());
+		}
+
+		return implicitPoints;
+	}
+
+	private static Set<Point> pairwise(PointDatabase givenPoints, List<Segment> givenSegments)
+	{
 		Set<Point> implicitPoints = new LinkedHashSet<Point>();
 
         for (int i = 0; i < givenSegments.size() - 1; i++)
@@ -39,14 +111,59 @@ public class ImplicitPointPreprocessor
 			{
 				Point intersection = givenSegments.get(i).segmentIntersection(givenSegments.get(j));
 
-				if (intersection != null && givenPoints.getPoint(intersection) == null)
-				{
-					givenPoints.put(intersection.getX(), intersection.getY());
-					implicitPoints.add(givenPoints.getPoint(intersection));
-				}
+				addImplicitPoint(givenPoints, implicitPoints, intersection);
 			}
 		}
 
 		return implicitPoints;
 	}
+
+	/**
+	 * @param givenSegments List of Segments
+	 * @return the intersections of segments sharing a grid cell, sorted by pair
+	 */
+	private static List<SegmentPairIntersection> gridIntersections(List<Segment> givenSegments)
+	{
+		List<SegmentPairIntersection> intersections = new ArrayList<SegmentPairIntersection>();
+
+		for (int[] pair : new SegmentGrid(givenSegments).candidatePairs())
+		{
+			Point intersection = givenSegments.get(pair[0]).segmentIntersection(givenSegments.get(pair[1]));
+
+			if (intersection != null) intersections.add(new SegmentPairIntersection(pair[0], pair[1], intersection));
+		}
+
+		Collections.sort(intersections);
+
+		return intersections;
+	}
+
+	/**
+	 * Add intersections to the database in the order the pairwise algorithm would find them;
+	 * this guarantees identical generated names.
+	 * 
+	 * @param givenPoints PointDatabase
+	 * @param intersections intersections of segment pairs, sorted by pair
+	 * @return set of implicit points
+	 */
+	private static Set<Point> merge(PointDatabase givenPoints, List<SegmentPairIntersection> intersections)
+	{
+		Set<Point> implicitPoints = new LinkedHashSet<Point>();
+
+		for (SegmentPairIntersection intersection : intersections)
+		{
+			addImplicitPoint(givenPoints, implicitPoints, intersection.getPoint());
+		}
+
+		return implicitPoints;
+	}
+
+	private static void addImplicitPoint(PointDatabase givenPoints, Set<Point> implicitPoints, Point intersection)
+	{
+		if (intersection != null && givenPoints.getPoint(intersection) == null)
+		{
+			givenPoints.put(intersection.getX(), intersection.getY());
+			implicitPoints.add(givenPoints.getPoint(intersection));
+		}
+	}
 }
@@ -0,0 +1,380 @@
+package preprocessor.delegates;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import geometry_objects.Segment;
+import geometry_objects.delegates.intersections.IntersectionGraph;
+import geometry_objects.delegates.intersections.SegmentGrid;
+import geometry_objects.points.Point;
+import geometry_objects.points.PointDatabase;
+import geometry_objects.spatial.UniformGrid;
+
+/**
+ * Keeps the crossings, implicit points and minimal segments of a figure current as
+ * given segments and points are added and removed.
+ *
+ * An edit changes the points that break the given segments (implicit points and
+ * endpoints); only the edited segment and the given segments through a changed point
+ * are broken again. Crossings are found against the given segments near the edited one
+ * (a UniformGrid over the given segments), so an edit costs time proportional to the
+ * segments and points around it rather than to the figure.
+ *
+ * The results are those a fresh analysis of the edited figure would give: a crossing is
+ * an implicit point unless a given point is there, and a point breaks a segment only if
+ * it is an implicit point or an endpoint of a given segment.
+ */
+public class IncrementalSegmentation
+{
+	protected PointDatabase _pointDatabase;
+
+	// The points given by the user (not implicit)
+	protected Set<Point> _givenPoints;
+
+	protected Set<Segment> _givenSegments;
+	protected Set<Point> _implicitPoints;
+	protected Set<Segment> _minimalSegments;
+	protected Set<Segment> _implicitSegments;
+
+	// Given segment --> (crossed given segment --> crossing point)
+	protected Map<Segment, Map<Segment, Point>> _crossings;
+
+	// Crossing point --> the number of crossing pairs there
+	protected Map<Point, Integer> _crossingCounts;
+
+	// Endpoint --> the number of given segments ending there
+	protected Map<Point, Integer> _endpointCounts;
+
+	// The points breaking the given segments (implicit points and endpoints): location --> the
+	// object used in minimal segments, implicit points first
+	protected Map<Point, Point> _points;
+
+	protected UniformGrid<Segment> _segmentIndex;
+	protected UniformGrid<Point> _pointIndex;
+
+	// Given segment --> its minimal segments
+	protected Map<Segment, List<Segment>> _pieces;
+
+	// Minimal segment --> the number of given segments it is a piece of
+	protected Map<Segment, Integer> _pieceCounts;
+
+	/**
+	 * Start from an analysis of the figure; the sets are updated in place by later edits.
+	 *
+	 * @param pointDatabase -- the points of the figure (implicit points are added to it)
+	 * @param givenPoints -- the points given by the user
+	 * @param givenSegments -- the given segments
+	 * @param graph -- the intersection graph of the given segments
+	 * @param implicitPoints -- the implicit points
+	 * @param minimalSegments -- the minimal segments
+	 * @param implicitSegments -- the minimal segments with an implicit endpoint
+	 */
+	public IncrementalSegmentation(PointDatabase pointDatabase, Set<Point> givenPoints, Set<Segment> givenSegments, IntersectionGraph graph,
+			                       Set<Point> implicitPoints, Set<Segment> minimalSegments, Set<Segment> implicitSegments)
+	{
+		_pointDatabase = pointDatabase;
+		_givenPoints = givenPoints;
+		_givenSegments = givenSegments;
+		_implicitPoints = implicitPoints;
+		_minimalSegments = minimalSegments;
+		_implicitSegments = implicitSegments;
+
+		_crossings = new HashMap<Segment, Map<Segment, Point>>();
+		_crossingCounts = new HashMap<Point, Integer>();
+		_endpointCounts = new HashMap<Point, Integer>();
+		_points = new HashMap<Point, Point>();
+		_pieces = new HashMap<Segment, List<Segment>>();
+		_pieceCounts = new HashMap<Segment, Integer>();
+
+		double cellSize = new SegmentGrid(new ArrayList<Segment>(givenSegments)).getCellSize();
+		if (!(cellSize > 0)) cellSize = 1;
+
+		_segmentIndex = new UniformGrid<Segment>(cellSize);
+		_pointIndex = new UniformGrid<Point>(cellSize);
+
+		for (IntersectionGraph.Intersection crossing : graph.getCrossings())
+		{
+			addCrossing(graph.getSegments().get(crossing.getFirst()), graph.getSegments().get(crossing.getSecond()), crossing.getPoint());
+		}
+
+		implicitPoints.forEach(this::putPoint);
+
+		for (Segment segment : givenSegments)
+		{
+			_segmentIndex.insert(segment, segment);
+			addEndpoint(segment.getPoint1());
+			addEndpoint(segment.getPoint2());
+		}
+
+		for (Segment segment : givenSegments)
+		{
+			List<Segment> pieces = pieces(segment);
+
+			_pieces.put(segment, pieces);
+			pieces.forEach((piece) -> _pieceCounts.merge(piece, 1, Integer::sum));
+		}
+	}
+
+	/**
+	 * Add a given segment (and its endpoints, as given points).
+	 * @return the minimal segments added and removed
+	 */
+	public SegmentDelta addSegment(Segment segment)
+	{
+		if (_givenSegments.contains(segment)) return new SegmentDelta();
+
+		Set<Point> changed = new LinkedHashSet<Point>();
+
+		given(segment.getPoint1(), changed);
+		given(segment.getPoint2(), changed);
+
+		for (Segment other : _segmentIndex.query(segment))
+		{
+			if (other.equals(segment)) continue;
+
+			Point crossing = other.segmentIntersection(segment);
+			if (crossing != null && addCrossing(other, segment, crossing)) implicit(crossing, changed);
+		}
+
+		_givenSegments.add(segment);
+		_segmentIndex.insert(segment, segment);
+		if (addEndpoint(segment.getPoint1())) changed.add(segment.getPoint1());
+		if (addEndpoint(segment.getPoint2())) changed.add(segment.getPoint2());
+
+		return resegment(changed, segment, null);
+	}
+
+	/**
+	 * Remove a given segment; its endpoints remain given points.
+	 * @return the minimal segments added and removed
+	 */
+	public SegmentDelta removeSegment(Segment segment)
+	{
+		if (!_givenSegments.remove(segment)) return new SegmentDelta();
+
+		Set<Point> changed = new LinkedHashSet<Point>();
+
+		Map<Segment, Point> crossings = _crossings.remove(segment);
+		if (crossings != null)
+		{
+			crossings.forEach((other, crossing) ->
+			{
+				Map<Segment, Point> ofOther = _crossings.get(other);
+				ofOther.remove(segment);
+				if (ofOther.isEmpty()) _crossings.remove(other);
+
+				if (_crossingCounts.merge(crossing, -1, Integer::sum) == 0)
+				{
+					_crossingCounts.remove(crossing);
+					if (_implicitPoints.remove(crossing) && !_endpointCounts.containsKey(crossing)) removePoint(crossing);
+					changed.add(crossing);
+				}
+			});
+		}
+
+		_segmentIndex.remove(segment, segment);
+		if (removeEndpoint(segment.getPoint1())) changed.add(segment.getPoint1());
+		if (removeEndpoint(segment.getPoint2())) changed.add(segment.getPoint2());
+
+		return resegment(changed, null, segment);
+	}
+
+	/**
+	 * Add a given point. A given point at a crossing replaces the implicit point there;
+	 * a point breaks no segment unless it is an endpoint.
+	 * @return the minimal segments added and removed
+	 */
+	public SegmentDelta addPoint(String name, double x, double y)
+	{
+		_pointDatabase.put(name, x, y);
+
+		Set<Point> changed = new LinkedHashSet<Point>();
+		given(_pointDatabase.getPoint(x, y), changed);
+
+		return resegment(changed, null, null);
+	}
+
+	/**
+	 * Record @pt (stored in the database) as a given point; an implicit point there is
+	 * no longer implicit.
+	 */
+	private void given(Point pt, Set<Point> changed)
+	{
+		_pointDatabase.put(pt.getName(), pt.getX(), pt.getY());
+		Point stored = _pointDatabase.getPoint(pt);
+
+		_givenPoints.add(stored);
+
+		if (_implicitPoints.remove(stored))
+		{
+			removePoint(stored);
+			if (_endpointCounts.containsKey(stored)) putPoint(stored);
+			changed.add(stored);
+		}
+	}
+
+	/**
+	 * A new crossing at @crossing: implicit unless a given point is there.
+	 */
+	private void implicit(Point crossing, Set<Point> changed)
+	{
+		if (_pointDatabase.getPoint(crossing) != null && _givenPoints.contains(crossing)) return;
+
+		_pointDatabase.put(crossing.getX(), crossing.getY());
+		Point stored = _pointDatabase.getPoint(crossing);
+
+		_implicitPoints.add(stored);
+
+		// implicit points take precedence over endpoints
+		removePoint(stored);
+		_points.put(stored, stored);
+		_pointIndex.insert(stored, stored);
+
+		changed.add(stored);
+	}
+
+	/**
+	 * @return true if @crossing is a new crossing location
+	 */
+	private boolean addCrossing(Segment s1, Segment s2, Point crossing)
+	{
+		_crossings.computeIfAbsent(s1, (s) -> new HashMap<Segment, Point>()).put(s2, crossing);
+		_crossings.computeIfAbsent(s2, (s) -> new HashMap<Segment, Point>()).put(s1, crossing);
+
+		return _crossingCounts.merge(crossing, 1, Integer::sum) == 1;
+	}
+
+	/**
+	 * @return true if @pt is a new endpoint location
+	 */
+	private boolean addEndpoint(Point pt)
+	{
+		if (_endpointCounts.merge(pt, 1, Integer::sum) > 1) return false;
+
+		if (!_points.containsKey(pt)) putPoint(pt);
+
+		return true;
+	}
+
+	/**
+	 * @return true if no given segment ends at @pt any longer
+	 */
+	private boolean removeEndpoint(Point pt)
+	{
+		if (_endpointCounts.merge(pt, -1, Integer::sum) > 0) return false;
+
+		_endpointCounts.remove(pt);
+		if (!_implicitPoints.contains(pt)) removePoint(pt);
+
+		return true;
+	}
+
+	private void putPoint(Point pt)
+	{
+		_points.put(pt, pt);
+		_pointIndex.insert(pt, pt);
+	}
+
+	private void removePoint(Point pt)
+	{
+		if (_points.remove(pt) != null) _pointIndex.remove(pt, pt);
+	}
+
+	/**
+	 * @return the minimal segments of a given segment: consecutive pairs of the points on it
+	 */
+	private List<Segment> pieces(Segment segment)
+	{
+		TreeSet<Point> onSegment = new TreeSet<Point>();
+		for (Point pt : _pointIndex.query(segment))
+		{
+			if (segment.pointLiesOn(pt)) onSegment.add(pt);
+		}
+
+		List<Segment> pieces = new ArrayList<Segment>();
+
+		Point previous = null;
+		for (Point pt : onSegment)
+		{
+			if (previous != null) pieces.add(new Segment(previous, pt));
+			previous = pt;
+		}
+
+		return pieces;
+	}
+
+	/**
+	 * Break again the given segments through a changed point (and @added); drop the
+	 * pieces of @removed.
+	 * @return the minimal segments added and removed
+	 */
+	private SegmentDelta resegment(Collection<Point> changed, Segment added, Segment removed)
+	{
+		Set<Segment> affected = new LinkedHashSet<Segment>();
+		if (added != null) affected.add(added);
+
+		for (Point pt : changed)
+		{
+			for (Segment segment : _segmentIndex.query(pt))
+			{
+				if (segment.pointLiesOn(pt)) affected.add(segment);
+			}
+		}
+
+		// Minimal segment --> change in the number of given segments it is a piece of
+		Map<Segment, Integer> counts = new HashMap<Segment, Integer>();
+		Set<Segment> touched = new LinkedHashSet<Segment>();
+
+		if (removed != null) release(_pieces.remove(removed), counts);
+
+		for (Segment segment : affected)
+		{
+			release(_pieces.get(segment), counts);
+
+			List<Segment> pieces = pieces(segment);
+			_pieces.put(segment, pieces);
+			pieces.forEach((piece) -> counts.merge(piece, 1, Integer::sum));
+			touched.addAll(pieces);
+		}
+
+		SegmentDelta delta = new SegmentDelta();
+
+		counts.forEach((piece, change) ->
+		{
+			int before = _pieceCounts.getOrDefault(piece, 0);
+			int after = before + change;
+
+			if (after == 0) _pieceCounts.remove(piece);
+			else _pieceCounts.put(piece, after);
+
+			if (before == 0 && after > 0) delta._added.add(piece);
+			if (before > 0 && after == 0) delta._removed.add(piece);
+		});
+
+		_minimalSegments.removeAll(delta._removed);
+		_implicitSegments.removeAll(delta._removed);
+		_minimalSegments.addAll(delta._added);
+
+		// an endpoint of a kept segment may have become (or stopped being) implicit
+		for (Segment piece : touched)
+		{
+			if (!_pieceCounts.containsKey(piece)) continue;
+
+			if (_implicitPoints.contains(piece.getPoint1()) || _implicitPoints.contains(piece.getPoint2())) _implicitSegments.add(piece);
+			else _implicitSegments.remove(piece);
+		}
+
+		return delta;
+	}
+
+	private static void release(List<Segment> pieces, Map<Segment, Integer> counts)
+	{
+		if (pieces != null) pieces.forEach((piece) -> counts.merge(piece, -1, Integer::sum));
+	}
+}
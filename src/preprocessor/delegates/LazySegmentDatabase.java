@@ -0,0 +1,586 @@
+package preprocessor.delegates;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import geometry_objects.Segment;
+import geometry_objects.points.Point;
+import geometry_objects.points.PointDatabase;
+import utilities.concurrent.WeakValueMap;
+
+/**
+ * A segment database (each <key, value> has the same segment object) over the
+ * minimal segments and their maximal collinear chains (see CollinearChains).
+ *
+ * Only the minimal segments and the ordered points of each chain are stored: memory is
+ * linear in the figure even though a chain of k points defines O(k^2) segments.
+ * A sub-segment of a chain is found by binary search on the chain's points, O(log k),
+ * and is built when first requested with get. Later requests return the same object for as
+ * long as it is referenced elsewhere: requested sub-segments are held weakly, so the
+ * database does not grow back to O(k^2) segments as they are requested.
+ * Iteration builds sub-segments as it goes.
+ *
+ * A sub-segment of a chain is never minimal: a minimal segment joining two chain points
+ * would be linked into the chain.
+ *
+ * The map is read-only except through update, which replaces minimal segments and
+ * regroups only the chains they touch.
+ *
+ * The stored segments are kept in SegmentTables keyed by the PointDatabase IDs of their
+ * endpoints, so a lookup never hashes or compares Segment objects. Every minimal segment,
+ * including those added by update, must join two points of the database.
+ */
+public class LazySegmentDatabase extends AbstractMap<Segment, Segment>
+{
+	//
+	// The points of a chain (of two or more segments), sorted: collinear points are
+	// in lexicographic order along their line
+	//
+	protected static final class Chain
+	{
+		private final Point[] _points;
+
+		private Chain(List<Point> points)
+		{
+			_points = points.toArray(new Point[0]);
+			Arrays.sort(_points);
+		}
+
+		// pairs of points two or more segments apart
+		private int nonMinimalSize() { return (_points.length - 1) * (_points.length - 2) / 2; }
+	}
+
+	//
+	// A group that is not a simple chain: its minimal segments and its (stored) non-minimal segments
+	//
+	protected static final class IrregularGroup
+	{
+		private final List<Segment> _members;
+		private final Set<Segment> _segments;
+
+		private IrregularGroup(List<Segment> members, Set<Segment> segments)
+		{
+			_members = members;
+			_segments = segments;
+		}
+	}
+
+	// The database of the endpoints; its IDs key the segment tables and the chains through a point
+	protected PointDatabase _points;
+
+	protected SegmentTable _minimalSegments;
+
+	// Non-minimal segments of the groups that are not simple chains (stored)
+	protected SegmentTable _irregularSegments;
+
+	// Minimal segment --> its irregular group, for the minimal segments of those groups
+	protected Map<Segment, IrregularGroup> _irregularGroupOf;
+
+	protected Set<Chain> _chains;
+
+	// Point ID --> the chains through the point (null if none)
+	protected List<Chain[]> _chainsThrough;
+
+	// Pair key of the endpoint IDs --> chain sub-segment handed out by get (held weakly)
+	protected WeakValueMap<Long, Segment> _materialized;
+
+	protected int _nonMinimalSize;
+
+	// Point --> the minimal segments ending there; built by the first update
+	protected Map<Point, List<Segment>> _incident;
+
+	/**
+	 * @param minimalSegments -- minimal segments (over a database of their endpoints)
+	 */
+	public LazySegmentDatabase(Set<Segment> minimalSegments)
+	{
+		this(minimalSegments, endpoints(minimalSegments));
+	}
+
+	/**
+	 * @param minimalSegments -- minimal segments
+	 * @param points -- the database of their endpoints
+	 */
+	public LazySegmentDatabase(Set<Segment> minimalSegments, PointDatabase points)
+	{
+		this(minimalSegments, new CollinearChains(minimalSegments), points);
+	}
+
+	/**
+	 * @param minimalSegments -- minimal segments
+	 * @param chains -- their collinear chains
+	 * @param points -- the database of their endpoints
+	 */
+	public LazySegmentDatabase(Set<Segment> minimalSegments, CollinearChains chains, PointDatabase points)
+	{
+		_points = points;
+
+		_minimalSegments = new SegmentTable(_points, minimalSegments.size());
+		_minimalSegments.addAll(minimalSegments);
+
+		_irregularSegments = new SegmentTable(_points, 0);
+		_irregularGroupOf = new HashMap<Segment, IrregularGroup>();
+		_chains = new LinkedHashSet<Chain>();
+		_chainsThrough = new ArrayList<Chain[]>();
+		_materialized = new WeakValueMap<Long, Segment>();
+
+		register(chains, null);
+	}
+
+	/**
+	 * @return a database of the endpoints of @segments
+	 */
+	private static PointDatabase endpoints(Set<Segment> segments)
+	{
+		List<Point> points = new ArrayList<Point>();
+		for (Segment segment : segments)
+		{
+			points.add(segment.getPoint1());
+			points.add(segment.getPoint2());
+		}
+
+		return new PointDatabase(points);
+	}
+
+	/**
+	 * Add the chains and irregular groups of @grouping (and, if @into is not null,
+	 * every non-minimal segment they define to @into).
+	 */
+	private void register(CollinearChains grouping, Set<Segment> into)
+	{
+		for (List<Segment> members : grouping.getIrregularGroups())
+		{
+			Set<Segment> segments = new HashSet<Segment>();
+			for (Segment segment : grouping.irregularSegments(members))
+			{
+				Segment stored = _irregularSegments.putIfAbsent(segment);
+				if (stored == null) _nonMinimalSize++;
+
+				segments.add(stored == null ? segment : stored);
+			}
+
+			IrregularGroup group = new IrregularGroup(members, segments);
+			for (Segment member : members) _irregularGroupOf.put(member, group);
+
+			if (into != null) into.addAll(segments);
+		}
+
+		for (List<Point> points : grouping.getChains())
+		{
+			Chain chain = new Chain(points);
+
+			_chains.add(chain);
+			for (Point pt : chain._points)
+			{
+				int id = _points.idOf(pt);
+				while (_chainsThrough.size() <= id) _chainsThrough.add(null);
+
+				Chain[] through = _chainsThrough.get(id);
+				through = through == null ? new Chain[1] : Arrays.copyOf(through, through.length + 1);
+				through[through.length - 1] = chain;
+
+				_chainsThrough.set(id, through);
+			}
+			_nonMinimalSize += chain.nonMinimalSize();
+
+			if (into != null) subSegments(chain, into);
+		}
+	}
+
+	private void unregister(Chain chain)
+	{
+		_chains.remove(chain);
+		for (Point pt : chain._points)
+		{
+			int id = _points.idOf(pt);
+			Chain[] through = Arrays.stream(_chainsThrough.get(id)).filter((c) -> c != chain).toArray(Chain[]::new);
+
+			_chainsThrough.set(id, through.length == 0 ? null : through);
+		}
+		_nonMinimalSize -= chain.nonMinimalSize();
+	}
+
+	private void unregister(IrregularGroup group)
+	{
+		for (Segment member : group._members) _irregularGroupOf.remove(member);
+		for (Segment segment : group._segments)
+		{
+			if (_irregularSegments.remove(segment)) _nonMinimalSize--;
+		}
+	}
+
+	/**
+	 * Add the non-minimal sub-segments of @chain (the requested objects, if any) to @into.
+	 */
+	private void subSegments(Chain chain, Set<Segment> into)
+	{
+		for (int i = 0; i < chain._points.length - 2; i++)
+		{
+			for (int j = i + 2; j < chain._points.length; j++)
+			{
+				into.add(requested(chain._points[i], chain._points[j]));
+			}
+		}
+	}
+
+	/**
+	 * @return the chains through the point with ID @id (null if none)
+	 */
+	private Chain[] chainsThrough(int id)
+	{
+		return id < 0 || id >= _chainsThrough.size() ? null : _chainsThrough.get(id);
+	}
+
+	/**
+	 * @return the chain sub-segment equal to @segment (whose first endpoint has ID @id1), built
+	 *         if it has not been requested; null if @segment is not a (non-minimal) sub-segment of a chain
+	 */
+	private Segment chainSegment(Segment segment, int id1)
+	{
+		Chain[] chains = chainsThrough(id1);
+		if (chains == null) return null;
+
+		for (Chain chain : chains)
+		{
+			int i = Arrays.binarySearch(chain._points, segment.getPoint1());
+			int j = Arrays.binarySearch(chain._points, segment.getPoint2());
+
+			if (j >= 0 && Math.abs(i - j) >= 2) return subSegment(chain, Math.min(i, j), Math.max(i, j));
+		}
+
+		return null;
+	}
+
+	/**
+	 * @return the chain with minimal segment @segment (null if none)
+	 */
+	private Chain chainOf(Segment segment)
+	{
+		Chain[] chains = chainsThrough(_points.idOf(segment.getPoint1()));
+		if (chains == null) return null;
+
+		for (Chain chain : chains)
+		{
+			int i = Arrays.binarySearch(chain._points, segment.getPoint1());
+			int j = Arrays.binarySearch(chain._points, segment.getPoint2());
+
+			if (j >= 0 && Math.abs(i - j) == 1) return chain;
+		}
+
+		return null;
+	}
+
+	/**
+	 * @return the sub-segment between points i < j of the chain (the requested object, if any)
+	 */
+	private Segment subSegment(Chain chain, int i, int j)
+	{
+		long key = PointDatabase.pairKey(_points.idOf(chain._points[i]), _points.idOf(chain._points[j]));
+
+		return _materialized.putIfAbsent(key, new Segment(chain._points[i], chain._points[j]));
+	}
+
+	/**
+	 * @return the requested segment between chain points @p1 and @p2 if it is still held;
+	 *         otherwise a new segment
+	 */
+	private Segment requested(Point p1, Point p2)
+	{
+		Segment requested = null;
+		if (!_materialized.isEmpty()) requested = _materialized.get(PointDatabase.pairKey(_points.idOf(p1), _points.idOf(p2)));
+
+		return requested != null ? requested : new Segment(p1, p2);
+	}
+
+	/**
+	 * Replace minimal segments. Only the chains and groups of the removed segments, and of
+	 * the segments the added ones extend, are regrouped: O(m + s^2) for the m minimal
+	 * segments and s segments of the regrouped chains.
+	 *
+	 * @param removed -- minimal segments to remove
+	 * @param added -- minimal segments to add
+	 * @return every segment (minimal or not) added to or removed from the database
+	 */
+	public SegmentDelta update(Collection<Segment> removed, Collection<Segment> added)
+	{
+		if (_incident == null)
+		{
+			_incident = new HashMap<Point, List<Segment>>();
+			_minimalSegments.forEach(this::link);
+		}
+
+		// The minimal segments to regroup, with their current chains and groups
+		Set<Segment> affected = new HashSet<Segment>();
+		Set<Chain> chains = new LinkedHashSet<Chain>();
+		Set<IrregularGroup> groups = new LinkedHashSet<IrregularGroup>();
+
+		for (Segment segment : removed)
+		{
+			if (_minimalSegments.contains(segment)) collect(segment, affected, chains, groups);
+		}
+		for (Segment segment : added)
+		{
+			if (_minimalSegments.contains(segment)) continue;
+
+			affected.add(segment);
+			for (Point pt : new Point[] { segment.getPoint1(), segment.getPoint2() })
+			{
+				for (Segment neighbor : _incident.getOrDefault(pt, List.of()))
+				{
+					if (CollinearChains.linked(segment, neighbor)) collect(neighbor, affected, chains, groups);
+				}
+			}
+		}
+
+		Set<Segment> before = new HashSet<Segment>();
+		for (Segment segment : affected)
+		{
+			Segment stored = _minimalSegments.get(segment);
+			if (stored != null) before.add(stored);
+		}
+		for (Chain chain : chains)
+		{
+			subSegments(chain, before);
+			unregister(chain);
+		}
+		for (IrregularGroup group : groups)
+		{
+			before.addAll(group._segments);
+			unregister(group);
+		}
+
+		for (Segment segment : removed)
+		{
+			Segment stored = _minimalSegments.get(segment);
+			if (stored == null) continue;
+
+			_minimalSegments.remove(stored);
+			unlink(stored);
+		}
+		for (Segment segment : added)
+		{
+			if (_minimalSegments.add(segment)) link(segment);
+		}
+
+		Set<Segment> regrouped = new HashSet<Segment>();
+		for (Segment segment : affected)
+		{
+			Segment stored = _minimalSegments.get(segment);
+			if (stored != null) regrouped.add(stored);
+		}
+
+		Set<Segment> after = new HashSet<Segment>(regrouped);
+		register(new CollinearChains(regrouped), after);
+
+		SegmentDelta delta = new SegmentDelta(before, after);
+		for (Segment segment : delta._removed)
+		{
+			int id1 = _points.idOf(segment.getPoint1());
+			int id2 = _points.idOf(segment.getPoint2());
+			if (id1 >= 0 && id2 >= 0) _materialized.remove(PointDatabase.pairKey(id1, id2));
+		}
+
+		return delta;
+	}
+
+	/**
+	 * Add @segment, its chain or group and the members of that chain or group to @affected
+	 * (and the chain or group to @chains or @groups).
+	 */
+	private void collect(Segment segment, Set<Segment> affected, Set<Chain> chains, Set<IrregularGroup> groups)
+	{
+		affected.add(segment);
+
+		IrregularGroup group = _irregularGroupOf.get(segment);
+		if (group != null)
+		{
+			if (groups.add(group)) affected.addAll(group._members);
+			return;
+		}
+
+		Chain chain = chainOf(segment);
+		if (chain != null && chains.add(chain))
+		{
+			for (int k = 0; k < chain._points.length - 1; k++)
+			{
+				affected.add(_minimalSegments.get(new Segment(chain._points[k], chain._points[k + 1])));
+			}
+		}
+	}
+
+	private void link(Segment segment)
+	{
+		_incident.computeIfAbsent(segment.getPoint1(), (p) -> new ArrayList<Segment>()).add(segment);
+		_incident.computeIfAbsent(segment.getPoint2(), (p) -> new ArrayList<Segment>()).add(segment);
+	}
+
+	private void unlink(Segment segment)
+	{
+		for (Point pt : new Point[] { segment.getPoint1(), segment.getPoint2() })
+		{
+			List<Segment> incident = _incident.get(pt);
+			if (incident == null) continue;
+
+			incident.removeIf((s) -> s == segment);
+			if (incident.isEmpty()) _incident.remove(pt);
+		}
+	}
+
+	@Override
+	public Segment get(Object key)
+	{
+		if (!(key instanceof Segment segment)) return null;
+
+		// every stored segment joins points with IDs
+		int id1 = _points.idOf(segment.getPoint1());
+		if (id1 < 0) return null;
+
+		int id2 = _points.idOf(segment.getPoint2());
+		if (id2 < 0) return null;
+
+		Segment stored = _minimalSegments.get(id1, id2);
+		if (stored == null) stored = _irregularSegments.get(id1, id2);
+		if (stored == null) stored = chainSegment(segment, id1);
+
+		return stored;
+	}
+
+	@Override
+	public boolean containsKey(Object key)
+	{
+		return get(key) != null;
+	}
+
+	@Override
+	public int size()
+	{
+		return _minimalSegments.size() + _nonMinimalSize;
+	}
+
+	/**
+	 * @return the minimal segments
+	 */
+	public Set<Segment> minimalSegments()
+	{
+		return _minimalSegments;
+	}
+
+	/**
+	 * @return a view of the non-minimal segments
+	 */
+	public Set<Segment> nonMinimalSegments()
+	{
+		return new AbstractSet<Segment>()
+		{
+			@Override
+			public Iterator<Segment> iterator() { return new NonMinimalIterator(); }
+
+			@Override
+			public int size() { return _nonMinimalSize; }
+
+			@Override
+			public boolean contains(Object o) { return get(o) != null && !_minimalSegments.contains(o); }
+		};
+	}
+
+	@Override
+	public Set<Entry<Segment, Segment>> entrySet()
+	{
+		return new AbstractSet<Entry<Segment, Segment>>()
+		{
+			@Override
+			public Iterator<Entry<Segment, Segment>> iterator()
+			{
+				Iterator<Segment> minimal = _minimalSegments.iterator();
+				Iterator<Segment> nonMinimal = new NonMinimalIterator();
+
+				return new Iterator<Entry<Segment, Segment>>()
+				{
+					@Override
+					public boolean hasNext() { return minimal.hasNext() || nonMinimal.hasNext(); }
+
+					@Override
+					public Entry<Segment, Segment> next()
+					{
+						Segment segment = minimal.hasNext() ? minimal.next() : nonMinimal.next();
+
+						return new SimpleImmutableEntry<Segment, Segment>(segment, segment);
+					}
+				};
+			}
+
+			@Override
+			public int size() { return LazySegmentDatabase.this.size(); }
+		};
+	}
+
+	//
+	// The irregular segments, then the sub-segments (i, j), j >= i + 2, of each chain
+	//
+	private class NonMinimalIterator implements Iterator<Segment>
+	{
+		private Iterator<Segment> _irregular = _irregularSegments.iterator();
+		private Iterator<Chain> _remaining = _chains.iterator();
+
+		private Point[] _chain = null;
+		private int _i = 0;
+		private int _j = 2;
+
+		NonMinimalIterator() { advance(); }
+
+		// Move (chain, i, j) to the next valid position
+		private void advance()
+		{
+			while (true)
+			{
+				if (_chain != null)
+				{
+					if (_j >= _chain.length)
+					{
+						_i++;
+						_j = _i + 2;
+					}
+					if (_j < _chain.length) return;
+				}
+
+				if (!_remaining.hasNext())
+				{
+					_chain = null;
+					return;
+				}
+
+				_chain = _remaining.next()._points;
+				_i = 0;
+				_j = 2;
+			}
+		}
+
+		@Override
+		public boolean hasNext() { return _irregular.hasNext() || _chain != null; }
+
+		@Override
+		public Segment next()
+		{
+			if (_irregular.hasNext()) return _irregular.next();
+			if (_chain == null) throw new NoSuchElementException();
+
+			Segment segment = requested(_chain[_i], _chain[_j]);
+
+			_j++;
+			advance();
+
+			return segment;
+		}
+	}
+}
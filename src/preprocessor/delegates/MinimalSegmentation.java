@@ -0,0 +1,222 @@
+package preprocessor.delegates;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import geometry_objects.Segment;
+import geometry_objects.points.Point;
+import geometry_objects.spatial.SegmentRTree;
+import utilities.math.HashUtilities;
+import utilities.math.MathUtilities;
+
+/**
+ * Breaks the given segments into minimal segments at every point (implicit points and
+ * given endpoints) lying on them, in one pass:
+ *
+ *   (1) each point, in lexicographic order, is stabbed into the given segments (SegmentRTree),
+ *       so the points on each segment arrive already sorted
+ *   (2) the segments are bucketed by supporting line; the points of a bucket are merged once,
+ *       and a segment whose points form a run of its bucket contributes that run (consecutive
+ *       pairs within a run are minimal segments)
+ *   (3) minimal segments with an implicit endpoint are collected at the same time
+ *
+ * O((S + P) log P + H log H) for S segments, P points and H point-on-segment incidences.
+ * The minimal segments are those of breaking each segment separately at the points on it.
+ */
+public class MinimalSegmentation
+{
+	protected Set<Segment> _minimalSegments;
+	protected Set<Segment> _implicitSegments;
+
+	public Set<Segment> getMinimalSegments() { return _minimalSegments; }
+
+	/**
+	 * @return the minimal segments with an implicit point as an endpoint
+	 */
+	public Set<Segment> getImplicitSegments() { return _implicitSegments; }
+
+	// The points, sorted, and whether each is implicit
+	private Point[] _points;
+	private boolean[] _implicit;
+
+	/**
+	 * @param implicitPoints -- implicit points (they take precedence over equal endpoints)
+	 * @param givenSegments -- the given segments
+	 */
+	public MinimalSegmentation(Set<Point> implicitPoints, Collection<Segment> givenSegments)
+	{
+		_minimalSegments = new HashSet<Segment>();
+		_implicitSegments = new HashSet<Segment>();
+
+		TreeSet<Point> allPoints = new TreeSet<Point>(implicitPoints);
+		for (Segment segment : givenSegments)
+		{
+			allPoints.add(segment.getPoint1());
+			allPoints.add(segment.getPoint2());
+		}
+
+		_points = allPoints.toArray(new Point[0]);
+		_implicit = new boolean[_points.length];
+		for (int k = 0; k < _points.length; k++) _implicit[k] = implicitPoints.contains(_points[k]);
+
+		Segment[] segments = givenSegments.toArray(new Segment[0]);
+		int[][] hits = stab(segments);
+
+		for (List<Integer> bucket : bucketByLine(segments).values())
+		{
+			segmentBucket(bucket, hits);
+		}
+	}
+
+	/**
+	 * @return for each segment, the (ascending) indices of the points lying on it
+	 */
+	private int[][] stab(Segment[] segments)
+	{
+		Map<Segment, Integer> indices = new IdentityHashMap<Segment, Integer>();
+		for (int i = 0; i < segments.length; i++) indices.put(segments[i], i);
+
+		int[][] hits = new int[segments.length][];
+		int[] counts = new int[segments.length];
+		for (int i = 0; i < segments.length; i++) hits[i] = new int[2];
+
+		SegmentRTree index = new SegmentRTree(Arrays.asList(segments));
+		for (int k = 0; k < _points.length; k++)
+		{
+			for (Segment segment : index.stab(_points[k]))
+			{
+				int i = indices.get(segment);
+
+				if (counts[i] == hits[i].length) hits[i] = Arrays.copyOf(hits[i], 2 * counts[i]);
+				hits[i][counts[i]++] = k;
+			}
+		}
+
+		for (int i = 0; i < segments.length; i++) hits[i] = Arrays.copyOf(hits[i], counts[i]);
+
+		return hits;
+	}
+
+	/**
+	 * @return the segment indices grouped by (quantized) supporting line
+	 */
+	private static Map<LineKey, List<Integer>> bucketByLine(Segment[] segments)
+	{
+		Map<LineKey, List<Integer>> buckets = new HashMap<LineKey, List<Integer>>();
+
+		for (int i = 0; i < segments.length; i++)
+		{
+			buckets.computeIfAbsent(new LineKey(segments[i]), (key) -> new ArrayList<Integer>()).add(i);
+		}
+
+		return buckets;
+	}
+
+	/**
+	 * Emit the minimal segments of the segments of one line.
+	 */
+	private void segmentBucket(List<Integer> bucket, int[][] hits)
+	{
+		if (bucket.size() == 1)
+		{
+			emitConsecutive(hits[bucket.get(0)]);
+			return;
+		}
+
+		// The points of the line, merged once
+		int total = 0;
+		for (int i : bucket) total += hits[i].length;
+
+		int[] line = new int[total];
+		total = 0;
+		for (int i : bucket)
+		{
+			System.arraycopy(hits[i], 0, line, total, hits[i].length);
+			total += hits[i].length;
+		}
+		Arrays.sort(line);
+
+		int distinct = 0;
+		for (int k = 0; k < line.length; k++)
+		{
+			if (distinct == 0 || line[k] != line[distinct - 1]) line[distinct++] = line[k];
+		}
+		line = Arrays.copyOf(line, distinct);
+
+		// Pairs (k, k + 1) of the line covered by a segment run
+		int[] cover = new int[line.length + 1];
+		for (int i : bucket)
+		{
+			if (hits[i].length < 2) continue;
+
+			int first = Arrays.binarySearch(line, hits[i][0]);
+			int last = Arrays.binarySearch(line, hits[i][hits[i].length - 1]);
+
+			if (last - first + 1 == hits[i].length)
+			{
+				cover[first]++;
+				cover[last]--;
+			}
+			else emitConsecutive(hits[i]);
+		}
+
+		for (int k = 0, covering = 0; k < line.length - 1; k++)
+		{
+			covering += cover[k];
+			if (covering > 0) emit(line[k], line[k + 1]);
+		}
+	}
+
+	private void emitConsecutive(int[] points)
+	{
+		for (int k = 0; k < points.length - 1; k++) emit(points[k], points[k + 1]);
+	}
+
+	private void emit(int a, int b)
+	{
+		Segment segment = new Segment(_points[a], _points[b]);
+
+		if (_minimalSegments.add(segment) && (_implicit[a] || _implicit[b])) _implicitSegments.add(segment);
+	}
+
+	//
+	// A supporting line: its normalized equation ax + by = c (oriented so that a > 0,
+	// or a == 0 and b > 0), quantized. Segments on one line but with different keys are
+	// merely processed separately.
+	//
+	private static final class LineKey
+	{
+		private final long _a;
+		private final long _b;
+		private final long _c;
+
+		LineKey(Segment segment)
+		{
+			double sign = segment.getLineA() < 0 || (segment.getLineA() == 0 && segment.getLineB() < 0) ? -1 : 1;
+
+			_a = MathUtilities.quantize(sign * segment.getLineA());
+			_b = MathUtilities.quantize(sign * segment.getLineB());
+			_c = MathUtilities.quantize(sign * segment.getLineC());
+		}
+
+		@Override
+		public boolean equals(Object o)
+		{
+			return o instanceof LineKey that && _a == that._a && _b == that._b && _c == that._c;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return HashUtilities.fold(HashUtilities.combine(HashUtilities.combine(_a, _b), _c));
+		}
+	}
+}
@@ -0,0 +1,250 @@
+package preprocessor.delegates;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RecursiveTask;
+
+import geometry_objects.Segment;
+import geometry_objects.points.ConcurrentPointDatabase;
+import geometry_objects.points.Point;
+import utilities.concurrent.PipelineExecutor;
+
+/**
+ * Fork / join computation of all pairwise segment intersections.
+ *
+ * The pair space (i < j) is split by rows i into tasks of roughly equal
+ * numbers of pairs. Each task collects its intersections into its own list;
+ * the lists are concatenated and sorted by pair so the caller can merge them
+ * deterministically (independent of scheduling).
+ *
+ * On an executor other than a ForkJoinPool the rows are split up front into a few
+ * tasks per processor, of roughly equal numbers of pairs. The calling thread also runs
+ * every task no pool thread has started, and waits only for tasks already running: it
+ * never blocks on queued work, so a call from a task of a bounded (even one-thread)
+ * pool cannot deadlock.
+ *
+ * Given a ConcurrentPointDatabase, the tasks insert the intersections as they find them
+ * (putDeferred, ordered by pair) instead of listing them, and the new points are named
+ * once all tasks are done.
+ */
+public class ParallelIntersector
+{
+	// Below this many pairs a task is computed sequentially
+	private static final long SEQUENTIAL_THRESHOLD = 4096;
+
+	/**
+	 * @param segments -- a list of segments
+	 * @return every intersecting pair of segments with its intersection point, sorted by pair
+	 */
+	public static List<SegmentPairIntersection> intersect(List<Segment> segments)
+	{
+		return intersect(segments, PipelineExecutor.get());
+	}
+
+	/**
+	 * @param segments -- a list of segments
+	 * @param executor -- the executor running the computation
+	 * @return every intersecting pair of segments with its intersection point, sorted by pair
+	 */
+	public static List<SegmentPairIntersection> intersect(List<Segment> segments, Executor executor)
+	{
+		return intersect(segments, null, executor);
+	}
+
+	/**
+	 * @param segments -- a list of segments
+	 * @param pool -- the pool executing the computation
+	 * @return every intersecting pair of segments with its intersection point, sorted by pair
+	 */
+	public static List<SegmentPairIntersection> intersect(List<Segment> segments, ForkJoinPool pool)
+	{
+		return intersect(segments, null, pool);
+	}
+
+	/**
+	 * Insert the intersection of every pair of segments into @points, deferring the generated
+	 * names: the pair (i, j) inserts at its position in the pairwise run, so the new points
+	 * are named as the pairwise algorithm would name them. Their IDs follow the order the
+	 * tasks reach them.
+	 *
+	 * @param segments -- a list of segments
+	 * @param points -- the database receiving the intersections (no other deferred points)
+	 * @return the points added, in naming order
+	 */
+	public static List<Point> insert(List<Segment> segments, ConcurrentPointDatabase points)
+	{
+		intersect(segments, points, PipelineExecutor.get());
+
+		return points.assignNames();
+	}
+
+	/**
+	 * @param points -- the database the tasks insert into; null to list the intersections
+	 * @return every intersecting pair of segments with its intersection point, sorted by pair
+	 *         (none if inserted into @points)
+	 */
+	private static List<SegmentPairIntersection> intersect(List<Segment> segments, ConcurrentPointDatabase points, Executor executor)
+	{
+		if (executor instanceof ForkJoinPool pool)
+		{
+			List<SegmentPairIntersection> intersections = pool.invoke(new RowsTask(segments, points, 0, segments.size()));
+
+			Collections.sort(intersections);
+
+			return intersections;
+		}
+
+		int n = segments.size();
+		int tasks = 4 * Runtime.getRuntime().availableProcessors();
+		long total = pairsBefore(n, n);
+
+		List<FutureTask<List<SegmentPairIntersection>>> parts = new ArrayList<>();
+		for (int t = 0, fromRow = 0; t < tasks && fromRow < n; t++)
+		{
+			// the first row at which the pairs so far reach the next share of the total
+			int toRow = t == tasks - 1 ? n : fromRow + 1;
+			while (toRow < n && pairsBefore(n, toRow) < total * (t + 1) / tasks) toRow++;
+
+			RowsTask rows = new RowsTask(segments, points, fromRow, toRow);
+			FutureTask<List<SegmentPairIntersection>> part = new FutureTask<>(rows::computeSequentially);
+			parts.add(part);
+			executor.execute(part);
+
+			fromRow = toRow;
+		}
+
+		// A FutureTask runs once: here unless a pool thread has already started it
+		for (FutureTask<List<SegmentPairIntersection>> part : parts) part.run();
+
+		List<SegmentPairIntersection> intersections = new ArrayList<>();
+		for (FutureTask<List<SegmentPairIntersection>> part : parts) intersections.addAll(result(part));
+
+		Collections.sort(intersections);
+
+		return intersections;
+	}
+
+	/**
+	 * @return the result of a part that has been started (waits for it to complete)
+	 * @throws RuntimeException -- the failure of the part
+	 */
+	private static List<SegmentPairIntersection> result(FutureTask<List<SegmentPairIntersection>> part)
+	{
+		try
+		{
+			return part.get();
+		}
+		catch (ExecutionException e)
+		{
+			if (e.getCause() instanceof RuntimeException cause) throw cause;
+			if (e.getCause() instanceof Error cause) throw cause;
+			throw new CompletionException(e.getCause());
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new CompletionException(e);
+		}
+	}
+
+	/**
+	 * @return the number of pairs (i, j), i < j < n, in rows [0, row)
+	 */
+	private static long pairsBefore(long n, long row)
+	{
+		return row * (n - 1) - row * (row - 1) / 2;
+	}
+
+	/**
+	 * Intersections of the pairs (i, j) with @_fromRow <= i < @_toRow and i < j;
+	 * listed, or inserted into @_points if given
+	 */
+	private static class RowsTask extends RecursiveTask<List<SegmentPairIntersection>>
+	{
+		private static final long serialVersionUID = 1L;
+
+		protected List<Segment> _segments;
+		protected ConcurrentPointDatabase _points;
+		protected int _fromRow;
+		protected int _toRow;
+
+		protected RowsTask(List<Segment> segments, ConcurrentPointDatabase points, int fromRow, int toRow)
+		{
+			_segments = segments;
+			_points = points;
+			_fromRow = fromRow;
+			_toRow = toRow;
+		}
+
+		@Override
+		protected List<SegmentPairIntersection> compute()
+		{
+			if (_toRow - _fromRow < 2 || pairsBefore(_toRow) - pairsBefore(_fromRow) <= SEQUENTIAL_THRESHOLD)
+			{
+				return computeSequentially();
+			}
+
+			int middle = balancedSplit();
+
+			RowsTask left = new RowsTask(_segments, _points, _fromRow, middle);
+			RowsTask right = new RowsTask(_segments, _points, middle, _toRow);
+
+			left.fork();
+			List<SegmentPairIntersection> intersections = right.compute();
+			List<SegmentPairIntersection> leftIntersections = left.join();
+
+			leftIntersections.addAll(intersections);
+			return leftIntersections;
+		}
+
+		private List<SegmentPairIntersection> computeSequentially()
+		{
+			List<SegmentPairIntersection> intersections = new ArrayList<>();
+
+			for (int i = _fromRow; i < _toRow; i++)
+			{
+				for (int j = i + 1; j < _segments.size(); j++)
+				{
+					Point intersection = _segments.get(i).segmentIntersection(_segments.get(j));
+
+					if (intersection == null) continue;
+
+					if (_points == null) intersections.add(new SegmentPairIntersection(i, j, intersection));
+					else _points.putDeferred(intersection.getX(), intersection.getY(), (long) i * _segments.size() + j);
+				}
+			}
+
+			return intersections;
+		}
+
+		private long pairsBefore(long row)
+		{
+			return ParallelIntersector.pairsBefore(_segments.size(), row);
+		}
+
+		/**
+		 * @return the row splitting [_fromRow, _toRow) into two halves of (about) equal pair counts
+		 */
+		private int balancedSplit()
+		{
+			long half = (pairsBefore(_fromRow) + pairsBefore(_toRow)) / 2;
+
+			int lo = _fromRow + 1;
+			int hi = _toRow - 1;
+			while (lo < hi)
+			{
+				int mid = (lo + hi) >>> 1;
+				if (pairsBefore(mid) < half) lo = mid + 1;
+				else hi = mid;
+			}
+
+			return lo;
+		}
+	}
+}
@@ -0,0 +1,53 @@
+package preprocessor.delegates;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import geometry_objects.Segment;
+
+/**
+ * The segments added to and removed from a segment collection by one edit.
+ * A segment is never in both sets.
+ */
+public class SegmentDelta
+{
+	protected Set<Segment> _added;
+	protected Set<Segment> _removed;
+
+	public Set<Segment> getAdded() { return Collections.unmodifiableSet(_added); }
+	public Set<Segment> getRemoved() { return Collections.unmodifiableSet(_removed); }
+
+	public boolean isEmpty() { return _added.isEmpty() && _removed.isEmpty(); }
+
+	public SegmentDelta()
+	{
+		_added = new LinkedHashSet<Segment>();
+		_removed = new LinkedHashSet<Segment>();
+	}
+
+	/**
+	 * The difference between two states of a collection.
+	 * @param before -- the segments before the edit
+	 * @param after -- the segments after the edit
+	 */
+	public SegmentDelta(Set<Segment> before, Set<Segment> after)
+	{
+		this();
+
+		for (Segment segment : after)
+		{
+			if (!before.contains(segment)) _added.add(segment);
+		}
+		for (Segment segment : before)
+		{
+			if (!after.contains(segment)) _removed.add(segment);
+		}
+	}
+
+	@Override
+	public String toString()
+	{
+		return "+" + _added + " -" + _removed;
+	}
+}
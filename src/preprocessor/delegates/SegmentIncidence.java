@@ -0,0 +1,134 @@
+package preprocessor.delegates;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import geometry_objects.Segment;
+import geometry_objects.points.Point;
+import geometry_objects.points.PointDatabase;
+
+/**
+ * Incidence between an array of segments and their endpoints, on point IDs.
+ *
+ * Endpoints are identified by the IDs of a PointDatabase (equal points, equal IDs),
+ * so shared vertices and the segment joining two points are found with integer
+ * comparisons and array / hash lookups instead of Point comparisons.
+ */
+public class SegmentIncidence
+{
+	protected Segment[] _segments;
+	protected PointDatabase _points;
+
+	// Endpoint IDs, indexed as _segments
+	protected int[] _first;
+	protected int[] _second;
+
+	// Point ID --> indices (ascending) of the segments with that endpoint
+	protected List<List<Integer>> _incident;
+
+	// Endpoint pair key --> segment index
+	protected Map<Long, Integer> _byEndpoints;
+
+	public int first(int segment) { return _first[segment]; }
+	public int second(int segment) { return _second[segment]; }
+	public PointDatabase getPoints() { return _points; }
+
+	/**
+	 * @param segments -- distinct segments; their endpoints are assigned IDs in a new PointDatabase
+	 */
+	public SegmentIncidence(Segment[] segments)
+	{
+		_segments = segments;
+
+		List<Point> endpoints = new ArrayList<Point>();
+		for (Segment segment : segments)
+		{
+			endpoints.add(segment.getPoint1());
+			endpoints.add(segment.getPoint2());
+		}
+		_points = new PointDatabase(endpoints);
+
+		_first = new int[segments.length];
+		_second = new int[segments.length];
+		_incident = new ArrayList<List<Integer>>();
+		_byEndpoints = new HashMap<Long, Integer>();
+
+		for (int i = 0; i < _points.size(); i++) _incident.add(new ArrayList<Integer>());
+
+		for (int i = 0; i < segments.length; i++)
+		{
+			_first[i] = _points.idOf(segments[i].getPoint1());
+			_second[i] = _points.idOf(segments[i].getPoint2());
+
+			if (isDegenerate(i)) continue;
+
+			_incident.get(_first[i]).add(i);
+			_incident.get(_second[i]).add(i);
+			_byEndpoints.put(PointDatabase.pairKey(_first[i], _second[i]), i);
+		}
+	}
+
+	/**
+	 * @return true if both endpoints of the segment are the same point
+	 */
+	public boolean isDegenerate(int segment)
+	{
+		return _first[segment] == _second[segment];
+	}
+
+	/**
+	 * @param segment -- a segment index
+	 * @param point -- the ID of one of its endpoints
+	 * @return the ID of the other endpoint
+	 */
+	public int other(int segment, int point)
+	{
+		return _first[segment] == point ? _second[segment] : _first[segment];
+	}
+
+	/**
+	 * @param point -- a point ID
+	 * @return the indices (ascending) of the non-degenerate segments with that endpoint
+	 */
+	public List<Integer> incident(int point)
+	{
+		return _incident.get(point);
+	}
+
+	/**
+	 * @param point1, point2 -- point IDs
+	 * @return the index of the segment joining the points; -1 if there is none
+	 */
+	public int segmentBetween(int point1, int point2)
+	{
+		Integer index = _byEndpoints.get(PointDatabase.pairKey(point1, point2));
+
+		return index == null ? -1 : index;
+	}
+
+	/**
+	 * @param segment -- a segment index
+	 * @return the indices (ascending) of the later segments sharing exactly one vertex with it
+	 */
+	public int[] sharingVertexAfter(int segment)
+	{
+		if (isDegenerate(segment)) return new int[0];
+
+		List<Integer> atFirst = _incident.get(_first[segment]);
+		List<Integer> atSecond = _incident.get(_second[segment]);
+
+		int[] later = new int[atFirst.size() + atSecond.size()];
+		int count = 0;
+
+		for (int j : atFirst) if (j > segment) later[count++] = j;
+		for (int j : atSecond) if (j > segment) later[count++] = j;
+
+		later = Arrays.copyOf(later, count);
+		Arrays.sort(later);
+
+		return later;
+	}
+}
@@ -0,0 +1,43 @@
+package preprocessor.delegates;
+
+import geometry_objects.points.Point;
+
+/**
+ * The intersection point of two given segments, identified by their
+ * indices in the list of given segments (first index < second index).
+ *
+ * Pairs are ordered by (first, second) index; this is the order in which
+ * the pairwise algorithm discovers intersections, so merging in this order
+ * reproduces the pairwise naming of implicit points.
+ */
+public class SegmentPairIntersection implements Comparable<SegmentPairIntersection>
+{
+	protected int _first;
+	protected int _second;
+	protected Point _point;
+
+	public int getFirst() { return _first; }
+	public int getSecond() { return _second; }
+	public Point getPoint() { return _point; }
+
+	public SegmentPairIntersection(int i, int j, Point point)
+	{
+		_first = Math.min(i, j);
+		_second = Math.max(i, j);
+		_point = point;
+	}
+
+	@Override
+	public int compareTo(SegmentPairIntersection that)
+	{
+		if (_first != that._first) return Integer.compare(_first, that._first);
+
+		return Integer.compare(_second, that._second);
+	}
+
+	@Override
+	public String toString()
+	{
+		return "(" + _first + ", " + _second + ") -> " + _point;
+	}
+}
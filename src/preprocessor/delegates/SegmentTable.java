@@ -0,0 +1,236 @@
+package preprocessor.delegates;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import geometry_objects.Segment;
+import geometry_objects.points.PointDatabase;
+import utilities.math.HashUtilities;
+
+/**
+ * A set of segments stored by the PointDatabase IDs of their endpoints: an open-addressing
+ * table keyed by the packed pair (min ID, max ID) of each segment (PointDatabase.pairKey).
+ *
+ * The keys and the segments are parallel arrays, so an entry costs a long and a
+ * reference rather than a HashMap node; a lookup is two point-ID lookups and a probe
+ * on the long key, never Segment.hashCode or Segment.equals.
+ * Removal shifts the following entries of the probe run back (no tombstones).
+ *
+ * The segments themselves are stored, not rebuilt from primitive arrays on lookup: get
+ * returns the stored object, whose identity the angles, triangles and snapshots share.
+ */
+public class SegmentTable extends AbstractSet<Segment>
+{
+	private static final long EMPTY = -1;
+
+	// The database of the endpoints; its IDs key the table
+	protected PointDatabase _points;
+
+	// Slot --> pair key (EMPTY for an empty slot) and segment; the capacity is a power of two
+	protected long[] _keys;
+	protected Segment[] _segments;
+
+	protected int _size;
+
+	/**
+	 * @param points -- the database of the endpoints (every added segment joins two of its points)
+	 * @param expectedSize -- the expected number of segments
+	 */
+	public SegmentTable(PointDatabase points, int expectedSize)
+	{
+		_points = points;
+
+		int capacity = capacityFor(expectedSize);
+		_keys = new long[capacity];
+		_segments = new Segment[capacity];
+		Arrays.fill(_keys, EMPTY);
+	}
+
+	@Override
+	public int size() { return _size; }
+
+	/**
+	 * @return the least power of two holding @expectedSize entries at load factor at most 2/3
+	 */
+	private static int capacityFor(int expectedSize)
+	{
+		int capacity = 8;
+		while (2L * capacity < 3L * expectedSize) capacity <<= 1;
+
+		return capacity;
+	}
+
+	/**
+	 * @return the pair key of @segment's endpoints; EMPTY if an endpoint has no ID
+	 */
+	private long keyOf(Segment segment)
+	{
+		int id1 = _points.idOf(segment.getPoint1());
+		if (id1 < 0) return EMPTY;
+
+		int id2 = _points.idOf(segment.getPoint2());
+		if (id2 < 0) return EMPTY;
+
+		return PointDatabase.pairKey(id1, id2);
+	}
+
+	/**
+	 * @return the slot holding @key, or the empty slot ending its probe sequence (linear probing)
+	 */
+	private int find(long key)
+	{
+		int mask = _keys.length - 1;
+
+		int slot = (int) HashUtilities.mix(key) & mask;
+		while (_keys[slot] != EMPTY && _keys[slot] != key) slot = (slot + 1) & mask;
+
+		return slot;
+	}
+
+	/**
+	 * @return the stored segment equal to @segment (null if none)
+	 */
+	public Segment get(Segment segment)
+	{
+		long key = keyOf(segment);
+
+		return key == EMPTY ? null : _segments[find(key)];
+	}
+
+	/**
+	 * @return the stored segment between the points with IDs @id1 and @id2 (null if none)
+	 */
+	public Segment get(int id1, int id2)
+	{
+		return _segments[find(PointDatabase.pairKey(id1, id2))];
+	}
+
+	@Override
+	public boolean contains(Object o)
+	{
+		return o instanceof Segment segment && get(segment) != null;
+	}
+
+	/**
+	 * Store @segment unless an equal segment is stored.
+	 *
+	 * @return the stored segment equal to @segment; null if there was none (@segment is stored)
+	 * @throws IllegalArgumentException -- if an endpoint of @segment is not in the point database
+	 */
+	public Segment putIfAbsent(Segment segment)
+	{
+		long key = keyOf(segment);
+		if (key == EMPTY) throw new IllegalArgumentException("Segment endpoint not in the point database: " + segment);
+
+		int slot = find(key);
+		if (_keys[slot] != EMPTY) return _segments[slot];
+
+		_keys[slot] = key;
+		_segments[slot] = segment;
+		_size++;
+
+		if (3 * _size > 2 * _keys.length) rehash();
+
+		return null;
+	}
+
+	@Override
+	public boolean add(Segment segment)
+	{
+		return putIfAbsent(segment) == null;
+	}
+
+	@Override
+	public boolean remove(Object o)
+	{
+		if (!(o instanceof Segment segment)) return false;
+
+		long key = keyOf(segment);
+		if (key == EMPTY) return false;
+
+		int slot = find(key);
+		if (_keys[slot] == EMPTY) return false;
+
+		delete(slot);
+
+		return true;
+	}
+
+	/**
+	 * Empty @slot and move back every later entry of its probe run that can no longer be found.
+	 */
+	private void delete(int slot)
+	{
+		int mask = _keys.length - 1;
+
+		for (int next = (slot + 1) & mask; _keys[next] != EMPTY; next = (next + 1) & mask)
+		{
+			int home = (int) HashUtilities.mix(_keys[next]) & mask;
+
+			// the entry at next stays reachable unless home lies cyclically in (slot, next]
+			boolean reachable = slot <= next ? (slot < home && home <= next) : (slot < home || home <= next);
+			if (reachable) continue;
+
+			_keys[slot] = _keys[next];
+			_segments[slot] = _segments[next];
+			slot = next;
+		}
+
+		_keys[slot] = EMPTY;
+		_segments[slot] = null;
+		_size--;
+	}
+
+	private void rehash()
+	{
+		long[] keys = _keys;
+		Segment[] segments = _segments;
+
+		_keys = new long[2 * keys.length];
+		_segments = new Segment[2 * keys.length];
+		Arrays.fill(_keys, EMPTY);
+
+		for (int slot = 0; slot < keys.length; slot++)
+		{
+			if (keys[slot] == EMPTY) continue;
+
+			int to = find(keys[slot]);
+			_keys[to] = keys[slot];
+			_segments[to] = segments[slot];
+		}
+	}
+
+	/**
+	 * Iteration in slot order; the table must not be modified during iteration.
+	 */
+	@Override
+	public Iterator<Segment> iterator()
+	{
+		return new Iterator<Segment>()
+		{
+			private int _slot = advance(0);
+
+			private int advance(int slot)
+			{
+				while (slot < _keys.length && _keys[slot] == EMPTY) slot++;
+				return slot;
+			}
+
+			@Override
+			public boolean hasNext() { return _slot < _keys.length; }
+
+			@Override
+			public Segment next()
+			{
+				if (_slot >= _keys.length) throw new NoSuchElementException();
+
+				Segment segment = _segments[_slot];
+				_slot = advance(_slot + 1);
+
+				return segment;
+			}
+		};
+	}
+}
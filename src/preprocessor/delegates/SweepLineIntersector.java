@@ -0,0 +1,292 @@
+package preprocessor.delegates;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import geometry_objects.Segment;
+import geometry_objects.points.Point;
+import utilities.math.MathUtilities;
+
+/**
+ * Bentley-Ottmann sweep for all pairs of given segments that cross
+ * (intersect in the interior of both segments); O((n + k) log n).
+ *
+ * The sweep line moves left to right (bottom to top for equal x); points
+ * within EPSILON of one another are treated as the same event. Every
+ * reported point is computed by Segment.segmentIntersection on the pair
+ * (lower index first), so coordinates match the pairwise algorithm exactly.
+ *
+ * Algorithm (de Berg et al., Computational Geometry, ch. 2):
+ *   At each event point p:
+ *     * find the segments in the status passing through p
+ *     * report all crossing pairs among those starting at, ending at or passing through p
+ *     * remove segments ending at / passing through p
+ *     * (re)insert segments starting at / passing through p, ordered just right of p
+ *     * check the new neighbors in the status for crossings right of p
+ */
+public class SweepLineIntersector
+{
+	/**
+	 * A given segment, oriented so that it starts at its lexicographically smaller endpoint.
+	 */
+	private static class SweepSegment
+	{
+		protected int _index;
+		protected Segment _segment;
+		protected double _x1, _y1, _x2, _y2;
+		protected boolean _vertical;
+		protected boolean _degenerate;
+		protected double _slope;
+
+		protected SweepSegment(int index, Segment segment)
+		{
+			_index = index;
+			_segment = segment;
+
+			Point p1 = segment.getPoint1();
+			Point p2 = segment.getPoint2();
+			_vertical = segment.isVertical();
+			_degenerate = MathUtilities.doubleEquals(segment.length(), 0);
+
+			boolean firstIsStart = _vertical ? p1.getY() <= p2.getY() : p1.getX() <= p2.getX();
+			Point start = firstIsStart ? p1 : p2;
+			Point end = firstIsStart ? p2 : p1;
+
+			_x1 = start.getX();
+			_y1 = start.getY();
+			_x2 = end.getX();
+			_y2 = end.getY();
+
+			_slope = _vertical ? Double.POSITIVE_INFINITY : (_y2 - _y1) / (_x2 - _x1);
+		}
+	}
+
+	/**
+	 * An event point; ordered lexicographically with EPSILON tolerance.
+	 */
+	private static class EventPoint implements Comparable<EventPoint>
+	{
+		protected double _x;
+		protected double _y;
+
+		protected EventPoint(double x, double y)
+		{
+			_x = x;
+			_y = y;
+		}
+
+		@Override
+		public int compareTo(EventPoint that)
+		{
+			if (!MathUtilities.doubleEquals(_x, that._x)) return _x < that._x ? -1 : 1;
+			if (!MathUtilities.doubleEquals(_y, that._y)) return _y < that._y ? -1 : 1;
+			return 0;
+		}
+	}
+
+	// Searching the status for a point: orders below every segment passing through the point
+	private static final SweepSegment PROBE = new SweepSegment(-1, new Segment(Point.ORIGIN, Point.ORIGIN));
+
+	// Events: each maps to the segments starting at that point
+	protected TreeMap<EventPoint, List<SweepSegment>> _events;
+
+	// Status: segments crossing the sweep line, ordered bottom to top
+	protected TreeSet<SweepSegment> _status;
+
+	// The current event point; the status is ordered just after it (see compareInStatus)
+	protected EventPoint _sweep;
+
+	protected List<SegmentPairIntersection> _intersections;
+	protected Set<Long> _reportedPairs;
+
+	/**
+	 * @param segments -- a list of segments
+	 * @return every crossing pair of segments (indexed by position in @segments) with its intersection point
+	 */
+	public static List<SegmentPairIntersection> intersect(List<Segment> segments)
+	{
+		return new SweepLineIntersector().sweep(segments);
+	}
+
+	private SweepLineIntersector()
+	{
+		_events = new TreeMap<>();
+		_status = new TreeSet<>(this::compareInStatus);
+		_intersections = new ArrayList<>();
+		_reportedPairs = new HashSet<>();
+	}
+
+	private List<SegmentPairIntersection> sweep(List<Segment> segments)
+	{
+		for (int i = 0; i < segments.size(); i++)
+		{
+			SweepSegment s = new SweepSegment(i, segments.get(i));
+
+			_events.computeIfAbsent(new EventPoint(s._x1, s._y1), (k) -> new ArrayList<>()).add(s);
+			_events.computeIfAbsent(new EventPoint(s._x2, s._y2), (k) -> new ArrayList<>());
+		}
+
+		while (!_events.isEmpty())
+		{
+			Map.Entry<EventPoint, List<SweepSegment>> event = _events.pollFirstEntry();
+			handleEvent(event.getKey(), event.getValue());
+		}
+
+		Collections.sort(_intersections);
+
+		return _intersections;
+	}
+
+	private void handleEvent(EventPoint p, List<SweepSegment> upper)
+	{
+		_sweep = p;
+
+		// Segments in the status passing through p, a run just above PROBE, removed as they are
+		// found: ending at p (lower) or containing p (interior)
+		List<SweepSegment> lower = new ArrayList<>();
+		List<SweepSegment> interior = new ArrayList<>();
+		for (Iterator<SweepSegment> it = _status.tailSet(PROBE, false).iterator(); it.hasNext(); )
+		{
+			SweepSegment s = it.next();
+			if (!passesThrough(s, p)) break;
+
+			it.remove();
+
+			if (p.compareTo(new EventPoint(s._x2, s._y2)) == 0) lower.add(s);
+			else interior.add(s);
+		}
+
+		// Floating-point crossings may land a hair off an endpoint; examine every segment at p
+		List<SweepSegment> through = new ArrayList<>(upper);
+		through.addAll(lower);
+		through.addAll(interior);
+		reportCrossings(through);
+
+		// Degenerate (single point) segments are examined at their event only; never in the status
+		List<SweepSegment> inserted = new ArrayList<>(interior);
+		upper.stream().filter((s) -> !s._degenerate).forEach(inserted::add);
+		_status.addAll(inserted);
+
+		if (inserted.isEmpty())
+		{
+			findNewEvent(_status.lower(PROBE), _status.higher(PROBE), p);
+			return;
+		}
+
+		SweepSegment lowest = Collections.min(inserted, _status.comparator());
+		SweepSegment highest = Collections.max(inserted, _status.comparator());
+
+		findNewEvent(_status.lower(lowest), lowest, p);
+		findNewEvent(highest, _status.higher(highest), p);
+	}
+
+	/**
+	 * Report every crossing among segments passing through the same point
+	 */
+	private void reportCrossings(List<SweepSegment> through)
+	{
+		for (int i = 0; i < through.size() - 1; i++)
+		{
+			for (int j = i + 1; j < through.size(); j++)
+			{
+				SweepSegment a = through.get(i);
+				SweepSegment b = through.get(j);
+
+				Point inter = crossing(a, b);
+				if (inter == null) continue;
+
+				int first = Math.min(a._index, b._index);
+				int second = Math.max(a._index, b._index);
+				if (_reportedPairs.add(((long) first << 32) | second))
+				{
+					_intersections.add(new SegmentPairIntersection(first, second, inter));
+				}
+			}
+		}
+	}
+
+	/**
+	 * If neighbors @below and @above cross to the right of @p, schedule their crossing
+	 */
+	private void findNewEvent(SweepSegment below, SweepSegment above, EventPoint p)
+	{
+		if (below == null || above == null) return;
+
+		Point inter = crossing(below, above);
+		if (inter == null) return;
+
+		EventPoint q = new EventPoint(inter.getX(), inter.getY());
+		if (q.compareTo(p) > 0) _events.putIfAbsent(q, new ArrayList<>());
+	}
+
+	/**
+	 * @return the crossing of the two segments exactly as the pairwise algorithm computes it
+	 */
+	private static Point crossing(SweepSegment a, SweepSegment b)
+	{
+		return a._index < b._index ? a._segment.segmentIntersection(b._segment)
+				                   : b._segment.segmentIntersection(a._segment);
+	}
+
+	/**
+	 * @return the y-coordinate of @s on the sweep line (vertical segments sit at the event point)
+	 */
+	private double yOnSweepLine(SweepSegment s)
+	{
+		if (s._vertical) return Math.max(s._y1, Math.min(s._y2, _sweep._y));
+
+		return s._y1 + (_sweep._x - s._x1) * s._slope;
+	}
+
+	private boolean passesThrough(SweepSegment s, EventPoint p)
+	{
+		if (s._vertical)
+		{
+			return MathUtilities.doubleEquals(s._x1, p._x) &&
+				   MathUtilities.doubleGEQ(p._y, s._y1) &&
+				   MathUtilities.doubleLEQ(p._y, s._y2);
+		}
+
+		return MathUtilities.doubleEquals(yOnSweepLine(s), p._y);
+	}
+
+	/**
+	 * @return the height of @s in the status order: the event point's y if @s passes through it
+	 *         (PROBE always does), otherwise its y-coordinate on the sweep line
+	 */
+	private double heightInStatus(SweepSegment s)
+	{
+		if (s == PROBE || passesThrough(s, _sweep)) return _sweep._y;
+
+		return yOnSweepLine(s);
+	}
+
+	/**
+	 * Order segments bottom to top just after the current event point: by height (exactly, so
+	 * the order is transitive), then PROBE below the segments through the point, then by slope
+	 * and by index (a stable ID) for collinear segments. For a fixed event this is a total order.
+	 */
+	private int compareInStatus(SweepSegment a, SweepSegment b)
+	{
+		if (a == b) return 0;
+
+		double ya = heightInStatus(a);
+		double yb = heightInStatus(b);
+		if (ya != yb) return ya < yb ? -1 : 1;
+
+		if (a == PROBE) return -1;
+		if (b == PROBE) return 1;
+
+		int bySlope = Double.compare(a._slope, b._slope);
+		if (bySlope != 0) return bySlope;
+
+		return Integer.compare(a._index, b._index);
+	}
+}
@@ -0,0 +1,72 @@
+package utilities.concurrent;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The one executor setting shared by every engine of the preprocessing pipeline:
+ * the stages of PreprocessingPipeline and the parallel intersection strategy.
+ *
+ * The default is the common ForkJoinPool. Executors created here are owned by the
+ * caller (shut them down when done).
+ */
+public final class PipelineExecutor
+{
+	// Runs every task in the calling thread: the pipeline runs sequentially
+	public static final Executor CALLER_THREAD = Runnable::run;
+
+	private static volatile Executor _executor = ForkJoinPool.commonPool();
+
+	private PipelineExecutor() { }
+
+	public static Executor get() { return _executor; }
+
+	/**
+	 * @param executor -- the executor for all later pipeline work (not null)
+	 */
+	public static void set(Executor executor)
+	{
+		if (executor == null) throw new IllegalArgumentException("The pipeline executor cannot be null");
+
+		_executor = executor;
+	}
+
+	/**
+	 * @return a fork / join pool of the given parallelism
+	 */
+	public static ForkJoinPool forkJoin(int parallelism)
+	{
+		return new ForkJoinPool(parallelism);
+	}
+
+	/**
+	 * @return a pool of platform (daemon) threads
+	 */
+	public static ExecutorService platform(int threads)
+	{
+		return Executors.newFixedThreadPool(threads, (task) ->
+		{
+			Thread thread = new Thread(task, "pipeline");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * @return an executor starting a virtual thread per task
+	 * @throws UnsupportedOperationException -- if the runtime has no virtual threads (before Java 21)
+	 */
+	public static ExecutorService virtualThreads()
+	{
+		try
+		{
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		}
+		catch (ReflectiveOperationException e)
+		{
+			throw new UnsupportedOperationException("Virtual threads are not available in this runtime", e);
+		}
+	}
+}
@@ -0,0 +1,210 @@
+package utilities.concurrent;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * A dependency graph of computation stages run on an executor.
+ *
+ * A stage is added with the stages it depends on (added before it, so the graph is
+ * acyclic) and is submitted as soon as they complete; stages that do not depend on each
+ * other may run concurrently. Results pass from stage to stage through get.
+ *
+ * A stage runs once, on whichever thread claims it first: a thread waiting in get or await
+ * runs every ready stage no pool thread has started, and only blocks while the stages it
+ * needs are running elsewhere. Waiting never depends on queued work, so a graph awaited
+ * from a task of a bounded (even one-thread) pool cannot deadlock.
+ *
+ * On an executor that runs tasks in the calling thread the stages run in the order added.
+ */
+public class StageGraph
+{
+	/**
+	 * A stage of the graph and, once it has completed, its result
+	 */
+	public static final class Stage<T>
+	{
+		private final String _name;
+		private final StageGraph _graph;
+		private final Supplier<T> _work;
+		private final Stage<?>[] _dependencies;
+
+		private final CompletableFuture<T> _future;
+		private final AtomicBoolean _claimed;
+
+		private Stage(String name, StageGraph graph, Supplier<T> work, Stage<?>[] dependencies)
+		{
+			_name = name;
+			_graph = graph;
+			_work = work;
+			_dependencies = dependencies;
+			_future = new CompletableFuture<T>();
+			_claimed = new AtomicBoolean();
+		}
+
+		public String getName() { return _name; }
+
+		/**
+		 * @return the result of the stage (running ready stages, or waiting, if need be)
+		 */
+		public T get()
+		{
+			_graph.help(this);
+
+			return _future.join();
+		}
+
+		/**
+		 * @return true if every dependency has completed
+		 */
+		private boolean isReady()
+		{
+			for (Stage<?> dependency : _dependencies)
+			{
+				if (!dependency._future.isDone()) return false;
+			}
+
+			return true;
+		}
+
+		/**
+		 * Run the stage, unless another thread has claimed it; a stage with a failed
+		 * dependency fails with the same cause.
+		 */
+		private void run()
+		{
+			if (!_claimed.compareAndSet(false, true)) return;
+
+			try
+			{
+				for (Stage<?> dependency : _dependencies)
+				{
+					if (dependency._future.isCompletedExceptionally()) dependency._future.join();
+				}
+
+				_future.complete(_work.get());
+			}
+			catch (CompletionException e)
+			{
+				_future.completeExceptionally(e.getCause());
+			}
+			catch (Throwable t)
+			{
+				_future.completeExceptionally(t);
+			}
+			finally
+			{
+				_graph.completed();
+			}
+		}
+
+		@Override
+		public String toString() { return _name; }
+	}
+
+	protected Executor _executor;
+	protected List<Stage<?>> _stages;
+
+	// The number of stages completed; waiting threads are notified of each
+	protected long _completed;
+
+	public StageGraph(Executor executor)
+	{
+		_executor = executor;
+		_stages = new CopyOnWriteArrayList<Stage<?>>();
+	}
+
+	/**
+	 * @param name -- the name of the stage
+	 * @param work -- the computation of the stage
+	 * @param dependencies -- the stages that must complete first
+	 * @return the new stage
+	 */
+	public <T> Stage<T> add(String name, Supplier<T> work, Stage<?>... dependencies)
+	{
+		Stage<T> stage = new Stage<T>(name, this, work, dependencies.clone());
+		_stages.add(stage);
+
+		CompletableFuture<?>[] ready = new CompletableFuture<?>[dependencies.length];
+		for (int d = 0; d < dependencies.length; d++) ready[d] = dependencies[d]._future;
+
+		CompletableFuture.allOf(ready).whenComplete((v, failure) -> _executor.execute(stage::run));
+
+		return stage;
+	}
+
+	/**
+	 * Wait for every stage to complete.
+	 * @throws RuntimeException -- the failure of the first failed stage (in the order added)
+	 */
+	public void await()
+	{
+		try
+		{
+			for (Stage<?> stage : _stages) stage.get();
+		}
+		catch (CompletionException e)
+		{
+			if (e.getCause() instanceof RuntimeException cause) throw cause;
+			if (e.getCause() instanceof Error cause) throw cause;
+			throw e;
+		}
+	}
+
+	/**
+	 * Until @stage completes: run the ready stages no thread has claimed, in the order
+	 * added, and wait for a stage to complete when every ready stage is running elsewhere.
+	 */
+	private void help(Stage<?> stage)
+	{
+		while (!stage._future.isDone())
+		{
+			long completed;
+			synchronized (this) { completed = _completed; }
+
+			Stage<?> ready = claimable();
+			if (ready != null)
+			{
+				ready.run();
+				continue;
+			}
+
+			synchronized (this)
+			{
+				while (_completed == completed && !stage._future.isDone())
+				{
+					try { wait(); }
+					catch (InterruptedException e)
+					{
+						Thread.currentThread().interrupt();
+						throw new CompletionException(e);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return the first ready stage no thread has claimed (null if none)
+	 */
+	private Stage<?> claimable()
+	{
+		for (Stage<?> stage : _stages)
+		{
+			if (!stage._claimed.get() && stage.isReady()) return stage;
+		}
+
+		return null;
+	}
+
+	private synchronized void completed()
+	{
+		_completed++;
+		notifyAll();
+	}
+}
@@ -0,0 +1,91 @@
+package utilities.concurrent;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A thread-safe map holding its values weakly: a value no longer referenced elsewhere is
+ * collected and its entry dropped, so the map only grows with the values still in use.
+ *
+ * Keys are held strongly and must not refer to their values (or the values are never
+ * collected). Entries of collected values are purged on each update.
+ */
+public class WeakValueMap<K, V>
+{
+	// A weakly held value and the key of its entry
+	private static final class Entry<K, V> extends WeakReference<V>
+	{
+		private final K _key;
+
+		private Entry(K key, V value, ReferenceQueue<V> queue)
+		{
+			super(value, queue);
+			_key = key;
+		}
+	}
+
+	private final ConcurrentHashMap<K, Entry<K, V>> _entries = new ConcurrentHashMap<>();
+	private final ReferenceQueue<V> _collected = new ReferenceQueue<>();
+
+	/**
+	 * @return the value of @key; null if there is none or it has been collected
+	 */
+	public V get(K key)
+	{
+		Entry<K, V> entry = _entries.get(key);
+
+		return entry == null ? null : entry.get();
+	}
+
+	/**
+	 * @return the value of @key if it is still held; otherwise @value, now stored under @key
+	 */
+	public V putIfAbsent(K key, V value)
+	{
+		purge();
+
+		Entry<K, V> fresh = new Entry<>(key, value, _collected);
+		while (true)
+		{
+			Entry<K, V> entry = _entries.putIfAbsent(key, fresh);
+			if (entry == null) return value;
+
+			V existing = entry.get();
+			if (existing != null) return existing;
+
+			if (_entries.replace(key, entry, fresh)) return value;
+		}
+	}
+
+	public void remove(K key)
+	{
+		purge();
+
+		_entries.remove(key);
+	}
+
+	/**
+	 * @return true if there are no entries (entries of collected values count until purged)
+	 */
+	public boolean isEmpty() { return _entries.isEmpty(); }
+
+	/**
+	 * @return the number of entries, including any of collected values not yet purged
+	 */
+	public int size() { return _entries.size(); }
+
+	/**
+	 * Drop the entries of collected values
+	 */
+	@SuppressWarnings("unchecked")
+	private void purge()
+	{
+		for (Reference<? extends V> collected; (collected = _collected.poll()) != null; )
+		{
+			Entry<K, V> entry = (Entry<K, V>) collected;
+			_entries.remove(entry._key, entry);
+		}
+	}
+}
@@ -6,6 +6,7 @@ package utilities.eq_classes;
  * @date 9/23
  */
 import java.util.Comparator;
+import java.util.List;
 
 public class LinkedEquivalenceClass<T> extends LinkedList<T>
 {	
@@ -29,6 +30,11 @@ public class LinkedEquivalenceClass<T> extends LinkedList<T>
 	 */
 	public T canonical() { return _canonical; }
 	
+	/**
+	 * @return the elements of _rest, front to back (does not include canonical)
+	 */
+	public List<T> rest() { return _rest.toList(); }
+
 	/**
 	 * @return true if _rest is empty, false if not
 	 * does not consider canonical value
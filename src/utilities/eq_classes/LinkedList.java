@@ -1,5 +1,8 @@
 package utilities.eq_classes;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Generic LinkedList implementation. Contains a private generic Node class.
  * @author James, Ian, Hanna
@@ -179,6 +182,16 @@ public class LinkedList<T>
     	_size++;
     }
 
+    /**
+     * @return the elements, front to back
+     */
+    public List<T> toList()
+    {
+    	List<T> list = new ArrayList<T>(_size);
+    	for (Node<T> n = _head._next; n != _tail; n = n._next) list.add(n._data);
+    	return list;
+    }
+
     /**
      * format: "null, x, y, z, null"
      * @return String representation of LinkedList object
@@ -0,0 +1,62 @@
+package utilities.math;
+
+/**
+ * Hash mixing for geometric objects.
+ * 
+ * Objects hash to 64 bits and fold to an int only for hashCode; combining
+ * unordered parts sorts the part hashes first, so the result does not depend
+ * on the order of the parts (AB and BA) while the parts are still well mixed.
+ */
+public class HashUtilities
+{
+    // 2^64 / golden ratio: spreads consecutive values across all bits
+    private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+
+    /**
+     * The MurmurHash3 64-bit finalizer: every input bit affects every output bit.
+     * 
+     * @param z
+     */
+    public static long mix(long z)
+    {
+        z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+        z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return z ^ (z >>> 33);
+    }
+
+    /**
+     * @return a hash of the ordered pair (a, b)
+     */
+    public static long combine(long a, long b)
+    {
+        return mix(mix(a) * GOLDEN + b);
+    }
+
+    /**
+     * @return a hash of the unordered pair {a, b}
+     */
+    public static long unordered(long a, long b)
+    {
+        return a <= b ? combine(a, b) : combine(b, a);
+    }
+
+    /**
+     * @return a hash of the unordered triple {a, b, c}
+     */
+    public static long unordered(long a, long b, long c)
+    {
+        long lo = Math.min(a, Math.min(b, c));
+        long hi = Math.max(a, Math.max(b, c));
+        long mid = a ^ b ^ c ^ lo ^ hi;
+
+        return combine(combine(lo, mid), hi);
+    }
+
+    /**
+     * @return the 64-bit hash folded to an int
+     */
+    public static int fold(long h)
+    {
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -30,6 +30,22 @@ public class MathUtilities
     	return value / Math.pow(10, EPSILON_POWER - 1);
     }
 
+    // Quantization resolution: removeLessEpsilon keeps this many units per 1
+    public static final double TICKS_PER_UNIT = Math.pow(10, EPSILON_POWER - 1);
+
+    /**
+     * The fixed-point form of removeLessEpsilon: the number of whole ticks (1 / TICKS_PER_UNIT)
+     * in x, truncated toward zero. Within the int range,
+     *     removeLessEpsilon(x) == quantize(x) / TICKS_PER_UNIT
+     * so comparing ticks compares the truncated values.
+     * 
+     * @param x
+     */
+    public static long quantize(double x)
+    {
+    	return (long)(x * TICKS_PER_UNIT);
+    }
+
     public static boolean doubleGEQ(double a, double b) {
         if (doubleEquals(a, b)) return true;
 
@@ -0,0 +1,78 @@
+package utilities.math.analytic_geometry;
+
+import geometry_objects.points.Point;
+import utilities.math.MathUtilities;
+
+/**
+ * Filtered geometric predicates.
+ *
+ * Each predicate first decides with cheap orientation (cross product) and
+ * dot product tests; only inputs too close to the decision boundary for the
+ * filter fall back to the exact (reference) definition in GeometryUtilities.
+ * The answers are therefore always those of GeometryUtilities.
+ */
+public class GeometryPredicates
+{
+	// Filter margins around EPSILON: clear rejections exceed twice EPSILON,
+	// clear acceptances are under half of it; anything in between is decided exactly
+	private static final double REJECT_EPSILON = 2 * MathUtilities.EPSILON;
+	private static final double ACCEPT_EPSILON = MathUtilities.EPSILON / 2;
+
+	/**
+	 * @return twice the signed area of triangle ABC:
+	 *         positive if A, B, C turn counterclockwise, negative if clockwise, zero if collinear
+	 */
+	public static double orientation(double ax, double ay, double bx, double by, double cx, double cy)
+	{
+		return (bx - ax) * (cy - ay) - (by - ay) * (cx - ax);
+	}
+
+	/*
+	 * @param M -- a point
+	 * @param A -- a point
+	 * @param B -- a point
+	 * @return true if the three points are (1) collinear and (2) M is between A and B
+	 *         exactly as GeometryUtilities.between
+	 */
+	public static boolean between(Point M, Point A, Point B)
+	{
+		return between(M.getX(), M.getY(), A.getX(), A.getY(), B.getX(), B.getY());
+	}
+
+	/*
+	 * GeometryUtilities.between accepts M when the excess E = |AM| + |MB| - |AB| < EPSILON.
+	 * With h the distance from M to line AB and s the position of M's projection along AB:
+	 *     E >= sqrt(|AB|^2 + 4h^2) - |AB|            (for all s)
+	 *     E >= 2|s|, 2(s - |AB|)                      (beyond A, beyond B)
+	 *     E <= h^2 |AB| / (2 s (|AB| - s))            (for 0 < s < |AB|)
+	 * where h = cross / |AB| and s = dot / |AB|. Every bound is evaluated without a square root
+	 * (|AB| is bounded above by |dx| + |dy|, which only makes each test stricter).
+	 */
+	public static boolean between(double mx, double my, double ax, double ay, double bx, double by)
+	{
+		double dx = bx - ax;
+		double dy = by - ay;
+		double lengthSquared = dx * dx + dy * dy;
+
+		// Degenerate segment
+		if (lengthSquared == 0) return GeometryUtilities.between(mx, my, ax, ay, bx, by);
+
+		double lengthBound = Math.abs(dx) + Math.abs(dy);
+		double cross = orientation(ax, ay, bx, by, mx, my);
+		double dot = dx * (mx - ax) + dy * (my - ay);
+
+		// Clearly off the line
+		if (4 * cross * cross >= lengthSquared * REJECT_EPSILON * (2 * lengthBound + REJECT_EPSILON)) return false;
+
+		// Clearly beyond an endpoint
+		if (dot <= -REJECT_EPSILON * lengthBound / 2) return false;
+		if (dot >= lengthSquared + REJECT_EPSILON * lengthBound / 2) return false;
+
+		// Clearly between the endpoints, (nearly) on the line
+		if (dot > 0 && dot < lengthSquared &&
+			cross * cross * lengthBound < 2 * ACCEPT_EPSILON * dot * (lengthSquared - dot)) return true;
+
+		// Near-degenerate: decide exactly
+		return GeometryUtilities.between(mx, my, ax, ay, bx, by);
+	}
+}
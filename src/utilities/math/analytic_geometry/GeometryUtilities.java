@@ -13,8 +13,16 @@ public class GeometryUtilities
      */
     public static double distance(Point p1, Point p2)
     {
-        return Math.sqrt(Math.pow(p2.getX() - p1.getX(), 2) +
-                         Math.pow(p2.getY() - p1.getY(), 2));
+        return distance(p1.getX(), p1.getY(), p2.getX(), p2.getY());
+    }
+
+    /**
+     * @return The distance between points (x1, y1) and (x2, y2)
+     */
+    public static double distance(double x1, double y1, double x2, double y2)
+    {
+        return Math.sqrt(Math.pow(x2 - x1, 2) +
+                         Math.pow(y2 - y1, 2));
     }
     
 	/*
@@ -27,9 +35,17 @@ public class GeometryUtilities
 	 */
 	public static boolean between(Point M, Point A, Point B)
 	{
-		return MathUtilities.doubleEquals(GeometryUtilities.distance(A, M) +
-                                          GeometryUtilities.distance(M, B),
-                                          GeometryUtilities.distance(A, B));
+		return between(M.getX(), M.getY(), A.getX(), A.getY(), B.getX(), B.getY());
+	}
+
+	/*
+	 * As between(Point, Point, Point) on raw coordinates: M = (mx, my), A = (ax, ay), B = (bx, by)
+	 */
+	public static boolean between(double mx, double my, double ax, double ay, double bx, double by)
+	{
+		return MathUtilities.doubleEquals(distance(ax, ay, mx, my) +
+                                          distance(mx, my, bx, by),
+                                          distance(ax, ay, bx, by));
 	}
     
     /*
@@ -0,0 +1,239 @@
+package utilities.persistent;
+
+/**
+ * An immutable hash map: put returns a new map and leaves this one unchanged.
+ *
+ * A hash array mapped trie (HAMT): each level consumes 5 bits of the key's hash,
+ * and a node stores only its occupied slots, located through a 32-bit bitmap.
+ * A put copies the O(log n) nodes on the path to the key; every other node is
+ * shared with the original map. Keys with equal hashes share a collision node.
+ *
+ * Nodes are never modified once built, so any number of threads may read a map
+ * (and every map derived from it) without synchronization.
+ *
+ * Keys must be non-null and have equals consistent with hashCode.
+ */
+public final class PersistentHashMap<K, V>
+{
+	private static final int BITS = 5;
+	private static final int MASK = (1 << BITS) - 1;
+
+	private static final PersistentHashMap<?, ?> EMPTY = new PersistentHashMap<Object, Object>(null, 0);
+
+	private final Node _root;
+	private final int _size;
+
+	public int size() { return _size; }
+	public boolean isEmpty() { return _size == 0; }
+
+	private PersistentHashMap(Node root, int size)
+	{
+		_root = root;
+		_size = size;
+	}
+
+	@SuppressWarnings("unchecked")
+	public static <K, V> PersistentHashMap<K, V> empty()
+	{
+		return (PersistentHashMap<K, V>) EMPTY;
+	}
+
+	/**
+	 * @param key -- a key
+	 * @return the value mapped to @key; null if there is none
+	 */
+	@SuppressWarnings("unchecked")
+	public V get(Object key)
+	{
+		return _root == null ? null : (V) _root.get(0, key.hashCode(), key);
+	}
+
+	public boolean containsKey(Object key)
+	{
+		return get(key) != null;
+	}
+
+	/**
+	 * @param key -- a non-null key
+	 * @param value -- a non-null value
+	 * @return a map with @key mapped to @value (this map if it already is)
+	 */
+	public PersistentHashMap<K, V> put(K key, V value)
+	{
+		boolean[] added = new boolean[1];
+
+		Node root = (_root == null ? BitmapNode.EMPTY : _root).put(0, key.hashCode(), key, value, added);
+		if (root == _root) return this;
+
+		return new PersistentHashMap<K, V>(root, added[0] ? _size + 1 : _size);
+	}
+
+	private static int bit(int hash, int shift)
+	{
+		return 1 << ((hash >>> shift) & MASK);
+	}
+
+	private static abstract class Node
+	{
+		abstract Object get(int shift, int hash, Object key);
+
+		/**
+		 * @param added -- set to true if @key was not in this subtree
+		 * @return this subtree with @key mapped to @value (this node if unchanged)
+		 */
+		abstract Node put(int shift, int hash, Object key, Object value, boolean[] added);
+	}
+
+	//
+	// Occupied slots, in slot order, as pairs in _array: (key, value) for an entry,
+	// (null, child node) for a subtree
+	//
+	private static final class BitmapNode extends Node
+	{
+		private static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+		private final int _bitmap;
+		private final Object[] _array;
+
+		BitmapNode(int bitmap, Object[] array)
+		{
+			_bitmap = bitmap;
+			_array = array;
+		}
+
+		private int index(int bit)
+		{
+			return 2 * Integer.bitCount(_bitmap & (bit - 1));
+		}
+
+		@Override
+		Object get(int shift, int hash, Object key)
+		{
+			int bit = bit(hash, shift);
+			if ((_bitmap & bit) == 0) return null;
+
+			int i = index(bit);
+			if (_array[i] == null) return ((Node) _array[i + 1]).get(shift + BITS, hash, key);
+
+			return key.equals(_array[i]) ? _array[i + 1] : null;
+		}
+
+		@Override
+		Node put(int shift, int hash, Object key, Object value, boolean[] added)
+		{
+			int bit = bit(hash, shift);
+			int i = index(bit);
+
+			// An empty slot: insert the entry
+			if ((_bitmap & bit) == 0)
+			{
+				Object[] array = new Object[_array.length + 2];
+				System.arraycopy(_array, 0, array, 0, i);
+				array[i] = key;
+				array[i + 1] = value;
+				System.arraycopy(_array, i, array, i + 2, _array.length - i);
+
+				added[0] = true;
+				return new BitmapNode(_bitmap | bit, array);
+			}
+
+			Object k = _array[i];
+			Object v = _array[i + 1];
+
+			// A subtree: put below
+			if (k == null)
+			{
+				Node child = ((Node) v).put(shift + BITS, hash, key, value, added);
+				return child == v ? this : with(i, null, child);
+			}
+
+			// The same key: replace the value
+			if (key.equals(k)) return v == value ? this : with(i, k, value);
+
+			// Another key: push both down into a new subtree
+			added[0] = true;
+			return with(i, null, pair(shift + BITS, k, v, hash, key, value));
+		}
+
+		/**
+		 * @return a copy of this node with the pair at @i replaced
+		 */
+		private BitmapNode with(int i, Object key, Object value)
+		{
+			Object[] array = _array.clone();
+			array[i] = key;
+			array[i + 1] = value;
+
+			return new BitmapNode(_bitmap, array);
+		}
+	}
+
+	/**
+	 * @return a subtree (at @shift) holding two distinct keys
+	 */
+	private static Node pair(int shift, Object key1, Object value1, int hash2, Object key2, Object value2)
+	{
+		int hash1 = key1.hashCode();
+		if (hash1 == hash2) return new CollisionNode(hash1, new Object[] { key1, value1, key2, value2 });
+
+		boolean[] added = new boolean[1];
+		return BitmapNode.EMPTY.put(shift, hash1, key1, value1, added).put(shift, hash2, key2, value2, added);
+	}
+
+	//
+	// Entries whose keys have the same full hash: (key, value) pairs in _array
+	//
+	private static final class CollisionNode extends Node
+	{
+		private final int _hash;
+		private final Object[] _array;
+
+		CollisionNode(int hash, Object[] array)
+		{
+			_hash = hash;
+			_array = array;
+		}
+
+		@Override
+		Object get(int shift, int hash, Object key)
+		{
+			if (hash != _hash) return null;
+
+			for (int i = 0; i < _array.length; i += 2)
+			{
+				if (key.equals(_array[i])) return _array[i + 1];
+			}
+
+			return null;
+		}
+
+		@Override
+		Node put(int shift, int hash, Object key, Object value, boolean[] added)
+		{
+			// A different hash: this node moves down a level beside the new key
+			if (hash != _hash)
+			{
+				return new BitmapNode(bit(_hash, shift), new Object[] { null, this }).put(shift, hash, key, value, added);
+			}
+
+			for (int i = 0; i < _array.length; i += 2)
+			{
+				if (!key.equals(_array[i])) continue;
+
+				if (_array[i + 1] == value) return this;
+
+				Object[] array = _array.clone();
+				array[i + 1] = value;
+				return new CollisionNode(_hash, array);
+			}
+
+			Object[] array = new Object[_array.length + 2];
+			System.arraycopy(_array, 0, array, 0, _array.length);
+			array[_array.length] = key;
+			array[_array.length + 1] = value;
+
+			added[0] = true;
+			return new CollisionNode(_hash, array);
+		}
+	}
+}
@@ -0,0 +1,83 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import geometry_objects.Segment;
+import geometry_objects.points.Point;
+import geometry_objects.points.PointDatabase;
+import input.InputFacade;
+
+/**
+ * Figures for benchmarks: the jsonfiles corpus, scaled up by tiling copies of each figure.
+ */
+public class BenchmarkFigures
+{
+	public static final String[] CORPUS = { "collinear_line_segments", "crossed_square", "crossing_symmetric_triangle",
+			                                "fully_connected_irregular_polygon", "line_seg", "single_triangle", "snake",
+			                                "square_tri", "star", "Tri_Quad" };
+
+	/**
+	 * @param figure -- a figure name from the corpus
+	 * @return the segments of the figure
+	 */
+	public static List<Segment> segments(String figure)
+	{
+		Map.Entry<PointDatabase, Set<Segment>> pair = InputFacade.toGeometryRepresentation("jsonfiles/" + figure + ".json");
+
+		return new ArrayList<Segment>(pair.getValue());
+	}
+
+	/**
+	 * @param segments -- the segments of a figure
+	 * @param copies -- the number of copies per row (and column)
+	 * @return copies x copies translated copies of the figure, side by side on a grid (uniquely named points)
+	 */
+	public static List<Segment> tile(List<Segment> segments, int copies)
+	{
+		double width = 1;
+		double height = 1;
+		for (Segment segment : segments)
+		{
+			width = Math.max(width, Math.max(segment.getPoint1().getX(), segment.getPoint2().getX()) + 1);
+			height = Math.max(height, Math.max(segment.getPoint1().getY(), segment.getPoint2().getY()) + 1);
+		}
+
+		List<Segment> tiled = new ArrayList<Segment>();
+		for (int row = 0; row < copies; row++)
+		{
+			for (int col = 0; col < copies; col++)
+			{
+				for (Segment segment : segments)
+				{
+					tiled.add(new Segment(translate(segment.getPoint1(), row, col, col * width, row * height),
+							              translate(segment.getPoint2(), row, col, col * width, row * height)));
+				}
+			}
+		}
+
+		return tiled;
+	}
+
+	private static Point translate(Point pt, int row, int col, double dx, double dy)
+	{
+		return new Point(pt.getName() + "_" + row + "_" + col, pt.getX() + dx, pt.getY() + dy);
+	}
+
+	/**
+	 * @return all distinct endpoints of the segments
+	 */
+	public static List<Point> endpoints(List<Segment> segments)
+	{
+		PointDatabase points = new PointDatabase();
+		for (Segment segment : segments)
+		{
+			points.put(segment.getPoint1().getName(), segment.getPoint1().getX(), segment.getPoint1().getY());
+			points.put(segment.getPoint2().getName(), segment.getPoint2().getX(), segment.getPoint2().getY());
+		}
+
+		return new ArrayList<Point>(points.getPoints());
+	}
+}
@@ -0,0 +1,123 @@
+package benchmarks;
+
+import java.util.List;
+
+import geometry_objects.Segment;
+import geometry_objects.delegates.intersections.LineIntersectionDelegate;
+import geometry_objects.points.Point;
+import utilities.math.analytic_geometry.GeometryUtilities;
+
+/**
+ * Envelope (bounding box) rejection rates on the jsonfiles corpus, tiled to scale:
+ *   * segment / segment intersection (Segment.envelopeIntersects)
+ *   * point on segment (Segment.envelopeContains)
+ * and all-pairs timings with rejection (Segment API) vs. unfiltered line math.
+ * 
+ * Usage: EnvelopeRejectBenchmark [copies per row; default 12]
+ */
+public class EnvelopeRejectBenchmark
+{
+	public static void main(String[] args)
+	{
+		int copies = args.length > 0 ? Integer.parseInt(args[0]) : 12;
+
+		System.out.printf("%-36s %8s %12s %10s %12s %10s %10s %10s%n", "figure (" + copies + "x" + copies + ")",
+				          "segments", "seg pairs", "rejected", "pt / seg", "rejected", "API ms", "raw ms");
+
+		for (String figure : BenchmarkFigures.CORPUS)
+		{
+			List<Segment> segments = BenchmarkFigures.tile(BenchmarkFigures.segments(figure), copies);
+			List<Point> points = BenchmarkFigures.endpoints(segments);
+
+			long segmentPairs = 0, segmentRejects = 0;
+			for (int i = 0; i < segments.size() - 1; i++)
+			{
+				for (int j = i + 1; j < segments.size(); j++)
+				{
+					segmentPairs++;
+					if (!segments.get(i).envelopeIntersects(segments.get(j))) segmentRejects++;
+				}
+			}
+
+			long pointPairs = 0, pointRejects = 0;
+			for (Segment segment : segments)
+			{
+				for (Point pt : points)
+				{
+					pointPairs++;
+					if (!segment.envelopeContains(pt.getX(), pt.getY())) pointRejects++;
+				}
+			}
+
+			System.out.printf("%-36s %8d %12d %9.2f%% %12d %9.2f%% %10.1f %10.1f%n", figure, segments.size(),
+					          segmentPairs, 100.0 * segmentRejects / segmentPairs,
+					          pointPairs, 100.0 * pointRejects / pointPairs,
+					          timeApi(segments, points), timeRaw(segments, points));
+		}
+	}
+
+	/**
+	 * @return milliseconds for all-pairs Segment.segmentIntersection and Segment.pointLiesOnSegment
+	 */
+	private static double timeApi(List<Segment> segments, List<Point> points)
+	{
+		long start = System.nanoTime();
+		int found = 0;
+
+		for (int i = 0; i < segments.size() - 1; i++)
+		{
+			for (int j = i + 1; j < segments.size(); j++)
+			{
+				if (segments.get(i).segmentIntersection(segments.get(j)) != null) found++;
+			}
+		}
+		for (Segment segment : segments)
+		{
+			for (Point pt : points)
+			{
+				if (segment.pointLiesOnSegment(pt)) found++;
+			}
+		}
+
+		return elapsed(start, found);
+	}
+
+	/**
+	 * @return milliseconds for the same work without envelope rejection
+	 */
+	private static double timeRaw(List<Segment> segments, List<Point> points)
+	{
+		long start = System.nanoTime();
+		int found = 0;
+		double[] xy = new double[2];
+
+		for (int i = 0; i < segments.size() - 1; i++)
+		{
+			for (int j = i + 1; j < segments.size(); j++)
+			{
+				Segment s1 = segments.get(i);
+				Segment s2 = segments.get(j);
+				if (LineIntersectionDelegate.intersection(s1, s2, xy) == LineIntersectionDelegate.INTERSECTION &&
+					GeometryUtilities.between(xy[0], xy[1], s1.getPoint1().getX(), s1.getPoint1().getY(), s1.getPoint2().getX(), s1.getPoint2().getY()) &&
+					GeometryUtilities.between(xy[0], xy[1], s2.getPoint1().getX(), s2.getPoint1().getY(), s2.getPoint2().getX(), s2.getPoint2().getY())) found++;
+			}
+		}
+		for (Segment segment : segments)
+		{
+			for (Point pt : points)
+			{
+				if (GeometryUtilities.between(pt, segment.getPoint1(), segment.getPoint2())) found++;
+			}
+		}
+
+		return elapsed(start, found);
+	}
+
+	private static double elapsed(long start, int found)
+	{
+		// Consume the result so the work is not optimized away
+		if (found < 0) System.out.println(found);
+
+		return (System.nanoTime() - start) / 1e6;
+	}
+}
@@ -0,0 +1,190 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToIntFunction;
+
+import exceptions.FactException;
+import geometry_objects.Segment;
+import geometry_objects.Triangle;
+import geometry_objects.points.Point;
+import utilities.math.MathUtilities;
+
+/**
+ * Hash quality of Point, Segment and Triangle on grid figures: an n x n lattice of
+ * points, its unit horizontal and vertical segments, one diagonal per cell and the
+ * two triangles of each cell.
+ * 
+ * For the current hashCode and the former additive one (sum of coordinate / endpoint
+ * hashes), reports the distinct hash codes, the longest HashMap bucket, the mean
+ * bucket length seen by a successful lookup and the HashMap lookup latency.
+ * 
+ * Usage: HashDistributionBenchmark [lattice sizes; default 50 100 200]
+ */
+public class HashDistributionBenchmark
+{
+	public static void main(String[] args) throws FactException
+	{
+		int[] sizes = args.length > 0 ? new int[args.length] : new int[]{ 50, 100, 200 };
+		for (int i = 0; i < args.length; i++) sizes[i] = Integer.parseInt(args[i]);
+
+		System.out.printf("%-10s %-9s %-9s %9s %9s %11s %11s %12s%n",
+				          "grid", "type", "hash", "entries", "distinct", "max bucket", "mean chain", "ns / lookup");
+
+		for (int n : sizes)
+		{
+			List<Point> points = new ArrayList<Point>();
+			List<Segment> segments = new ArrayList<Segment>();
+			List<Triangle> triangles = new ArrayList<Triangle>();
+			Map<Triangle, Integer> additiveTriangleHashes = new IdentityHashMap<Triangle, Integer>();
+			grid(n, points, segments, triangles, additiveTriangleHashes);
+
+			String grid = n + "x" + n;
+			report(grid, "Point", points, Point::hashCode, HashDistributionBenchmark::additiveHash);
+			report(grid, "Segment", segments, Segment::hashCode,
+				   (s) -> additiveHash(s.getPoint1()) + additiveHash(s.getPoint2()));
+			report(grid, "Triangle", triangles, Triangle::hashCode, additiveTriangleHashes::get);
+		}
+	}
+
+	/**
+	 * The n x n lattice, its unit segments and diagonals (lower left to upper right), and triangles
+	 * (with their additive hashes)
+	 */
+	private static void grid(int n, List<Point> points, List<Segment> segments, List<Triangle> triangles,
+	                         Map<Triangle, Integer> additive) throws FactException
+	{
+		Point[][] lattice = new Point[n][n];
+		for (int x = 0; x < n; x++)
+		{
+			for (int y = 0; y < n; y++)
+			{
+				lattice[x][y] = new Point("P_" + x + "_" + y, x, y);
+				points.add(lattice[x][y]);
+			}
+		}
+
+		for (int x = 0; x < n; x++)
+		{
+			for (int y = 0; y < n; y++)
+			{
+				if (x + 1 < n) segments.add(new Segment(lattice[x][y], lattice[x + 1][y]));
+				if (y + 1 < n) segments.add(new Segment(lattice[x][y], lattice[x][y + 1]));
+				if (x + 1 < n && y + 1 < n) segments.add(new Segment(lattice[x][y], lattice[x + 1][y + 1]));
+			}
+		}
+
+		for (int x = 0; x + 1 < n; x++)
+		{
+			for (int y = 0; y + 1 < n; y++)
+			{
+				Segment diagonal = new Segment(lattice[x][y], lattice[x + 1][y + 1]);
+
+				Triangle lower = new Triangle(List.of(new Segment(lattice[x][y], lattice[x + 1][y]),
+						                              new Segment(lattice[x + 1][y], lattice[x + 1][y + 1]), diagonal));
+				Triangle upper = new Triangle(List.of(new Segment(lattice[x][y], lattice[x][y + 1]),
+						                              new Segment(lattice[x][y + 1], lattice[x + 1][y + 1]), diagonal));
+
+				triangles.add(lower);
+				triangles.add(upper);
+				additive.put(lower, additiveHash(lattice[x][y]) + additiveHash(lattice[x + 1][y]) + additiveHash(lattice[x + 1][y + 1]));
+				additive.put(upper, additiveHash(lattice[x][y]) + additiveHash(lattice[x][y + 1]) + additiveHash(lattice[x + 1][y + 1]));
+			}
+		}
+	}
+
+	/**
+	 * The former Point hash: sum of the hashes of the truncated coordinates
+	 */
+	private static int additiveHash(Point pt)
+	{
+		return Double.hashCode(MathUtilities.removeLessEpsilon(pt.getX())) +
+			   Double.hashCode(MathUtilities.removeLessEpsilon(pt.getY()));
+	}
+
+	private static <T> void report(String grid, String type, List<T> objects,
+			                       ToIntFunction<T> current, ToIntFunction<T> additive)
+	{
+		report(grid, type, "current", objects, current);
+		report(grid, type, "additive", objects, additive);
+	}
+
+	private static <T> void report(String grid, String type, String hash, List<T> objects, ToIntFunction<T> hashFunction)
+	{
+		List<Keyed> keys = new ArrayList<Keyed>();
+		for (T object : objects) keys.add(new Keyed(object, hashFunction.applyAsInt(object)));
+
+		// HashMap's table: a power of two at load factor 0.75, indices from the spread hash
+		int capacity = Integer.highestOneBit(Math.max(1, (int) (keys.size() / 0.75f)) * 2 - 1);
+		Map<Integer, Integer> buckets = new HashMap<Integer, Integer>();
+		Set<Integer> distinct = new HashSet<Integer>();
+		for (Keyed key : keys)
+		{
+			distinct.add(key._hash);
+			buckets.merge((key._hash ^ (key._hash >>> 16)) & (capacity - 1), 1, Integer::sum);
+		}
+
+		long chain = 0;
+		int longest = 0;
+		for (int length : buckets.values())
+		{
+			chain += (long) length * length;
+			longest = Math.max(longest, length);
+		}
+
+		System.out.printf("%-10s %-9s %-9s %9d %9d %11d %11.2f %12.1f%n", grid, type, hash, keys.size(), distinct.size(),
+				          longest, (double) chain / keys.size(), lookupNanos(keys));
+	}
+
+	/**
+	 * @return the mean time of HashMap.get over every key (best of a few rounds)
+	 */
+	private static double lookupNanos(List<Keyed> keys)
+	{
+		Map<Keyed, Keyed> map = new HashMap<Keyed, Keyed>();
+		for (Keyed key : keys) map.put(key, key);
+
+		double best = Double.POSITIVE_INFINITY;
+		int found = 0;
+		for (int round = 0; round < 5; round++)
+		{
+			long start = System.nanoTime();
+			for (Keyed key : keys) if (map.get(key) != null) found++;
+			best = Math.min(best, (System.nanoTime() - start) / (double) keys.size());
+		}
+
+		// Consume the result so the work is not optimized away
+		if (found < 0) System.out.println(found);
+
+		return best;
+	}
+
+	/**
+	 * An object with a given hash code (equality is the object's own)
+	 */
+	private static class Keyed
+	{
+		protected Object _object;
+		protected int _hash;
+
+		protected Keyed(Object object, int hash)
+		{
+			_object = object;
+			_hash = hash;
+		}
+
+		@Override
+		public int hashCode() { return _hash; }
+
+		@Override
+		public boolean equals(Object obj)
+		{
+			return obj instanceof Keyed that && _object.equals(that._object);
+		}
+	}
+}
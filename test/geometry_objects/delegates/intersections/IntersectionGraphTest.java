@@ -0,0 +1,90 @@
+package geometry_objects.delegates.intersections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import geometry_objects.Segment;
+import geometry_objects.delegates.intersections.IntersectionGraph.Kind;
+import geometry_objects.points.Point;
+
+class IntersectionGraphTest
+{
+    /*
+     *   D       E
+     *    \     /
+     *     \   /
+     *      \ /
+     *       X
+     *      / \
+     *     /   \
+     *    A--F--B
+     *       |
+     *       G
+     *
+     * AB and AE share vertex A, AE and BD cross, FG stands on AB, AB and DE do not intersect
+     * lookups are by segment equality; AD is not in the graph
+     */
+    @Test
+    void testKinds()
+    {
+        Point a = new Point("A", 0, 0);
+        Point b = new Point("B", 4, 0);
+        Point d = new Point("D", 0, 4);
+        Point e = new Point("E", 4, 4);
+        Point f = new Point("F", 2, 0);
+        Point g = new Point("G", 2, -2);
+
+        Segment ab = new Segment(a, b);
+        Segment ae = new Segment(a, e);
+        Segment bd = new Segment(b, d);
+        Segment fg = new Segment(f, g);
+        Segment de = new Segment(d, e);
+
+        IntersectionGraph graph = IntersectionDelegate.intersectAll(List.of(ab, ae, bd, fg, de));
+
+        assertEquals(Kind.SHARED_VERTEX, graph.kind(ab, ae));
+        assertEquals(a, graph.intersection(ae, ab));
+
+        assertEquals(Kind.CROSSING, graph.kind(ae, bd));
+        assertEquals(Kind.CROSSING, graph.kind(bd, ae));
+        assertEquals(new Point(2, 2), graph.intersection(ae, bd));
+
+        assertEquals(Kind.STANDING_ON, graph.kind(fg, ab));
+        assertEquals(Kind.STANDING_ON, graph.kind(ab, fg));
+        assertEquals(f, graph.intersection(ab, fg));
+
+        assertNull(graph.get(ab, de));
+        assertEquals(b, graph.intersection(ab, new Segment(d, b)));
+        assertNull(graph.get(ab, new Segment(a, d)));
+    }
+    @Test
+    void testCrossingsMatchPairwise()
+    {
+        Random random = new Random(7);
+        List<Segment> segments = new ArrayList<Segment>();
+        for (int i = 0; i < 200; i++)
+        {
+            segments.add(new Segment(new Point(random.nextInt(20), random.nextInt(20)),
+                                     new Point(random.nextInt(20), random.nextInt(20))));
+        }
+
+        IntersectionGraph graph = IntersectionDelegate.intersectAll(segments);
+
+        List<Point> expected = new ArrayList<Point>();
+        for (int i = 0; i < segments.size() - 1; i++)
+        {
+            for (int j = i + 1; j < segments.size(); j++)
+            {
+                Point crossing = segments.get(i).segmentIntersection(segments.get(j));
+                if (crossing != null) expected.add(crossing);
+            }
+        }
+
+        assertEquals(expected, graph.getCrossings().stream().map(IntersectionGraph.Intersection::getPoint).toList());
+    }
+}
@@ -0,0 +1,147 @@
+package geometry_objects.points;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+class ConcurrentPointDatabaseTest
+{
+    /*
+     * the same naming rules as PointDatabase (sequential use)
+     * concurrent insertion: one point per coordinate pair, distinct names
+     * deferred names: parallel runs are named as the sequential run
+     */
+    @Test
+    void testSequential_sameAsPointDatabase()
+    {
+        Random random = new Random(7);
+        List<Point> initial = List.of(new Point("A", 0, 0), new Point(1, 0), new Point("C", 2, 0));
+
+        PointDatabase expected = new PointDatabase(initial);
+        PointDatabase actual = new ConcurrentPointDatabase(initial);
+
+        for (int i = 0; i < 300; i++)
+        {
+            double x = random.nextInt(8), y = random.nextInt(8);
+            String name = random.nextBoolean() ? "P" + random.nextInt(5) : Point.ANONYMOUS;
+
+            if (random.nextBoolean())
+            {
+                expected.put(x, y);
+                actual.put(x, y);
+            }
+            else
+            {
+                expected.put(name, x, y);
+                actual.put(name, x, y);
+            }
+
+            assertEquals(expected.getName(x, y), actual.getName(x, y));
+            assertEquals(expected.idOf(x, y), actual.idOf(x, y));
+            assertEquals(expected.getPoint(name), actual.getPoint(name));
+        }
+
+        assertEquals(expected.size(), actual.size());
+        assertEquals(new ArrayList<Point>(expected.getPoints()), new ArrayList<Point>(actual.getPoints()));
+        assertEquals(names(expected.getPoints()), names(actual.getPoints()));
+        assertEquals(expected.nearest(3.2, 4.9), actual.nearest(3.2, 4.9));
+    }
+    /*
+     * a later duplicate in the list replaces the stored value only: the first point keeps its
+     * database order and name, and the later name is not found (as in PointDatabase)
+     * the name tester takes names from the same sequence as put
+     */
+    @Test
+    void testDuplicates_sameAsPointDatabase()
+    {
+        List<Point> initial = List.of(new Point("A", 0, 0), new Point("B", 0, 0), new Point(1, 0),
+                                      new Point("C", 1, 0), new Point("D", 2, 0), new Point(2, 0));
+
+        PointDatabase expected = new PointDatabase(initial);
+        PointDatabase actual = new ConcurrentPointDatabase(initial);
+
+        assertEquals(names(expected.getPoints()), names(actual.getPoints()));
+        for (String name : List.of("A", "B", "C", "D", Point.ANONYMOUS))
+        {
+            assertEquals(expected.getPoint(name), actual.getPoint(name));
+            if (expected.getPoint(name) != null) assertEquals(expected.getPoint(name).getName(), actual.getPoint(name).getName());
+        }
+        for (int id = 0; id < expected.size(); id++) assertEquals(expected.pointAt(id).getName(), actual.pointAt(id).getName());
+        for (int x = 0; x < 3; x++) assertEquals(expected.getName(x, 0), actual.getName(x, 0));
+        assertEquals(expected.nearest(1, 1).getName(), actual.nearest(1, 1).getName());
+
+        ConcurrentPointNamingFactory factory = new ConcurrentPointNamingFactory();
+        assertEquals("*_A", factory.getCurrentNameTester());
+        assertEquals("*_B", factory.put(0, 0).getName());
+        assertEquals("*_C", factory.getCurrentNameTester());
+    }
+
+    private List<String> names(Set<Point> points)
+    {
+        return points.stream().map(Point::getName).toList();
+    }
+    @Test
+    void testConcurrentPut()
+    {
+        ConcurrentPointDatabase db = new ConcurrentPointDatabase();
+
+        // every thread adds every point of a 40 x 40 grid
+        IntStream.range(0, 8).parallel().forEach((thread) -> {
+            for (int i = 0; i < 1600; i++) db.put((i * 7 + thread) % 1600 / 40, i % 40);
+        });
+
+        assertEquals(1600, db.size());
+
+        Set<String> names = new HashSet<String>();
+        Set<Integer> ids = new HashSet<Integer>();
+        for (Point pt : db.getPoints())
+        {
+            names.add(pt.getName());
+            ids.add(db.idOf(pt));
+            assertSame(pt, db.getPoint(pt.getName()));
+            assertSame(pt, db.pointAt(db.idOf(pt)));
+        }
+
+        assertEquals(1600, names.size());
+        assertEquals(1600, ids.size());
+        assertTrue(ids.stream().allMatch((id) -> id >= 0 && id < 1600));
+    }
+    @Test
+    void testDeferredNames()
+    {
+        // a sequence of (possibly repeated) points, in sequential order
+        Random random = new Random(5);
+        List<double[]> sequence = new ArrayList<double[]>();
+        for (int i = 0; i < 2000; i++) sequence.add(new double[]{ random.nextInt(30), random.nextInt(30) });
+
+        PointDatabase expected = new PointDatabase();
+        for (double[] xy : sequence)
+            if (expected.getPoint(xy[0], xy[1]) == null) expected.put(xy[0], xy[1]);
+
+        // inserted by several threads, in a shuffled order
+        List<Integer> order = new ArrayList<Integer>(IntStream.range(0, sequence.size()).boxed().toList());
+        Collections.shuffle(order, random);
+
+        ConcurrentPointDatabase actual = new ConcurrentPointDatabase();
+        order.parallelStream().forEach((i) -> actual.putDeferred(sequence.get(i)[0], sequence.get(i)[1], i));
+
+        assertEquals(Point.ANONYMOUS, actual.getName(sequence.get(0)[0], sequence.get(0)[1]));
+
+        List<Point> named = actual.assignNames();
+
+        assertEquals(expected.size(), named.size());
+        assertEquals(new ArrayList<Point>(expected.getPoints()).stream().map(Point::toString).toList(),
+                     named.stream().map(Point::toString).toList());
+        for (Point pt : expected.getPoints()) assertEquals(pt.getName(), actual.getName(pt));
+
+        assertTrue(actual.assignNames().isEmpty());
+    }
+}
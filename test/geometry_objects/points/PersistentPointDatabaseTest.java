@@ -0,0 +1,149 @@
+package geometry_objects.points;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+class PersistentPointDatabaseTest
+{
+    /*
+     * the same naming rules and IDs as PointDatabase
+     * snapshots are unaffected by later updates; forks are independent
+     * concurrent readers of one snapshot
+     */
+    @Test
+    void testSequential_sameAsPointDatabase()
+    {
+        Random random = new Random(18);
+        List<Point> initial = List.of(new Point("A", 0, 0), new Point(1, 0), new Point("C", 2, 0));
+
+        PointDatabase expected = new PointDatabase(initial);
+        PointDatabase actual = new PersistentPointDatabase(initial);
+
+        for (int i = 0; i < 300; i++)
+        {
+            double x = random.nextInt(8), y = random.nextInt(8);
+            String name = random.nextBoolean() ? "P" + random.nextInt(5) : Point.ANONYMOUS;
+
+            if (random.nextBoolean())
+            {
+                expected.put(x, y);
+                actual.put(x, y);
+            }
+            else
+            {
+                expected.put(name, x, y);
+                actual.put(name, x, y);
+            }
+
+            assertEquals(expected.getName(x, y), actual.getName(x, y));
+            assertEquals(expected.idOf(x, y), actual.idOf(x, y));
+            assertEquals(expected.getPoint(name), actual.getPoint(name));
+        }
+
+        assertEquals(expected.size(), actual.size());
+        assertEquals(new ArrayList<Point>(expected.getPoints()), new ArrayList<Point>(actual.getPoints()));
+        assertEquals(names(expected.getPoints()), names(actual.getPoints()));
+        assertEquals(expected.nearest(3.2, 4.9), actual.nearest(3.2, 4.9));
+    }
+    /*
+     * a later duplicate in the list replaces the stored value only: the first point keeps its
+     * database order and name, and the later name is not found (as in PointDatabase)
+     * the name tester takes names from the same sequence as put
+     */
+    @Test
+    void testDuplicates_sameAsPointDatabase()
+    {
+        List<Point> initial = List.of(new Point("A", 0, 0), new Point("B", 0, 0), new Point(1, 0),
+                                      new Point("C", 1, 0), new Point("D", 2, 0), new Point(2, 0));
+
+        PointDatabase expected = new PointDatabase(initial);
+        PointDatabase actual = new PersistentPointDatabase(initial);
+
+        assertEquals(names(expected.getPoints()), names(actual.getPoints()));
+        for (String name : List.of("A", "B", "C", "D", Point.ANONYMOUS))
+        {
+            assertEquals(expected.getPoint(name), actual.getPoint(name));
+            if (expected.getPoint(name) != null) assertEquals(expected.getPoint(name).getName(), actual.getPoint(name).getName());
+        }
+        for (int id = 0; id < expected.size(); id++) assertEquals(expected.pointAt(id).getName(), actual.pointAt(id).getName());
+        for (int x = 0; x < 3; x++) assertEquals(expected.getName(x, 0), actual.getName(x, 0));
+        assertEquals(expected.nearest(1, 1).getName(), actual.nearest(1, 1).getName());
+
+        PersistentPointNamingFactory factory = new PersistentPointNamingFactory();
+        assertEquals("*_A", factory.getCurrentNameTester());
+        assertEquals("*_B", factory.put(0, 0).getName());
+        assertEquals("*_C", factory.getCurrentNameTester());
+    }
+
+    private List<String> names(Set<Point> points)
+    {
+        return points.stream().map(Point::getName).toList();
+    }
+    @Test
+    void testSnapshot_isolation()
+    {
+        PersistentPointDatabase base = new PersistentPointDatabase();
+        for (int i = 0; i < 1000; i++) base.put("P" + i, i, i % 7);
+
+        PointDatabaseSnapshot before = base.snapshot();
+        PersistentPointDatabase variant = base.fork();
+
+        variant.put("Q", 0.5, 0.5);
+        variant.put(0, 0);
+        base.put(2000, 0);
+
+        assertEquals(1000, before.size());
+        assertNull(before.get(0.5, 0.5));
+        assertNull(before.get(2000, 0));
+
+        assertEquals(1001, variant.size());
+        assertEquals("Q", variant.getName(0.5, 0.5));
+        assertNull(variant.getPoint(2000, 0));
+
+        assertEquals(1001, base.size());
+        assertNull(base.getPoint("Q"));
+
+        // both continue the base's name sequence independently
+        base.put(3000, 0);
+        variant.put(3000, 0);
+        assertEquals(base.getName(3000, 0), variant.getName(3000, 0));
+        assertEquals(1000, variant.idOf(0.5, 0.5));
+    }
+    @Test
+    void testSnapshot_concurrentReaders()
+    {
+        PersistentPointDatabase db = new PersistentPointDatabase();
+        for (int i = 0; i < 2000; i++) db.put(i % 50, i / 50);
+
+        PointDatabaseSnapshot snapshot = db.snapshot();
+        List<Point> expected = new ArrayList<Point>(snapshot.getAllPoints());
+
+        // readers of the snapshot while the database keeps changing
+        IntStream.range(0, 9).parallel().forEach((thread) -> {
+            if (thread == 0)
+            {
+                for (int i = 0; i < 2000; i++) db.put(100 + i, 0);
+                return;
+            }
+
+            for (int id = 0; id < 2000; id++)
+            {
+                Point pt = expected.get(id);
+                assertSame(pt, snapshot.pointAt(id));
+                assertEquals(id, snapshot.idOf(pt));
+                assertSame(pt, snapshot.get(pt.getName()));
+            }
+            assertEquals(expected.get(51), snapshot.getIndex().nearest(1.1, 0.9));
+        });
+
+        assertEquals(2000, snapshot.size());
+        assertEquals(4000, db.size());
+    }
+}
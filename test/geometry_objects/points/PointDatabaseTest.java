@@ -0,0 +1,203 @@
+package geometry_objects.points;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import geometry_objects.Segment;
+
+class PointDatabaseTest
+{
+    /*
+     * coordinate lookups (within tolerance)
+     * name lookups
+     * a name overwrites an unnamed point; the first name given is kept
+     * generated names are consumed even for existing points
+     */
+    @Test
+    void testGetPoint_coordinates()
+    {
+        PointDatabase db = new PointDatabase(List.of(new Point("A", 0, 0), new Point("B", 1.5, -2)));
+
+        assertEquals("A", db.getName(0, 0));
+        assertEquals("B", db.getName(1.5, -2));
+        assertEquals("B", db.getName(1.5 + 1e-7, -2 - 1e-7));
+        assertNull(db.getPoint(1.5, 2));
+        assertSame(db.getPoint(0, 0), db.getPoint(new Point(0, 0)));
+    }
+    @Test
+    void testGetPoint_name()
+    {
+        PointDatabase db = new PointDatabase(List.of(new Point("A", 0, 0), new Point("B", 1, 0)));
+        db.put("C", 2, 0);
+        db.put(3, 0);
+
+        assertEquals(new Point(0, 0), db.getPoint("A"));
+        assertEquals(new Point(2, 0), db.getPoint("C"));
+        assertEquals(new Point(3, 0), db.getPoint("*_A"));
+        assertNull(db.getPoint("D"));
+        assertNull(db.getPoint((String) null));
+    }
+    @Test
+    void testPut_overwriteUnnamed()
+    {
+        PointDatabase db = new PointDatabase(List.of(new Point(0, 0), new Point("B", 1, 0)));
+
+        assertEquals(Point.ANONYMOUS, db.getName(0, 0));
+        assertEquals(new Point(0, 0), db.getPoint(Point.ANONYMOUS));
+
+        db.put("A", 0, 0);
+        db.put("X", 0, 0);
+        db.put("Y", 1, 0);
+
+        assertEquals(2, db.size());
+        assertEquals("A", db.getName(0, 0));
+        assertEquals("B", db.getName(1, 0));
+        assertNull(db.getPoint("X"));
+        assertNull(db.getPoint(Point.ANONYMOUS));
+
+        // the named point takes the place (and ID) of the unnamed one
+        assertEquals(0, db.idOf(0, 0));
+        assertEquals(List.of("A", "B"), db.getPoints().stream().map(Point::getName).toList());
+    }
+    @Test
+    void testPut_generatedNames()
+    {
+        PointDatabase db = new PointDatabase();
+
+        db.put(0, 0);
+        db.put(0, 0);
+        db.put(1, 0);
+
+        assertEquals(2, db.size());
+        assertEquals("*_A", db.getName(0, 0));
+        assertEquals("*_C", db.getName(1, 0));
+    }
+    @Test
+    void testNearest_within()
+    {
+        PointDatabase db = new PointDatabase(List.of(new Point("A", 0, 0), new Point("B", 1, 0), new Point(5, 5)));
+        db.put(0.0001, 0);
+
+        assertNull(new PointDatabase().nearest(0, 0));
+        assertEquals("B", db.nearest(0.9, 0.2).getName());
+        assertEquals("*_A", db.nearest(0.00008, 0).getName());
+        assertEquals(List.of(db.getPoint("*_A"), db.getPoint("A")), db.within(0.00009, 0, 0.001));
+        assertEquals(List.of(List.of(db.getPoint("A"), db.getPoint("*_A"))), db.nearDuplicates(0.001));
+
+        // an unnamed point replaced by a named one is replaced in the index
+        db.put("E", 5, 5);
+        assertEquals("E", db.nearest(5, 4).getName());
+        assertEquals(1, db.within(5, 5, 1).size());
+
+        // the index, built on the first query, takes later points too
+        db.put("F", 9, 9);
+        assertEquals("F", db.nearest(8, 8).getName());
+    }
+    @Test
+    void testIds()
+    {
+        PointDatabase db = new PointDatabase(List.of(new Point("A", 0, 0), new Point(1, 0)));
+        db.put(2, 0);
+        db.put("B", 1, 0);
+
+        assertEquals(3, db.size());
+        assertEquals(0, db.idOf(new Point(0, 0)));
+        assertEquals(1, db.idOf(1, 0));
+        assertEquals(2, db.idOf(2 + 1e-7, 0));
+        assertEquals(-1, db.idOf(3, 0));
+
+        // the named point replaced the unnamed one under the same ID
+        assertEquals("B", db.pointAt(1).getName());
+        assertSame(db.getPoint(2, 0), db.pointAt(2));
+
+        assertEquals(PointDatabase.pairKey(0, 1), PointDatabase.pairKey(1, 0));
+        assertEquals(PointDatabase.pairKey(2, 0), db.pairKey(new Segment(db.pointAt(2), db.pointAt(0))));
+        assertEquals(-1, db.pairKey(new Segment(db.pointAt(2), new Point(5, 5))));
+        assertEquals(new Segment(db.pointAt(0), db.pointAt(1)), db.segmentAt(1, 0));
+    }
+    @Test
+    void testIds_databaseOrder()
+    {
+        List<Point> initial = List.of(new Point(0, 0), new Point("B", 1, 0), new Point(2, 0));
+
+        for (PointDatabase db : List.of(new PointDatabase(initial), new ConcurrentPointDatabase(initial), new PersistentPointDatabase(initial)))
+        {
+            db.put(3, 0);
+            db.put("A", 0, 0);
+            db.put("C", 2, 0);
+
+            int id = 0;
+            for (Point pt : db.getPoints()) assertSame(db.pointAt(id++), db.getPoint(pt));
+            assertEquals(List.of("A", "B", "C", "*_A"), db.getPoints().stream().map(Point::getName).toList());
+        }
+    }
+    @Test
+    void testGeneratedNames_sequence()
+    {
+        PointNamingFactory factory = new PointNamingFactory();
+        for (int k = 0; k < 60; k++)
+        {
+            String name = factory.getCurrentNameTester();
+
+            assertEquals(k, PointNamingFactory.generatedSequence(name));
+            assertEquals(name, PointNamingFactory.generatedName(k));
+        }
+        assertEquals("*_A", PointNamingFactory.generatedName(0));
+        assertEquals("*_Z", PointNamingFactory.generatedName(25));
+        assertEquals("*_AA", PointNamingFactory.generatedName(26));
+        assertEquals("*_BB", PointNamingFactory.generatedName(27));
+        assertEquals("*_HHH", PointNamingFactory.generatedName(59));
+
+        assertEquals(-1, PointNamingFactory.generatedSequence("*_AB"));
+        assertEquals(-1, PointNamingFactory.generatedSequence("*_"));
+        assertEquals(-1, PointNamingFactory.generatedSequence("AA"));
+
+        // lookups by generated name, past the first 26
+        PointDatabase db = new PointDatabase();
+        for (int i = 0; i < 30; i++) db.put(i, 0);
+
+        assertEquals(new Point(27, 0), db.getPoint("*_BB"));
+        assertEquals("*_BB", db.getName(27, 0));
+        assertFalse(db.getPoint(27, 0).isUnnamed());
+        assertNull(db.getPoint("*_EE"));
+    }
+    @Test
+    void testBulkLoad_sameAsList()
+    {
+        Random random = new Random(15);
+        int n = 500;
+        double[] xs = new double[n], ys = new double[n];
+        String[] names = new String[n];
+        List<Point> points = new ArrayList<Point>();
+
+        for (int i = 0; i < n; i++)
+        {
+            // duplicates, including ones equal only within tolerance
+            xs[i] = random.nextInt(15) + (random.nextBoolean() ? 1e-7 : 0);
+            ys[i] = -random.nextInt(15);
+            names[i] = random.nextInt(3) == 0 ? null : "P" + i;
+            points.add(new Point(names[i], xs[i], ys[i]));
+        }
+
+        PointDatabase expected = new PointDatabase(points);
+        PointDatabase actual = new PointDatabase(xs, ys, names);
+
+        assertEquals(expected.size(), actual.size());
+        assertEquals(new ArrayList<Point>(expected.getPoints()).toString(), new ArrayList<Point>(actual.getPoints()).toString());
+        for (int i = 0; i < n; i++)
+        {
+            assertEquals(expected.getPoint(xs[i], ys[i]).toString(), actual.getPoint(xs[i], ys[i]).toString());
+            assertEquals(expected.idOf(xs[i], ys[i]), actual.idOf(xs[i], ys[i]));
+            assertEquals(expected.getPoint("P" + i), actual.getPoint("P" + i));
+        }
+        assertEquals(expected.nearDuplicates(1.5), actual.nearDuplicates(1.5));
+
+        assertEquals(0, new PointDatabase(new double[0], new double[0], null).size());
+        assertThrows(IllegalArgumentException.class, () -> new PointDatabase(new double[2], new double[1], null));
+    }
+}
@@ -0,0 +1,72 @@
+package geometry_objects.points;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import exceptions.FactException;
+import geometry_objects.Segment;
+import geometry_objects.Triangle;
+import utilities.math.MathUtilities;
+
+class PointTest
+{
+    /*
+     * quantized ticks reproduce removeLessEpsilon equality and ordering
+     * large coordinates stay distinct
+     */
+    @Test
+    void testTicks_matchRemoveLessEpsilon()
+    {
+        Random random = new Random(16);
+
+        for (int i = 0; i < 100000; i++)
+        {
+            double x1 = (random.nextInt(2001) - 1000) / 1000.0 + (random.nextInt(3) - 1) * 1e-6 * random.nextDouble();
+            double x2 = x1 + (random.nextInt(5) - 2) * 1e-6;
+            double y = random.nextDouble();
+
+            Point p1 = new Point(x1, y);
+            Point p2 = new Point(x2, y);
+
+            int expected = Double.compare(MathUtilities.removeLessEpsilon(x1), MathUtilities.removeLessEpsilon(x2));
+
+            assertEquals(expected, p1.compareTo(p2));
+            assertEquals(expected == 0, p1.equals(p2));
+            assertEquals(expected == 0, p1.equals(x2, y));
+            if (expected == 0) assertEquals(p1.hashCode(), p2.hashCode());
+        }
+    }
+    @Test
+    void testTicks_largeCoordinates()
+    {
+        assertNotEquals(new Point(30000, 0), new Point(40000, 0));
+        assertTrue(new Point(30000, 0).compareTo(new Point(40000, 0)) < 0);
+        assertEquals(new Point(30000, 0), new Point(30000.000001, 0));
+        assertEquals(3000000000L, new Point(30000, 0).getXTicks());
+    }
+
+    /*
+     * transposed coordinates hash apart
+     * segments and triangles hash the same in any vertex order
+     */
+    @Test
+    void testHash_orderSensitivity() throws FactException
+    {
+        Point a = new Point(1, 2);
+        Point b = new Point(2, 1);
+        Point c = new Point(5, 5);
+
+        assertNotEquals(a.hashCode(), b.hashCode());
+        assertEquals(new Segment(a, b).hashCode(), new Segment(b, a).hashCode());
+        assertNotEquals(new Segment(a, b).hashCode(), new Segment(a, c).hashCode());
+
+        Triangle abc = new Triangle(List.of(new Segment(a, b), new Segment(b, c), new Segment(c, a)));
+        Triangle cab = new Triangle(List.of(new Segment(c, a), new Segment(a, b), new Segment(b, c)));
+        assertEquals(abc, cab);
+        assertEquals(abc.hashCode(), cab.hashCode());
+    }
+}
@@ -0,0 +1,102 @@
+package geometry_objects.spatial;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import geometry_objects.points.Point;
+
+class PointKdTreeTest
+{
+    /*
+     * empty tree
+     * nearest and within agree with a linear scan, through inserts (sorted and random) and removals
+     * near-duplicate groups chain transitively
+     */
+    @Test
+    void testEmpty()
+    {
+        PointKdTree tree = new PointKdTree();
+
+        assertEquals(0, tree.size());
+        assertNull(tree.nearest(0, 0));
+        assertTrue(tree.within(0, 0, 10).isEmpty());
+        assertTrue(tree.nearDuplicates(1).isEmpty());
+    }
+    @Test
+    void testQueries_insertRemove()
+    {
+        Random random = new Random(11);
+        PointKdTree tree = new PointKdTree();
+        List<Point> points = new ArrayList<Point>();
+
+        // sorted (grid) insertions followed by random ones
+        for (int x = 0; x < 30; x++)
+            for (int y = 0; y < 30; y++) add(tree, points, new Point(x, y));
+        for (int i = 0; i < 500; i++) add(tree, points, new Point(random.nextDouble() * 30, random.nextDouble() * 30));
+
+        assertQueriesMatch(tree, points, random);
+
+        for (int i = 0; i < 900; i++)
+        {
+            Point removed = points.remove(random.nextInt(points.size()));
+            assertTrue(tree.remove(removed));
+            assertFalse(tree.remove(removed));
+        }
+
+        assertEquals(points.size(), tree.size());
+        assertQueriesMatch(tree, points, random);
+    }
+    @Test
+    void testBulkLoad()
+    {
+        Random random = new Random(12);
+        List<Point> points = new ArrayList<Point>();
+        for (int i = 0; i < 1000; i++) points.add(new Point(random.nextInt(50), random.nextInt(50)));
+
+        assertQueriesMatch(new PointKdTree(points), points, random);
+    }
+    @Test
+    void testNearDuplicates()
+    {
+        Point a = new Point("A", 0, 0);
+        Point b = new Point("B", 0.0005, 0);
+        Point c = new Point("C", 0.0010, 0);
+        Point d = new Point("D", 5, 5);
+        Point e = new Point("E", 5, 5.0001);
+        Point f = new Point("F", 9, 9);
+
+        PointKdTree tree = new PointKdTree(List.of(f, e, c, d, b, a));
+
+        assertEquals(List.of(List.of(a, b, c), List.of(d, e)), tree.nearDuplicates(0.0006));
+        assertEquals(List.of(List.of(d, e)), tree.nearDuplicates(0.0002));
+        assertTrue(tree.nearDuplicates(0.00001).isEmpty());
+    }
+
+    private static void add(PointKdTree tree, List<Point> points, Point pt)
+    {
+        tree.insert(pt);
+        points.add(pt);
+    }
+
+    private static void assertQueriesMatch(PointKdTree tree, List<Point> points, Random random)
+    {
+        for (int i = 0; i < 100; i++)
+        {
+            double x = random.nextDouble() * 40 - 5, y = random.nextDouble() * 40 - 5, r = random.nextDouble() * 3;
+            Comparator<Point> byDistance = Comparator.comparingDouble((Point p) -> (p.getX() - x) * (p.getX() - x) + (p.getY() - y) * (p.getY() - y));
+
+            Point nearest = points.stream().min(byDistance).get();
+            assertEquals(byDistance.compare(nearest, tree.nearest(x, y)), 0);
+
+            List<Point> within = points.stream().filter((p) -> Math.hypot(p.getX() - x, p.getY() - y) <= r).toList();
+            assertEquals(within.size(), tree.within(x, y, r).size());
+            assertTrue(tree.within(x, y, r).containsAll(within));
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package geometry_objects.spatial;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import geometry_objects.Segment;
+import geometry_objects.points.Point;
+
+class SegmentRTreeTest
+{
+    /*
+     * empty tree
+     * stabbing, window and nearest queries agree with a linear scan
+     */
+    @Test
+    void testEmpty()
+    {
+        SegmentRTree tree = new SegmentRTree(new ArrayList<Segment>());
+
+        assertEquals(0, tree.size());
+        assertTrue(tree.stab(new Point(0, 0)).isEmpty());
+        assertTrue(tree.window(0, 0, 1, 1).isEmpty());
+        assertTrue(tree.nearest(new Point(0, 0), 3).isEmpty());
+    }
+    @Test
+    void testStab()
+    {
+        List<Segment> segments = randomSegments(new Random(1), 500);
+        SegmentRTree tree = new SegmentRTree(segments);
+
+        // every endpoint and every midpoint
+        for (Segment segment : segments)
+        {
+            for (Point pt : List.of(segment.getPoint1(),
+                                    new Point((segment.getPoint1().getX() + segment.getPoint2().getX()) / 2,
+                                              (segment.getPoint1().getY() + segment.getPoint2().getY()) / 2)))
+            {
+                assertEquals(new HashSet<Segment>(segments.stream().filter((s) -> s.pointLiesOn(pt)).toList()),
+                             new HashSet<Segment>(tree.stab(pt)));
+            }
+        }
+    }
+    @Test
+    void testWindow()
+    {
+        List<Segment> segments = randomSegments(new Random(2), 500);
+        SegmentRTree tree = new SegmentRTree(segments);
+
+        // a horizontal segment from (2, 5) to (8, 5) crosses, touches or misses the unit square at (4, 4)
+        assertEquals(1, new SegmentRTree(List.of(new Segment(new Point(2, 5), new Point(8, 5)))).window(4, 4, 5, 5).size());
+        assertEquals(0, new SegmentRTree(List.of(new Segment(new Point(2, 5), new Point(3, 8)))).window(4, 4, 5, 5).size());
+
+        Random random = new Random(3);
+        for (int i = 0; i < 50; i++)
+        {
+            double x = random.nextDouble() * 100, y = random.nextDouble() * 100;
+            double w = random.nextDouble() * 20, h = random.nextDouble() * 20;
+
+            List<Segment> found = tree.window(x, y, x + w, y + h);
+            for (Segment segment : segments)
+            {
+                // a segment crossing the window has a point in it: sample along the segment
+                boolean sampled = false;
+                for (int k = 0; k <= 1000 && !sampled; k++)
+                {
+                    double px = segment.getPoint1().getX() + k / 1000.0 * (segment.getPoint2().getX() - segment.getPoint1().getX());
+                    double py = segment.getPoint1().getY() + k / 1000.0 * (segment.getPoint2().getY() - segment.getPoint1().getY());
+                    sampled = x <= px && px <= x + w && y <= py && py <= y + h;
+                }
+                if (sampled) assertTrue(found.contains(segment));
+            }
+        }
+    }
+    @Test
+    void testNearest()
+    {
+        List<Segment> segments = randomSegments(new Random(4), 500);
+        SegmentRTree tree = new SegmentRTree(segments);
+
+        Random random = new Random(5);
+        for (int i = 0; i < 50; i++)
+        {
+            double x = random.nextDouble() * 100, y = random.nextDouble() * 100;
+
+            List<Double> expected = segments.stream().map((s) -> SegmentRTree.distanceSquared(s, x, y))
+                                            .sorted().limit(5).toList();
+            List<Double> actual = tree.nearest(new Point(x, y), 5).stream()
+                                      .map((s) -> SegmentRTree.distanceSquared(s, x, y)).toList();
+
+            assertEquals(expected, actual);
+        }
+    }
+
+    static List<Segment> randomSegments(Random random, int n)
+    {
+        List<Segment> segments = new ArrayList<Segment>();
+        for (int i = 0; i < n; i++)
+        {
+            double x = random.nextDouble() * 100, y = random.nextDouble() * 100;
+            segments.add(new Segment(new Point(x, y), new Point(x + random.nextDouble() * 10 - 5, y + random.nextDouble() * 10 - 5)));
+        }
+        return segments;
+    }
+}
@@ -0,0 +1,52 @@
+package geometry_objects.spatial;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import geometry_objects.Segment;
+import geometry_objects.points.Point;
+
+class UniformGridTest
+{
+    /*
+     * a point query returns every segment the point lies on, before and after removals
+     * a removed item is gone from all its cells
+     */
+    @Test
+    void testInsertQueryRemove()
+    {
+        Random random = new Random(3);
+        List<Segment> segments = new ArrayList<Segment>();
+        for (int i = 0; i < 300; i++)
+        {
+            segments.add(new Segment(new Point(random.nextInt(50), random.nextInt(50)), new Point(random.nextInt(50), random.nextInt(50))));
+        }
+
+        UniformGrid<Segment> grid = new UniformGrid<Segment>(4);
+        for (Segment segment : segments) grid.insert(segment, segment);
+        assertEquals(segments.size(), grid.size());
+
+        for (int i = 0; i < segments.size(); i += 2) assertTrue(grid.remove(segments.get(i), segments.get(i)));
+        assertFalse(grid.remove(segments.get(0), segments.get(0)));
+
+        for (int i = 0; i < segments.size(); i++)
+        {
+            Segment segment = segments.get(i);
+            Point midpoint = new Point((segment.getPoint1().getX() + segment.getPoint2().getX()) / 2,
+                                       (segment.getPoint1().getY() + segment.getPoint2().getY()) / 2);
+
+            assertEquals(i % 2 == 1, grid.query(midpoint).contains(segment));
+            assertEquals(i % 2 == 1, grid.query(segment.getPoint1()).contains(segment));
+        }
+    }
+    @Test
+    void testInvalidCellSize()
+    {
+        assertThrows(IllegalArgumentException.class, () -> new UniformGrid<Point>(0));
+    }
+}
@@ -0,0 +1,124 @@
+package preprocessor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import geometry_objects.Segment;
+import geometry_objects.angle.Angle;
+import geometry_objects.points.PointDatabase;
+import input.InputFacade;
+import utilities.concurrent.PipelineExecutor;
+import utilities.eq_classes.LinkedEquivalenceClass;
+
+class PreprocessingPipelineTest
+{
+	private static final List<String> FIGURES = List.of("fully_connected_irregular_polygon", "crossed_square", "star", "Tri_Quad");
+
+	/*
+	 * on the calling thread, a fork / join pool and platform threads: the results of
+	 * running the preprocessor and the identifiers one after the other
+	 */
+	@Test
+	void test_sameAsSequential()
+	{
+		ForkJoinPool forkJoin = PipelineExecutor.forkJoin(3);
+		ExecutorService platform = PipelineExecutor.platform(3);
+		try
+		{
+			for (String figure : FIGURES)
+			{
+				for (Executor executor : List.of(PipelineExecutor.CALLER_THREAD, forkJoin, platform))
+				{
+					assertSameAsSequential("jsonfiles/" + figure + ".json", executor);
+				}
+			}
+		}
+		finally
+		{
+			forkJoin.shutdown();
+			platform.shutdown();
+		}
+	}
+
+	private void assertSameAsSequential(String filename, Executor executor)
+	{
+		Map.Entry<PointDatabase, Set<Segment>> expected = InputFacade.toGeometryRepresentation(filename);
+		Map.Entry<PointDatabase, Set<Segment>> actual = InputFacade.toGeometryRepresentation(filename);
+
+		Preprocessor pp = new Preprocessor(expected.getKey(), expected.getValue());
+		PreprocessingPipeline pipeline = new PreprocessingPipeline(actual.getKey(), actual.getValue(), executor);
+
+		assertEquals(pp._implicitPoints, pipeline.getPreprocessor()._implicitPoints);
+		assertEquals(pp._allMinimalSegments, pipeline.getPreprocessor()._allMinimalSegments);
+		assertEquals(pp.getAllSegments().keySet(), pipeline.getPreprocessor().getAllSegments().keySet());
+
+		assertEquals(new TriangleIdentifier(pp.getAllSegments()).getTriangles(), pipeline.getTriangles());
+
+		// each angle class, canonical and rest in order
+		List<LinkedEquivalenceClass<Angle>> classes = new AngleIdentifier(pp.getAllSegments()).getAngles().classes();
+		assertEquals(classes.size(), pipeline.getAngles().classes().size());
+		for (int i = 0; i < classes.size(); i++)
+		{
+			assertEquals(classes.get(i).toString(), pipeline.getAngles().classes().get(i).toString());
+		}
+	}
+	@Test
+	void test_fromPoolThreads() throws Exception
+	{
+		// pipelines run by tasks of the (bounded) shared executor itself
+		Executor shared = PipelineExecutor.get();
+		ExecutorService platform = PipelineExecutor.platform(2);
+		try
+		{
+			PipelineExecutor.set(platform);
+
+			List<Future<Integer>> runs = new ArrayList<Future<Integer>>();
+			for (int i = 0; i < 2; i++)
+			{
+				runs.add(platform.submit(() ->
+				{
+					Map.Entry<PointDatabase, Set<Segment>> pair = InputFacade.toGeometryRepresentation("jsonfiles/crossed_square.json");
+					return new PreprocessingPipeline(pair.getKey(), pair.getValue()).getPreprocessor()._implicitPoints.size();
+				}));
+			}
+
+			for (Future<Integer> run : runs) assertEquals(1, run.get(30, TimeUnit.SECONDS));
+		}
+		finally
+		{
+			PipelineExecutor.set(shared);
+			platform.shutdown();
+		}
+	}
+	@Test
+	void test_sharedExecutor()
+	{
+		Executor shared = PipelineExecutor.get();
+		try
+		{
+			PipelineExecutor.set(PipelineExecutor.CALLER_THREAD);
+
+			Map.Entry<PointDatabase, Set<Segment>> pair = InputFacade.toGeometryRepresentation("jsonfiles/crossed_square.json");
+			PreprocessingPipeline pipeline = new PreprocessingPipeline(pair.getKey(), pair.getValue());
+
+			assertEquals(1, pipeline.getPreprocessor()._implicitPoints.size());
+		}
+		finally
+		{
+			PipelineExecutor.set(shared);
+		}
+
+		assertThrows(IllegalArgumentException.class, () -> PipelineExecutor.set(null));
+	}
+}
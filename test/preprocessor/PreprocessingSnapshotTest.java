@@ -0,0 +1,161 @@
+package preprocessor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import geometry_objects.Segment;
+import geometry_objects.angle.Angle;
+import geometry_objects.points.Point;
+import geometry_objects.points.PointDatabase;
+import input.InputFacade;
+import input.components.FigureNode;
+import input.components.point.PointNode;
+import utilities.eq_classes.LinkedEquivalenceClass;
+
+class PreprocessingSnapshotTest
+{
+	private static final List<String> FIGURES = List.of("collinear_line_segments", "crossed_square", "crossing_symmetric_triangle",
+	                                                    "fully_connected_irregular_polygon", "line_seg", "single_triangle", "snake",
+	                                                    "square_tri", "star", "Tri_Quad");
+
+	@TempDir
+	Path _directory;
+
+	/*
+	 * every figure of the corpus: the points (names and order), segments, triangles and
+	 * angle classes (canonical and rest, in order) of the snapshot are those computed
+	 */
+	@Test
+	void test_roundTrip() throws IOException
+	{
+		for (String figure : FIGURES)
+		{
+			FigureNode node = InputFacade.extractFigure("jsonfiles/" + figure + ".json");
+			long hash = PreprocessingSnapshot.contentHash(node);
+
+			Map.Entry<PointDatabase, Set<Segment>> pair = InputFacade.toGeometryRepresentation(node);
+			PreprocessingPipeline expected = new PreprocessingPipeline(pair.getKey(), pair.getValue());
+
+			Path file = _directory.resolve(figure + ".snapshot");
+			PreprocessingSnapshot.write(expected, hash, file);
+			PreprocessingPipeline actual = PreprocessingSnapshot.read(file, hash);
+
+			assertSameResults(expected, actual);
+			assertNull(PreprocessingSnapshot.read(file, hash + 1));
+		}
+	}
+
+	private void assertSameResults(PreprocessingPipeline expected, PreprocessingPipeline actual)
+	{
+		Preprocessor pp = expected.getPreprocessor();
+		Preprocessor loaded = actual.getPreprocessor();
+
+		assertEquals(describe(pp._pointDatabase.getPoints()), describe(loaded._pointDatabase.getPoints()));
+		assertEquals(describe(pp._implicitPoints), describe(loaded._implicitPoints));
+		assertEquals(pp._givenPoints, loaded._givenPoints);
+
+		assertEquals(pp._givenSegments, loaded._givenSegments);
+		assertEquals(pp._allMinimalSegments, loaded._allMinimalSegments);
+		assertEquals(pp._implicitSegments, loaded._implicitSegments);
+		assertEquals(pp.getAllSegments().keySet(), loaded.getAllSegments().keySet());
+		assertEquals(pp._nonMinimalSegments.size(), loaded._nonMinimalSegments.size());
+
+		assertEquals(expected.getTriangles(), actual.getTriangles());
+		assertEquals(expected.getTriangles().toString(), actual.getTriangles().toString());
+
+		List<LinkedEquivalenceClass<Angle>> classes = expected.getAngles().classes();
+		assertEquals(classes.size(), actual.getAngles().classes().size());
+		for (int i = 0; i < classes.size(); i++)
+		{
+			assertEquals(classes.get(i).toString(), actual.getAngles().classes().get(i).toString());
+		}
+	}
+
+	private List<String> describe(Iterable<Point> points)
+	{
+		List<String> description = new ArrayList<String>();
+		for (Point pt : points) description.add(pt.getName() + pt.toString());
+
+		return description;
+	}
+
+	/*
+	 * the first load analyzes the figure and saves it; the next loads the snapshot
+	 * a corrupt snapshot is analyzed again (and replaced)
+	 */
+	@Test
+	void test_load() throws IOException
+	{
+		FigureNode node = InputFacade.extractFigure("jsonfiles/crossed_square.json");
+
+		PreprocessingPipeline analyzed = PreprocessingSnapshot.load(node, _directory);
+		List<Path> files = Files.list(_directory).collect(Collectors.toList());
+		assertEquals(1, files.size());
+
+		PreprocessingPipeline loaded = PreprocessingSnapshot.load(node, _directory);
+		assertNotSame(analyzed, loaded);
+		assertSameResults(analyzed, loaded);
+
+		Files.write(files.get(0), new byte[] { 0x50, 0x50, 0x53, 0x53, 0, 0, 0, 1, 0 });
+		assertThrows(IOException.class, () -> PreprocessingSnapshot.read(files.get(0), PreprocessingSnapshot.contentHash(node)));
+
+		assertSameResults(analyzed, PreprocessingSnapshot.load(node, _directory));
+		assertNotNull(PreprocessingSnapshot.read(files.get(0), PreprocessingSnapshot.contentHash(node)));
+	}
+
+	/*
+	 * a count larger than the rest of the file fails as an IOException (before allocating)
+	 * a snapshot stored under the hash of another figure is not used
+	 */
+	@Test
+	void test_corrupt() throws IOException
+	{
+		FigureNode node = InputFacade.extractFigure("jsonfiles/crossed_square.json");
+		long hash = PreprocessingSnapshot.contentHash(node);
+
+		Path file = _directory.resolve("counts.snapshot");
+		for (int count : new int[] { Integer.MAX_VALUE, 1 << 28, -2 })
+		{
+			ByteBuffer buffer = ByteBuffer.allocate(20).putInt(0x50505353).putInt(1).putLong(hash).putInt(count);
+			Files.write(file, buffer.array());
+
+			assertThrows(IOException.class, () -> PreprocessingSnapshot.read(file, hash));
+		}
+
+		FigureNode other = InputFacade.extractFigure("jsonfiles/square_tri.json");
+		Map.Entry<PointDatabase, Set<Segment>> pair = InputFacade.toGeometryRepresentation(other);
+		PreprocessingSnapshot.write(new PreprocessingPipeline(pair.getKey(), pair.getValue()), hash,
+		                            _directory.resolve(String.format("%016x", hash) + ".snapshot"));
+
+		pair = InputFacade.toGeometryRepresentation(node);
+		assertSameResults(new PreprocessingPipeline(pair.getKey(), pair.getValue()), PreprocessingSnapshot.load(node, _directory));
+	}
+
+	/*
+	 * the same content, the same hash; another figure or an added point, another hash
+	 */
+	@Test
+	void test_contentHash()
+	{
+		FigureNode node = InputFacade.extractFigure("jsonfiles/crossed_square.json");
+		long hash = PreprocessingSnapshot.contentHash(node);
+
+		assertEquals(hash, PreprocessingSnapshot.contentHash(InputFacade.extractFigure("jsonfiles/crossed_square.json")));
+		assertNotEquals(hash, PreprocessingSnapshot.contentHash(InputFacade.extractFigure("jsonfiles/square_tri.json")));
+
+		node.getPointsDatabase().put(new PointNode("Z", 1000, 1000));
+		assertNotEquals(hash, PreprocessingSnapshot.contentHash(node));
+	}
+}
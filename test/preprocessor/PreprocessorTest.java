@@ -15,6 +15,7 @@ import geometry_objects.points.Point;
 import geometry_objects.points.PointDatabase;
 import input.InputFacade;
 import preprocessor.delegates.ImplicitPointPreprocessor;
+import preprocessor.delegates.SegmentDelta;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -781,6 +782,112 @@ class PreprocessorTest
 		assertFalse(segmentHasAnyOf(seg, points));
 	}
 
+	/*
+	 * build the pentagon one segment at a time, then take it apart: after each edit the
+	 * results are those of a fresh analysis, and the delta is the change in all segments
+	 */
+	@Test
+	void test_incremental_sameAsFresh()
+	{
+		Map.Entry<PointDatabase, Set<Segment>> pair = InputFacade.toGeometryRepresentation(
+				"jsonfiles/fully_connected_irregular_polygon.json"
+		);
+
+		List<Point> points = new ArrayList<Point>(pair.getKey().getPoints());
+		List<Segment> segments = new ArrayList<Segment>(pair.getValue());
+
+		Set<Segment> given = new HashSet<Segment>(segments.subList(0, 3));
+		Preprocessor pp = new Preprocessor(new PointDatabase(points), new HashSet<Segment>(given));
+
+		for (Segment segment : segments.subList(3, segments.size()))
+		{
+			Set<Segment> before = new HashSet<Segment>(pp.getAllSegments().keySet());
+			given.add(segment);
+
+			assertSameAsFresh(pp, points, given, before, pp.addSegment(segment));
+		}
+		assertEquals(5, pp._implicitPoints.size());
+
+		for (Segment segment : segments.subList(0, 8))
+		{
+			Set<Segment> before = new HashSet<Segment>(pp.getAllSegments().keySet());
+			given.remove(segment);
+
+			assertSameAsFresh(pp, points, given, before, pp.removeSegment(segment));
+		}
+	}
+
+	private void assertSameAsFresh(Preprocessor pp, List<Point> points, Set<Segment> given, Set<Segment> before, SegmentDelta delta)
+	{
+		Preprocessor fresh = new Preprocessor(new PointDatabase(points), new HashSet<Segment>(given));
+
+		assertEquals(fresh._implicitPoints, pp._implicitPoints);
+		assertEquals(fresh._allMinimalSegments, pp._allMinimalSegments);
+		assertEquals(fresh._implicitSegments, pp._implicitSegments);
+		assertEquals(fresh.getAllSegments().keySet(), pp.getAllSegments().keySet());
+		assertEquals(fresh.getAllSegments().size(), pp.getAllSegments().size());
+
+		Set<Segment> added = new HashSet<Segment>(pp.getAllSegments().keySet());
+		added.removeAll(before);
+		Set<Segment> removed = new HashSet<Segment>(before);
+		removed.removeAll(pp.getAllSegments().keySet());
+
+		assertEquals(added, delta.getAdded());
+		assertEquals(removed, delta.getRemoved());
+	}
+
+	/*
+	 * a given point at a crossing is not implicit: the crossing segments are minimal again
+	 */
+	@Test
+	void test_incremental_addPoint()
+	{
+		Point a = new Point("A", 0, 0);
+		Point b = new Point("B", 2, 2);
+		Point c = new Point("C", 0, 2);
+		Point d = new Point("D", 2, 0);
+
+		Preprocessor pp = new Preprocessor(new PointDatabase(List.of(a, b, c, d)), new HashSet<Segment>(List.of(new Segment(a, b), new Segment(c, d))));
+		assertEquals(4, pp._allMinimalSegments.size());
+
+		SegmentDelta delta = pp.addPoint("X", 1, 1);
+
+		assertTrue(pp._implicitPoints.isEmpty());
+		assertTrue(pp._implicitSegments.isEmpty());
+		assertEquals(Set.of(new Segment(a, b), new Segment(c, d)), pp._allMinimalSegments);
+		// AB and CD were already (non-minimal) segments
+		assertTrue(delta.getAdded().isEmpty());
+		assertEquals(4, delta.getRemoved().size());
+
+		assertTrue(pp.addPoint("Y", 5, 5).isEmpty());
+	}
+
+	/*
+	 * without a point database (or with endpoints missing from it) the endpoints are added:
+	 * the segment database identifies points by database ID
+	 */
+	@Test
+	void test_endpointsNotInDatabase()
+	{
+		Point a = new Point("A", 0, 0);
+		Point b = new Point("B", 2, 2);
+		Point c = new Point("C", 0, 2);
+		Point d = new Point("D", 2, 0);
+
+		Preprocessor pp = new Preprocessor(null, new HashSet<Segment>(List.of(new Segment(a, b), new Segment(c, d))));
+
+		assertEquals(5, pp._pointDatabase.size());
+		assertEquals(4, pp._allMinimalSegments.size());
+		assertEquals(4 + 2, pp.getAllSegments().size());
+		assertNotNull(pp.getAllSegments().get(new Segment(b, a)));
+
+		PointDatabase partial = new PointDatabase(List.of(a, b));
+		pp = new Preprocessor(partial, new HashSet<Segment>(List.of(new Segment(a, b), new Segment(c, d))));
+
+		assertEquals("C", partial.getName(0, 2));
+		assertEquals(6, pp.getAllSegments().size());
+	}
+
 	/*
 	 * built in (uses instance variables, and the constructor calls analyze which calls this) 
 	 */
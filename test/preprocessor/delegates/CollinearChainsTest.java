@@ -0,0 +1,81 @@
+package preprocessor.delegates;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import geometry_objects.Segment;
+import geometry_objects.points.Point;
+
+class CollinearChainsTest
+{
+    /*
+     * a line of five points: every sub-segment of two or more base segments
+     * a cross: two chains through the center
+     * overlapping (non-minimal) input: closed under extension
+     */
+    @Test
+    void testNonMinimal_line()
+    {
+        Point[] points = new Point[5];
+        for (int i = 0; i < 5; i++) points[i] = new Point("P" + i, i, 2 * i);
+
+        Set<Segment> minimal = new HashSet<Segment>();
+        for (int i = 0; i < 4; i++) minimal.add(new Segment(points[i], points[i + 1]));
+
+        CollinearChains chains = new CollinearChains(minimal);
+        assertEquals(1, chains.getChains().size());
+        assertEquals(5, chains.getChains().get(0).size());
+
+        Set<Segment> expected = new HashSet<Segment>();
+        for (int i = 0; i < 5; i++)
+        {
+            for (int j = i + 2; j < 5; j++) expected.add(new Segment(points[i], points[j]));
+        }
+
+        assertEquals(expected, chains.nonMinimalSegments());
+    }
+    @Test
+    void testNonMinimal_cross()
+    {
+        /*
+         *       N
+         *       |
+         *  W -- C -- E
+         *       |
+         *       S
+         */
+        Point c = new Point("C", 0, 0);
+        Point n = new Point("N", 0, 1);
+        Point s = new Point("S", 0, -1);
+        Point e = new Point("E", 1, 0);
+        Point w = new Point("W", -1, 0);
+
+        Set<Segment> minimal = new HashSet<Segment>(List.of(new Segment(c, n), new Segment(c, s), new Segment(c, e), new Segment(c, w)));
+
+        CollinearChains chains = new CollinearChains(minimal);
+
+        assertEquals(2, chains.getChains().size());
+        assertEquals(Set.of(new Segment(n, s), new Segment(e, w)), chains.nonMinimalSegments());
+    }
+    @Test
+    void testNonMinimal_overlapping()
+    {
+        Point a = new Point("A", 0, 0);
+        Point b = new Point("B", 1, 0);
+        Point c = new Point("C", 2, 0);
+        Point d = new Point("D", 3, 0);
+
+        // AC overlaps AB and BC: not a simple path
+        Set<Segment> segments = new HashSet<Segment>(List.of(new Segment(a, b), new Segment(b, c), new Segment(a, c), new Segment(c, d)));
+
+        CollinearChains chains = new CollinearChains(segments);
+
+        assertTrue(chains.getChains().isEmpty());
+        assertEquals(Set.of(new Segment(a, d), new Segment(b, d)), chains.nonMinimalSegments());
+    }
+}
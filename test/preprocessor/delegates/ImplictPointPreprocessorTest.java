@@ -4,12 +4,24 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import java.util.ArrayList;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.Test;
 
 import geometry_objects.Segment;
+import geometry_objects.points.ConcurrentPointDatabase;
 import geometry_objects.points.Point;
 import geometry_objects.points.PointDatabase;
+import input.InputFacade;
+import preprocessor.delegates.ImplicitPointPreprocessor.Strategy;
+import utilities.concurrent.PipelineExecutor;
 
 class ImplicitPointProcessorTest
 {
@@ -174,4 +186,207 @@ class ImplicitPointProcessorTest
 
         assertEquals(pExpected, ImplicitPointPreprocessor.compute(pd, segmentList));
     }
-}
\ No newline at end of file
+
+    /*
+     * every strategy yields the same implicit points, names included, as the pairwise algorithm
+     */
+    static final String[] FIGURES = { "collinear_line_segments", "crossed_square", "crossing_symmetric_triangle",
+                                      "fully_connected_irregular_polygon", "line_seg", "single_triangle", "snake",
+                                      "square_tri", "star", "Tri_Quad" };
+
+    @Test
+    void testCompute_sweepLine_figures()
+    {
+        for (String figure : FIGURES) assertSameAsPairwise("jsonfiles/" + figure + ".json", Strategy.SWEEP_LINE);
+    }
+    @Test
+    void testCompute_sweepLine_grid()
+    {
+        // integer grid: many concurrent, collinear and vertical / horizontal segments
+        assertSameAsPairwise(randomSegments(new Random(223), 150, 8), Strategy.SWEEP_LINE);
+    }
+    @Test
+    void testCompute_sweepLine_random()
+    {
+        assertSameAsPairwise(randomSegments(new Random(8), 120, 1000), Strategy.SWEEP_LINE);
+    }
+    @Test
+    void testCompute_sweepLine_nearDegenerate()
+    {
+        // segments through shared points, nearly parallel and nearly vertical, perturbed around EPSILON
+        for (int seed = 0; seed < 20; seed++)
+        {
+            assertSameAsPairwise(nearDegenerateSegments(new Random(seed), 120), Strategy.SWEEP_LINE);
+        }
+    }
+    @Test
+    void testCompute_grid_figures()
+    {
+        for (String figure : FIGURES) assertSameAsPairwise("jsonfiles/" + figure + ".json", Strategy.GRID);
+    }
+    @Test
+    void testCompute_grid_grid()
+    {
+        assertSameAsPairwise(randomSegments(new Random(223), 150, 8), Strategy.GRID);
+    }
+    @Test
+    void testCompute_grid_random()
+    {
+        assertSameAsPairwise(randomSegments(new Random(8), 120, 1000), Strategy.GRID);
+    }
+    @Test
+    void testCompute_parallel_figures()
+    {
+        for (String figure : FIGURES) assertSameAsPairwise("jsonfiles/" + figure + ".json", Strategy.PARALLEL);
+    }
+    @Test
+    void testCompute_parallel_random()
+    {
+        // large enough to be split into several tasks
+        assertSameAsPairwise(randomSegments(new Random(3), 150, 1000), Strategy.PARALLEL);
+    }
+    @Test
+    void testCompute_parallel_platformThreads()
+    {
+        // the shared executor setting governs the parallel strategy
+        Executor shared = PipelineExecutor.get();
+        ExecutorService platform = PipelineExecutor.platform(3);
+        try
+        {
+            PipelineExecutor.set(platform);
+            assertSameAsPairwise(randomSegments(new Random(5), 150, 1000), Strategy.PARALLEL);
+        }
+        finally
+        {
+            PipelineExecutor.set(shared);
+            platform.shutdown();
+        }
+    }
+    @Test
+    void testCompute_parallel_fromPoolThread() throws Exception
+    {
+        // called from the only thread of a bounded pool (as a pipeline stage would be): no deadlock
+        ExecutorService single = PipelineExecutor.platform(1);
+        try
+        {
+            List<Segment> segments = randomSegments(new Random(9), 150, 1000);
+            List<SegmentPairIntersection> expected = ParallelIntersector.intersect(segments, PipelineExecutor.CALLER_THREAD);
+
+            Future<List<SegmentPairIntersection>> actual = single.submit(() -> ParallelIntersector.intersect(segments, single));
+
+            assertEquals(expected.toString(), actual.get(30, TimeUnit.SECONDS).toString());
+        }
+        finally
+        {
+            single.shutdown();
+        }
+    }
+    @Test
+    void testCompute_concurrentDatabase()
+    {
+        // the thread-safe database is a drop-in replacement
+        List<Segment> segments = randomSegments(new Random(13), 120, 1000);
+        segments.add(new Segment(new Point("A", 0, 0), new Point("B", 999, 999)));
+
+        PointDatabase expected = new PointDatabase(List.of(new Point("A", 0, 0), new Point("B", 999, 999)));
+        PointDatabase actual = new ConcurrentPointDatabase(List.of(new Point("A", 0, 0), new Point("B", 999, 999)));
+
+        assertSameAsPairwise(expected, segments, actual, segments, Strategy.PARALLEL);
+        assertEquals(expected.getPoints(), actual.getPoints());
+    }
+
+    @Test
+    void testCompute_concurrentDatabase_platformThreads()
+    {
+        // the tasks insert from several threads; near coincident crossings keep the pairwise coordinates
+        Executor shared = PipelineExecutor.get();
+        ExecutorService platform = PipelineExecutor.platform(4);
+        try
+        {
+            PipelineExecutor.set(platform);
+            for (int seed = 0; seed < 10; seed++)
+            {
+                List<Segment> segments = nearDegenerateSegments(new Random(seed), 150);
+
+                assertSameAsPairwise(new PointDatabase(), segments, new ConcurrentPointDatabase(), segments, Strategy.PARALLEL);
+            }
+        }
+        finally
+        {
+            PipelineExecutor.set(shared);
+            platform.shutdown();
+        }
+    }
+
+    static void assertSameAsPairwise(String filename, Strategy strategy)
+    {
+        Map.Entry<PointDatabase, Set<Segment>> expected = InputFacade.toGeometryRepresentation(filename);
+        Map.Entry<PointDatabase, Set<Segment>> actual = InputFacade.toGeometryRepresentation(filename);
+
+        assertSameAsPairwise(expected.getKey(), new ArrayList<Segment>(expected.getValue()),
+                             actual.getKey(), new ArrayList<Segment>(actual.getValue()), strategy);
+    }
+
+    static void assertSameAsPairwise(List<Segment> segments, Strategy strategy)
+    {
+        assertSameAsPairwise(new PointDatabase(), segments, new PointDatabase(), segments, strategy);
+    }
+
+    static void assertSameAsPairwise(PointDatabase expectedPoints, List<Segment> expectedSegments,
+                                     PointDatabase actualPoints, List<Segment> actualSegments, Strategy strategy)
+    {
+        Set<Point> expected = ImplicitPointPreprocessor.compute(expectedPoints, expectedSegments, Strategy.PAIRWISE);
+        Set<Point> actual = ImplicitPointPreprocessor.compute(actualPoints, actualSegments, strategy);
+
+        // toString includes the name and coordinates; order must match too
+        assertEquals(expected.stream().map(Point::toString).toList(), actual.stream().map(Point::toString).toList());
+        assertEquals(expectedPoints.size(), actualPoints.size());
+    }
+
+    static List<Segment> randomSegments(Random random, int n, int extent)
+    {
+        List<Segment> segments = new ArrayList<Segment>();
+
+        for (int i = 0; i < n; i++)
+        {
+            segments.add(new Segment(new Point(random.nextInt(extent), random.nextInt(extent)),
+                                     new Point(random.nextInt(extent), random.nextInt(extent))));
+        }
+
+        return segments;
+    }
+
+    /**
+     * Fans of segments through a few shared points, with endpoints moved by offsets
+     * around EPSILON; some nearly vertical, some nearly parallel to an earlier segment
+     */
+    static List<Segment> nearDegenerateSegments(Random random, int n)
+    {
+        double[] offsets = { 0, 0, 1e-9, -1e-9, 3e-10, -3e-10, 1e-12, -1e-12 };
+        List<Segment> segments = new ArrayList<Segment>();
+
+        for (int i = 0; i < n; i++)
+        {
+            double hx = random.nextInt(4) * 10, hy = random.nextInt(4) * 10;
+            double dx = random.nextInt(21) - 10, dy = random.nextInt(21) - 10;
+
+            switch (random.nextInt(3))
+            {
+                case 0: dx = offsets[random.nextInt(offsets.length)]; break;
+                case 1:
+                    if (segments.isEmpty()) break;
+                    Segment other = segments.get(random.nextInt(segments.size()));
+                    dx = other.getPoint2().getX() - other.getPoint1().getX();
+                    dy = other.getPoint2().getY() - other.getPoint1().getY() + offsets[random.nextInt(offsets.length)];
+                    break;
+                default: break;
+            }
+
+            double t = random.nextInt(3) - 1;
+            segments.add(new Segment(new Point(hx + t * dx + offsets[random.nextInt(offsets.length)], hy + t * dy),
+                                     new Point(hx + (t + 1.5) * dx, hy + (t + 1.5) * dy + offsets[random.nextInt(offsets.length)])));
+        }
+
+        return segments;
+    }
+}
@@ -0,0 +1,107 @@
+package preprocessor.delegates;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import geometry_objects.Segment;
+import geometry_objects.points.Point;
+
+class LazySegmentDatabaseTest
+{
+    /*
+     * a dense line: every sub-segment is found, iterated once and stable under get
+     * the same contents as the eager construction
+     * segments off the chains are absent
+     */
+    @Test
+    void testLine_allSubSegments()
+    {
+        int k = 200;
+        Point[] points = new Point[k];
+        for (int i = 0; i < k; i++) points[i] = new Point("P" + i, 3 * i, -i);
+
+        Set<Segment> minimal = new HashSet<Segment>();
+        for (int i = 0; i < k - 1; i++) minimal.add(new Segment(points[i], points[i + 1]));
+
+        LazySegmentDatabase database = new LazySegmentDatabase(minimal);
+
+        assertEquals(k * (k - 1) / 2, database.size());
+        assertEquals(k * (k - 1) / 2 - (k - 1), database.nonMinimalSegments().size());
+
+        Set<Segment> iterated = new HashSet<Segment>();
+        for (Map.Entry<Segment, Segment> entry : database.entrySet())
+        {
+            assertSame(entry.getKey(), entry.getValue());
+            assertTrue(iterated.add(entry.getKey()));
+        }
+        assertEquals(database.size(), iterated.size());
+
+        Segment requested = database.get(new Segment(points[150], points[7]));
+        assertNotNull(requested);
+        assertSame(requested, database.get(new Segment(points[7], points[150])));
+        assertTrue(database.nonMinimalSegments().contains(requested));
+        assertFalse(database.nonMinimalSegments().contains(new Segment(points[7], points[8])));
+
+        assertFalse(database.containsKey(new Segment(points[0], new Point(1, 1))));
+        assertFalse(database.containsKey(new Segment(points[3], points[3])));
+    }
+    @Test
+    void testLine_requestedNotRetained()
+    {
+        // requested sub-segments no longer referenced are not kept by the database
+        int k = 400;
+        Set<Segment> minimal = new HashSet<Segment>();
+        for (int i = 0; i < k - 1; i++) minimal.add(new Segment(new Point(i, 2 * i), new Point(i + 1, 2 * i + 2)));
+
+        LazySegmentDatabase database = new LazySegmentDatabase(minimal);
+        for (int i = 0; i < k; i++)
+        {
+            for (int j = i + 2; j < k; j++) assertNotNull(database.get(new Segment(new Point(i, 2 * i), new Point(j, 2 * j))));
+        }
+
+        Segment held = database.get(new Segment(new Point(0, 0), new Point(5, 10)));
+        for (int attempt = 0; attempt < 10 && database._materialized.size() > k; attempt++)
+        {
+            System.gc();
+            database.get(new Segment(new Point(1, 2), new Point(6, 12)));
+        }
+
+        assertTrue(database._materialized.size() <= k);
+        assertSame(held, database.get(new Segment(new Point(5, 10), new Point(0, 0))));
+    }
+    @Test
+    void testFigure_sameAsEager()
+    {
+        // a grid of 4 x 4 points with its rows, columns and main diagonal
+        Point[][] grid = new Point[4][4];
+        for (int x = 0; x < 4; x++)
+        {
+            for (int y = 0; y < 4; y++) grid[x][y] = new Point(x, y);
+        }
+
+        Set<Segment> minimal = new HashSet<Segment>();
+        for (int i = 0; i < 4; i++)
+        {
+            for (int j = 0; j < 3; j++)
+            {
+                minimal.add(new Segment(grid[i][j], grid[i][j + 1]));
+                minimal.add(new Segment(grid[j][i], grid[j + 1][i]));
+            }
+        }
+        for (int i = 0; i < 3; i++) minimal.add(new Segment(grid[i][i], grid[i + 1][i + 1]));
+
+        LazySegmentDatabase database = new LazySegmentDatabase(minimal);
+
+        Set<Segment> expected = new HashSet<Segment>(minimal);
+        expected.addAll(new CollinearChains(minimal).nonMinimalSegments());
+
+        assertEquals(expected, database.keySet());
+        assertEquals(expected.size(), database.size());
+        for (Segment segment : expected) assertTrue(database.containsKey(segment));
+    }
+}
@@ -0,0 +1,56 @@
+package preprocessor.delegates;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import geometry_objects.Segment;
+import geometry_objects.points.Point;
+
+class MinimalSegmentationTest
+{
+    /*
+     * overlapping and disjoint segments on one line
+     * a crossing: the implicit point splits both segments
+     */
+    @Test
+    void testSegmentation_oneLine()
+    {
+        /*
+         *  A----B----C----D    E----F
+         *  |____AC___|
+         *       |____BD___|    |_EF_|
+         */
+        Point a = new Point("A", 0, 0);
+        Point b = new Point("B", 1, 0);
+        Point c = new Point("C", 2, 0);
+        Point d = new Point("D", 3, 0);
+        Point e = new Point("E", 5, 0);
+        Point f = new Point("F", 6, 0);
+
+        MinimalSegmentation segmentation = new MinimalSegmentation(Set.of(), Set.of(new Segment(a, c), new Segment(b, d), new Segment(e, f)));
+
+        assertEquals(Set.of(new Segment(a, b), new Segment(b, c), new Segment(c, d), new Segment(e, f)), segmentation.getMinimalSegments());
+        assertTrue(segmentation.getImplicitSegments().isEmpty());
+    }
+    @Test
+    void testSegmentation_crossing()
+    {
+        Point a = new Point("A", 0, 0);
+        Point b = new Point("B", 2, 2);
+        Point c = new Point("C", 0, 2);
+        Point d = new Point("D", 2, 0);
+        Point x = new Point(1, 1);
+
+        MinimalSegmentation segmentation = new MinimalSegmentation(Set.of(x), Set.of(new Segment(a, b), new Segment(c, d), new Segment(a, c)));
+
+        Set<Segment> implicit = Set.of(new Segment(a, x), new Segment(x, b), new Segment(c, x), new Segment(x, d));
+
+        assertEquals(implicit, segmentation.getImplicitSegments());
+        assertEquals(5, segmentation.getMinimalSegments().size());
+        assertTrue(segmentation.getMinimalSegments().containsAll(implicit));
+        assertTrue(segmentation.getMinimalSegments().contains(new Segment(a, c)));
+    }
+}
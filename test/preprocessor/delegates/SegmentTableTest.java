@@ -0,0 +1,75 @@
+package preprocessor.delegates;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import geometry_objects.Segment;
+import geometry_objects.points.Point;
+import geometry_objects.points.PointDatabase;
+
+class SegmentTableTest
+{
+    /*
+     * lookups by equal segments (either orientation) and by endpoint IDs return the stored object
+     * segments with an endpoint not in the point database are absent and cannot be added
+     */
+    @Test
+    void testLookup()
+    {
+        Point a = new Point("A", 0, 0);
+        Point b = new Point("B", 1, 0);
+        Point c = new Point("C", 0, 1);
+        Segment ab = new Segment(a, b);
+
+        PointDatabase points = new PointDatabase(List.of(a, b));
+        SegmentTable table = new SegmentTable(points, 0);
+
+        assertTrue(table.add(ab));
+        assertFalse(table.add(new Segment(b, a)));
+        assertSame(ab, table.putIfAbsent(new Segment(a, b)));
+        assertEquals(1, table.size());
+
+        assertSame(ab, table.get(new Segment(new Point(1, 0), new Point(0, 0))));
+        assertSame(ab, table.get(points.idOf(b), points.idOf(a)));
+        assertTrue(table.contains(new Segment(b, a)));
+
+        assertNull(table.get(new Segment(a, c)));
+        assertFalse(table.remove(new Segment(a, c)));
+        assertThrows(IllegalArgumentException.class, () -> table.add(new Segment(a, c)));
+    }
+
+    /*
+     * random adds and removals (through several rehashes): the same contents as a HashSet
+     */
+    @Test
+    void testSameAsHashSet()
+    {
+        int n = 40;
+        Point[] points = new Point[n];
+        for (int i = 0; i < n; i++) points[i] = new Point(i % 7, i / 7);
+
+        Random random = new Random(11);
+        SegmentTable table = new SegmentTable(new PointDatabase(List.of(points)), 0);
+        Set<Segment> expected = new HashSet<Segment>();
+
+        for (int k = 0; k < 20000; k++)
+        {
+            Segment segment = new Segment(points[random.nextInt(n)], points[random.nextInt(n)]);
+
+            if (random.nextInt(3) == 0) assertEquals(expected.remove(segment), table.remove(segment));
+            else assertEquals(expected.add(segment), table.add(segment));
+
+            assertEquals(expected.size(), table.size());
+        }
+
+        assertEquals(expected, table);
+        assertEquals(expected, new HashSet<Segment>(table));
+        for (Segment segment : expected) assertSame(table.get(segment), table.get(new Segment(segment.getPoint2(), segment.getPoint1())));
+    }
+}
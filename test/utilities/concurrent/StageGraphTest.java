@@ -0,0 +1,107 @@
+package utilities.concurrent;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import utilities.concurrent.StageGraph.Stage;
+
+class StageGraphTest
+{
+    /*
+     * in the calling thread, stages run in the order added
+     * a stage sees the results of its dependencies
+     */
+    @Test
+    void testCallerThread()
+    {
+        List<String> order = new ArrayList<String>();
+        StageGraph stages = new StageGraph(PipelineExecutor.CALLER_THREAD);
+
+        Stage<Integer> a = stages.add("a", () -> { order.add("a"); return 2; });
+        Stage<Integer> b = stages.add("b", () -> { order.add("b"); return a.get() * 3; }, a);
+        Stage<Integer> c = stages.add("c", () -> { order.add("c"); return a.get() + b.get(); }, a, b);
+        stages.await();
+
+        assertEquals(List.of("a", "b", "c"), order);
+        assertEquals(8, c.get());
+    }
+    @Test
+    void testIndependentStagesConcurrent() throws InterruptedException
+    {
+        ExecutorService platform = PipelineExecutor.platform(2);
+        try
+        {
+            // each of the two stages waits for the other to start
+            CountDownLatch started = new CountDownLatch(2);
+            List<String> done = Collections.synchronizedList(new ArrayList<String>());
+            StageGraph stages = new StageGraph(platform);
+
+            Stage<Void> root = stages.add("root", () -> null);
+            for (String name : List.of("left", "right"))
+            {
+                stages.add(name, () ->
+                {
+                    started.countDown();
+                    try { assertTrue(started.await(10, TimeUnit.SECONDS)); }
+                    catch (InterruptedException e) { throw new IllegalStateException(e); }
+                    done.add(name);
+                    return null;
+                }, root);
+            }
+            stages.await();
+
+            assertEquals(2, done.size());
+        }
+        finally
+        {
+            platform.shutdown();
+        }
+    }
+    @Test
+    void testAwaitFromPoolThread() throws Exception
+    {
+        // a graph on a one-thread pool, awaited by a task of that pool: the awaiting thread runs the stages
+        ExecutorService single = PipelineExecutor.platform(1);
+        try
+        {
+            Future<Integer> result = single.submit(() ->
+            {
+                StageGraph stages = new StageGraph(single);
+
+                Stage<Integer> a = stages.add("a", () -> 2);
+                Stage<Integer> b = stages.add("b", () -> a.get() * 3, a);
+                Stage<Integer> c = stages.add("c", () -> a.get() + 1, a);
+                Stage<Integer> d = stages.add("d", () -> b.get() + c.get(), b, c);
+                stages.await();
+
+                return d.get();
+            });
+
+            assertEquals(9, result.get(10, TimeUnit.SECONDS));
+        }
+        finally
+        {
+            single.shutdown();
+        }
+    }
+    @Test
+    void testFailure()
+    {
+        StageGraph stages = new StageGraph(PipelineExecutor.CALLER_THREAD);
+
+        Stage<Integer> failing = stages.add("failing", () -> { throw new IllegalArgumentException("bad input"); });
+        stages.add("dependent", () -> failing.get() + 1, failing);
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, stages::await);
+        assertEquals("bad input", e.getMessage());
+    }
+}
@@ -0,0 +1,50 @@
+package utilities.concurrent;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class WeakValueMapTest
+{
+    /*
+     * a value still held is returned for its key; removal drops it
+     */
+    @Test
+    void testPutIfAbsent()
+    {
+        WeakValueMap<Long, String> map = new WeakValueMap<Long, String>();
+        String a = new String("a");
+
+        assertSame(a, map.putIfAbsent(1L, a));
+        assertSame(a, map.putIfAbsent(1L, new String("a")));
+        assertSame(a, map.get(1L));
+        assertNull(map.get(2L));
+
+        map.remove(1L);
+        assertNull(map.get(1L));
+        assertTrue(map.isEmpty());
+    }
+
+    /*
+     * values referenced nowhere else are collected and their entries purged
+     */
+    @Test
+    void testCollected()
+    {
+        WeakValueMap<Integer, byte[]> map = new WeakValueMap<Integer, byte[]>();
+
+        int n = 20000;
+        for (int i = 0; i < n; i++) map.putIfAbsent(i, new byte[10000]);
+
+        byte[] held = new byte[1];
+        map.putIfAbsent(-1, held);
+        for (int attempt = 0; attempt < 10 && map.size() > n / 2; attempt++)
+        {
+            System.gc();
+            map.putIfAbsent(-1, held);
+        }
+
+        assertTrue(map.size() < n / 2);
+        assertSame(held, map.get(-1));
+    }
+}
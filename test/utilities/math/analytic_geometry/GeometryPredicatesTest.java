@@ -0,0 +1,67 @@
+package utilities.math.analytic_geometry;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import geometry_objects.points.Point;
+
+class GeometryPredicatesTest
+{
+    /*
+     * orientation: counterclockwise, clockwise, collinear
+     * between: endpoints, middle, off the line, beyond the ends, degenerate segment
+     * between agrees with GeometryUtilities.between near the EPSILON boundary
+     */
+    @Test
+    void testOrientation()
+    {
+        assertTrue(GeometryPredicates.orientation(0, 0, 4, 0, 2, 2) > 0);
+        assertTrue(GeometryPredicates.orientation(0, 0, 4, 0, 2, -2) < 0);
+        assertEquals(0, GeometryPredicates.orientation(0, 0, 4, 0, 7, 0));
+    }
+    @Test
+    void testBetween_simple()
+    {
+        Point a = new Point("A", 0, 0);
+        Point b = new Point("B", 4, 4);
+
+        assertTrue(GeometryPredicates.between(a, a, b));
+        assertTrue(GeometryPredicates.between(b, a, b));
+        assertTrue(GeometryPredicates.between(new Point(1, 1), a, b));
+        assertFalse(GeometryPredicates.between(new Point(1, 2), a, b));
+        assertFalse(GeometryPredicates.between(new Point(5, 5), a, b));
+        assertFalse(GeometryPredicates.between(new Point(-1, -1), a, b));
+    }
+    @Test
+    void testBetween_degenerate()
+    {
+        Point a = new Point("A", 3, 3);
+
+        assertTrue(GeometryPredicates.between(new Point(3, 3), a, a));
+        assertFalse(GeometryPredicates.between(new Point(3, 4), a, a));
+    }
+    @Test
+    void testBetween_agreesNearBoundary()
+    {
+        Random random = new Random(6);
+
+        for (int i = 0; i < 200000; i++)
+        {
+            double scale = Math.pow(10, random.nextInt(7) - 3);
+            double ax = random.nextDouble() * scale, ay = random.nextDouble() * scale;
+            double bx = random.nextDouble() * scale, by = random.nextDouble() * scale;
+
+            // a point along (or beyond) the segment, pushed off the line by up to ~0.1
+            double t = random.nextDouble() * 1.2 - 0.1;
+            double offset = (random.nextDouble() - 0.5) * Math.pow(10, -random.nextInt(9) - 1);
+            double mx = ax + t * (bx - ax) + offset;
+            double my = ay + t * (by - ay) - offset;
+
+            assertEquals(GeometryUtilities.between(mx, my, ax, ay, bx, by),
+                         GeometryPredicates.between(mx, my, ax, ay, bx, by));
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package utilities.persistent;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class PersistentHashMapTest
+{
+    // Equal hashes for every multiple of 1000: exercises the collision nodes
+    private static class Key
+    {
+        private final int _value;
+
+        Key(int value) { _value = value; }
+
+        @Override
+        public int hashCode() { return _value % 1000 == 0 ? 42 : Integer.reverse(_value); }
+
+        @Override
+        public boolean equals(Object o) { return o instanceof Key && ((Key) o)._value == _value; }
+    }
+
+    /*
+     * agrees with HashMap, including colliding hashes
+     * earlier versions are unchanged
+     */
+    @Test
+    void testPut_sameAsHashMap()
+    {
+        Random random = new Random(18);
+        Map<Key, Integer> expected = new HashMap<Key, Integer>();
+        PersistentHashMap<Key, Integer> actual = PersistentHashMap.empty();
+
+        for (int i = 0; i < 20000; i++)
+        {
+            int k = random.nextBoolean() ? random.nextInt(5000) : 1000 * random.nextInt(20);
+            expected.put(new Key(k), i);
+            actual = actual.put(new Key(k), i);
+        }
+
+        assertEquals(expected.size(), actual.size());
+        for (int k = -10; k < 21000; k++) assertEquals(expected.get(new Key(k)), actual.get(new Key(k)));
+    }
+    @Test
+    void testPut_persistent()
+    {
+        PersistentHashMap<Key, String> empty = PersistentHashMap.empty();
+        PersistentHashMap<Key, String> one = empty.put(new Key(1000), "a");
+        PersistentHashMap<Key, String> two = one.put(new Key(2000), "b");
+        PersistentHashMap<Key, String> replaced = two.put(new Key(1000), "c");
+
+        assertTrue(empty.isEmpty());
+        assertEquals(1, one.size());
+        assertNull(one.get(new Key(2000)));
+        assertEquals("a", two.get(new Key(1000)));
+        assertEquals("c", replaced.get(new Key(1000)));
+        assertEquals(2, replaced.size());
+        assertSame(replaced, replaced.put(new Key(2000), "b"));
+    }
+}